@@ -0,0 +1,278 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * A classe `ArquivoProgramas` lê e grava um arquivo único com todos os programas de uma simulação,
+ * no lugar de um arquivo de texto por processo. O arquivo é mapeado em memória e as instruções de
+ * cada programa são usadas direto do mapeamento, sem cópia e sem análise de texto.
+ *
+ * Formato (little-endian):
+ *
+ * - cabeçalho de 16 bytes: "PRG1", quantum, número de programas e 4 bytes reservados;
+ * - índice, com uma entrada de 32 bytes por programa, na ordem da tabela de processos: número do
+ *   arquivo de origem, prioridade, posição e tamanho do nome (em bytes), posição das instruções,
+ *   número de instruções e instante de chegada;
+ * - os nomes, em UTF-8, um após o outro;
+ * - as instruções codificadas de cada programa (8 bytes cada, veja `Programa`), contíguas e alinhadas a 8 bytes.
+ *   Programas com as mesmas instruções apontam para o mesmo trecho, gravado uma única vez.
+ */
+
+public class ArquivoProgramas {
+  // Formato
+
+  /**
+   * Bytes iniciais de um arquivo de programas.
+   */
+  public static final byte[] ASSINATURA = {'P', 'R', 'G', '1'};
+
+  /**
+   * Tamanho do cabeçalho, em bytes.
+   */
+  private static final int CABECALHO = 16;
+
+  /**
+   * Tamanho de uma entrada do índice, em bytes.
+   */
+  private static final int ENTRADA = 32;
+
+  // Atributos
+
+  /**
+   * Conteúdo do arquivo, mapeado em memória.
+   */
+  private final MappedByteBuffer conteudo;
+
+  /**
+   * Quantum gravado no arquivo.
+   */
+  private final int quantum;
+
+  /**
+   * Número de programas no arquivo.
+   */
+  private final int num_programas;
+
+  // Construtor
+
+  /**
+   * Abre e mapeia um arquivo de programas, conferindo o cabeçalho, o índice e as instruções de cada
+   * programa (veja `Programa.verificaCodificadas`), para que um arquivo truncado ou montado à mão seja
+   * rejeitado já na abertura e não no meio da simulação.
+   *
+   * @param arquivo O arquivo de programas.
+   * @throws IOException Se não for possível ler o arquivo.
+   * @throws IllegalArgumentException Se o arquivo não estiver no formato esperado.
+   */
+  public ArquivoProgramas(Path arquivo) throws IOException {
+    try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+      if (canal.size() > Integer.MAX_VALUE)
+        throw new IllegalArgumentException(arquivo + ": arquivo de programas maior que 2 GB");
+      this.conteudo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+    }
+    this.conteudo.order(ByteOrder.LITTLE_ENDIAN);
+
+    byte[] assinatura = new byte[ASSINATURA.length];
+    if (this.conteudo.limit() < CABECALHO) throw new IllegalArgumentException(arquivo + ": não é um arquivo de programas");
+    this.conteudo.get(0, assinatura);
+    if (!Arrays.equals(assinatura, ASSINATURA)) throw new IllegalArgumentException(arquivo + ": não é um arquivo de programas");
+
+    this.quantum = this.conteudo.getInt(4);
+    this.num_programas = this.conteudo.getInt(8);
+
+    // Confere que o índice e os trechos que ele aponta estão dentro do arquivo, e as instruções de
+    // cada trecho uma única vez (programas repetidos apontam para o mesmo trecho)
+    long limite = this.conteudo.limit();
+    LongBuffer todas = this.conteudo.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(0).asLongBuffer();
+    HashSet<Long> conferidos = new HashSet<>();
+    if (this.num_programas < 0 || CABECALHO + (long) this.num_programas * ENTRADA > limite)
+      throw new IllegalArgumentException(arquivo + ": índice inválido");
+    for (int i = 0; i < this.num_programas; i++) {
+      int entrada = CABECALHO + i * ENTRADA;
+      long nome = this.conteudo.getInt(entrada + 8) & 0xFFFFFFFFL;
+      long tamanho_nome = this.conteudo.getInt(entrada + 12) & 0xFFFFFFFFL;
+      long instrucoes = this.conteudo.getLong(entrada + 16);
+      long num_instrucoes = this.conteudo.getInt(entrada + 24) & 0xFFFFFFFFL;
+      if (nome + tamanho_nome > limite || instrucoes < 0 || instrucoes % 8 != 0 || instrucoes + 8 * num_instrucoes > limite)
+        throw new IllegalArgumentException(arquivo + ": entrada " + (i + 1) + " do índice inválida");
+      if (conferidos.add(instrucoes << 32 | num_instrucoes))
+        Programa.verificaCodificadas(arquivo + ", programa " + (i + 1), todas.slice((int) (instrucoes / 8), (int) num_instrucoes));
+    }
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o quantum gravado no arquivo.
+   *
+   * @return O quantum.
+   */
+  public int getQuantum() {
+    return this.quantum;
+  }
+
+  /**
+   * Obtém o número de programas no arquivo.
+   *
+   * @return O número de programas.
+   */
+  public int getNumProgramas() {
+    return this.num_programas;
+  }
+
+  // Métodos
+
+  /**
+   * Cria a tabela de processos com os programas do arquivo. As instruções de cada programa continuam
+   * no arquivo mapeado; só os nomes são decodificados.
+   *
+   * @return A tabela de processos, na ordem do índice.
+   */
+  public TabelaDeProcessos criaTabela() {
+    return this.criaTabela(new InternadorProgramas());
+  }
+
+  /**
+   * Cria a tabela de processos com os programas do arquivo, e os programas que apontam para o mesmo
+   * trecho de instruções compartilham um único `Programa`.
+   *
+   * @param internador O internador dos programas do arquivo.
+   * @return A tabela de processos, na ordem do índice.
+   */
+  public TabelaDeProcessos criaTabela(InternadorProgramas internador) {
+    TabelaDeProcessos tabela = new TabelaDeProcessos(this.num_programas);
+    LongBuffer todas = this.conteudo.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(0).asLongBuffer();
+
+    for (int i = 0; i < this.num_programas; i++) {
+      int entrada = CABECALHO + i * ENTRADA;
+      int nome_arquivo = this.conteudo.getInt(entrada);
+      int prioridade = this.conteudo.getInt(entrada + 4);
+      String nome = Programa.linha(this.conteudo, this.conteudo.getInt(entrada + 8),
+                                   this.conteudo.getInt(entrada + 8) + this.conteudo.getInt(entrada + 12));
+      int inicio = (int) (this.conteudo.getLong(entrada + 16) / 8);
+      int num_instrucoes = this.conteudo.getInt(entrada + 24);
+      int chegada = this.conteudo.getInt(entrada + 28);
+
+      Programa programa = internador.interna(new Programa(todas.slice(inicio, num_instrucoes)));
+      BCP bcp = tabela.novoProcesso(nome, nome_arquivo, programa);
+      bcp.setPrioridade(prioridade);
+      bcp.setChegada(chegada);
+    }
+
+    return tabela;
+  }
+
+  /**
+   * Grava os programas de uma tabela de processos em um arquivo de programas.
+   *
+   * @param tabela A tabela de processos, com os programas na ordem em que devem ser carregados.
+   * @param quantum O quantum gravado no arquivo.
+   * @param destino O arquivo de destino.
+   * @throws IOException Se não for possível gravar o arquivo.
+   */
+  public static void grava(TabelaDeProcessos tabela, int quantum, Path destino) throws IOException {
+    int n = tabela.getNumCriados();
+    HashMap<Programa, Long> trechos = new HashMap<>();  // Posição das instruções de cada programa único
+    byte[][] nomes = new byte[n][];
+    long pos_nomes = CABECALHO + (long) n * ENTRADA;
+    long pos_instrucoes = pos_nomes;
+    for (int i = 0; i < n; i++) {
+      nomes[i] = tabela.nome[i] != null ? tabela.nome[i].getBytes(StandardCharsets.UTF_8) : new byte[0];
+      pos_instrucoes += nomes[i].length;
+    }
+    pos_instrucoes = (pos_instrucoes + 7) & ~7L;  // Alinhamento das instruções
+
+    try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                              StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+      // Cabeçalho
+      buffer.put(ASSINATURA).putInt(quantum).putInt(n).putInt(0);
+
+      // Índice
+      long nome = pos_nomes, instrucoes = pos_instrucoes;
+      for (int i = 0; i < n; i++) {
+        Long trecho = trechos.putIfAbsent(tabela.programa[i], instrucoes);
+        if (buffer.remaining() < ENTRADA) descarrega(canal, buffer);
+        buffer.putInt(tabela.nome_arquivo[i]).putInt(tabela.prioridade[i])
+              .putInt((int) nome).putInt(nomes[i].length)
+              .putLong(trecho != null ? trecho : instrucoes).putInt(tabela.programa[i].getTamanho())
+              .putInt((int) Math.min(tabela.chegada[i], Integer.MAX_VALUE));
+        nome += nomes[i].length;
+        if (trecho == null) instrucoes += 8L * tabela.programa[i].getTamanho();
+      }
+      if (instrucoes > Integer.MAX_VALUE) throw new IOException("arquivo de programas maior que 2 GB");
+
+      // Nomes, seguidos do alinhamento
+      for (int i = 0; i < n; i++) {
+        if (buffer.remaining() < nomes[i].length) descarrega(canal, buffer);
+        if (buffer.remaining() < nomes[i].length) canal.write(ByteBuffer.wrap(nomes[i]));
+        else buffer.put(nomes[i]);
+      }
+      if (buffer.remaining() < 8) descarrega(canal, buffer);
+      for (long p = nome; p < pos_instrucoes; p++) buffer.put((byte) 0);
+
+      // Instruções, uma vez para cada programa único, na ordem em que aparecem no índice
+      for (int i = 0; i < n; i++) {
+        Programa programa = tabela.programa[i];
+        if (trechos.remove(programa) == null) continue;  // Já gravado
+        for (int pc = 0; pc < programa.getTamanho(); pc++) {
+          if (buffer.remaining() < 8) descarrega(canal, buffer);
+          buffer.putLong(programa.getInstrucao(pc));
+        }
+      }
+      descarrega(canal, buffer);
+    }
+  }
+
+  /**
+   * Grava o buffer no arquivo e o esvazia.
+   */
+  private static void descarrega(FileChannel canal, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) canal.write(buffer);
+    buffer.clear();
+  }
+
+  /**
+   * Converte uma pasta de programas no formato de texto (como a pasta "programas") em um arquivo de
+   * programas.
+   *
+   * Uso: `java ArquivoProgramas PASTA ARQUIVO`.
+   *
+   * @param args Os argumentos da linha de comando.
+   */
+  public static void main(String[] args) {
+    if (args.length != 2) {
+      System.out.println("Uso: java ArquivoProgramas PASTA ARQUIVO");
+      return;
+    }
+
+    Escalonador escalonador = new Escalonador();
+    try {
+      escalonador.lerArquivos(args[0]);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Programa inválido: " + e.getMessage());
+      return;
+    }
+
+    try {
+      escalonador.gravarArquivo(Paths.get(args[1]));
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao gravar o arquivo de programas.");
+      e.printStackTrace();
+      return;
+    }
+    System.out.println("Programas de " + args[0] + " gravados em " + args[1]);
+  }
+}
@@ -1,83 +1,57 @@
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * A classe BCP (Bloco de Controle de Processo) representa o controle e informações
  * de um processo a ser executado em um ambiente de escalonamento de processos.
  * Ela contém detalhes sobre o estado do processo, instruções de programa e o valor dos registradores X e Y, além do Program Counter.
+ *
+ * Os dados do processo ficam armazenados em vetores paralelos da `TabelaDeProcessos`; o BCP é
+ * apenas uma visão leve sobre a posição do processo nesses vetores.
  */
 
 public class BCP{
   // Atributos
-  
-  /**
-   * Program Counter (PC) - A variável que controla a próxima instrução a ser executada
-   * no programa associado a este processo.
-   */
-  protected int PC;
-
-  /**
-   * Estado do processo (por exemplo, "Pronto" ou "Bloqueado").
-   */
-  protected String estado;
-
-  /**
-   * Registrador X - Armazena um valor inteiro relacionado ao processo.
-   */
-  protected int X;
 
   /**
-   * Registrador Y - Armazena um valor inteiro relacionado ao processo.
+   * Tabela de processos onde os dados deste processo estão armazenados.
    */
-  protected int Y;
+  protected final TabelaDeProcessos tabela;
 
-  
   /**
-   * Programa - Lista de strings que representam as instruções do programa a ser executado.
+   * Identificador do processo, que é o seu índice nos vetores da tabela.
    */
-  protected List<String> programa;
+  protected final int id;
 
+  // Construtor para abrir uma visão sobre um processo
   /**
-   * Nome do processo.
-   */
-  protected String nome;
-
-  /**
-   * Identificador único do arquivo associado a este processo.
-   */
-  protected int nome_arquivo;
-
-  /**
-   * Tempo de espera na fila de bloqueados.
+   * Cria uma visão sobre o processo com o identificador especificado.
+   * Para criar um novo processo utilize `TabelaDeProcessos.novoProcesso`.
+   *
+   * @param tabela A tabela de processos onde o processo está armazenado.
+   * @param id O identificador do processo na tabela.
    */
-  protected int vezes_fila_bloq;
+  public BCP(TabelaDeProcessos tabela, int id){
+    this.tabela = tabela;
+    this.id = id;
+  }
 
-  // Construtor para abrir um novo processo
+  // Métodos Getters e Setters
   /**
-   * Cria um novo processo com o nome, identificador de arquivo e programa especificados.
+   * Obtém o identificador do processo na tabela de processos.
    *
-   * @param nome O nome do processo.
-   * @param nome_arquivo O identificador de arquivo associado a este processo.
-   * @param programa Uma lista de strings que representam as instruções do programa.
+   * @return O identificador do processo.
    */
-  public BCP(String nome, int nome_arquivo, List<String> programa){
-    this.PC = 0;
-    this.estado = "Pronto";
-    this.X = 0;
-    this.Y = 0;
-    this.programa = programa;
-    this.nome = nome;
-    this.nome_arquivo = nome_arquivo;
+  public int getId() {
+      return this.id;
   }
 
-  // Métodos Getters e Setters
   /**
    * Obtém o nome do processo.
    *
    * @return O nome do processo.
    */
   public String getNome() {
-      return this.nome;
+      return this.tabela.nome[this.id];
   }
 
   /**
@@ -86,7 +60,7 @@ public class BCP{
    * @return O identificador de arquivo.
    */
   public int getNomeArquivo() {
-      return this.nome_arquivo;
+      return this.tabela.nome_arquivo[this.id];
   }
 
   /**
@@ -94,8 +68,8 @@ public class BCP{
    *
    * @return O estado do processo.
    */
-  public String getEstado() {
-      return this.estado;
+  public Estado getEstado() {
+      return Estado.deCodigo(this.tabela.estado[this.id]);
   }
 
   /**
@@ -104,7 +78,7 @@ public class BCP{
    * @return O valor do Program Counter.
    */
   public int getPC() {
-      return this.PC;
+      return this.tabela.pc[this.id];
   }
 
   /**
@@ -113,7 +87,7 @@ public class BCP{
    * @return O valor do registrador X.
    */
   public int getX() {
-      return this.X;
+      return this.tabela.x[this.id];
   }
 
   /**
@@ -122,7 +96,16 @@ public class BCP{
    * @return O valor do registrador Y.
    */
   public int getY() {
-      return this.Y;
+      return this.tabela.y[this.id];
+  }
+
+  /**
+   * Obtém o código compilado do programa associado a este processo.
+   *
+   * @return O programa compilado.
+   */
+  public Programa getPrograma() {
+      return this.tabela.programa[this.id];
   }
 
   /**
@@ -130,17 +113,26 @@ public class BCP{
    *
    * @return A lista de instruções do programa.
    */
-  public List<String> getPrograma() {
-      return this.programa;
+  public List<String> getLinhasPrograma() {
+      return this.getPrograma().getLinhas();
+  }
+
+  /**
+   * Obtém a próxima instrução codificada com base no valor atual do Program Counter (PC).
+   *
+   * @return A próxima instrução codificada.
+   */
+  public long getInstrucao() {
+      return this.getPrograma().getInstrucao(this.getPC());
   }
 
   /**
-   * Obtém a próxima instrução no programa com base no valor atual do Program Counter (PC).
+   * Obtém o texto da próxima instrução no programa com base no valor atual do Program Counter (PC).
    *
    * @return A próxima instrução no programa.
    */
   public String getComando() {
-      return this.programa.get(this.PC);
+      return this.getPrograma().getTexto(this.getPC());
   }
 
   /**
@@ -149,25 +141,52 @@ public class BCP{
    * @return O número de comandos no programa.
    */
   public int getNumComandos() {
-      return this.programa.size();
+      return this.getPrograma().getTamanho();
   }
 
   /**
-   * Obtém o tempo de espera na fila de bloqueados.
+   * Obtém o instante, no relógio de despachos, em que o processo deixa a fila de bloqueados.
    *
-   * @return O tempo de espera na fila de bloqueados.
+   * @return O instante de término da E/S.
    */
-  public int getVezesFilaBloq() {
-      return this.vezes_fila_bloq;
+  public long getDespertar() {
+      return this.tabela.despertar[this.id];
   }
 
   /**
-   * Define o estado do processo (por exemplo, "Pronto" ou "Bloqueado").
+   * Obtém o instante, no relógio de despachos, em que o processo chega ao sistema.
+   *
+   * @return O instante de chegada.
+   */
+  public long getChegada() {
+      return this.tabela.chegada[this.id];
+  }
+
+  /**
+   * Obtém a prioridade estática do processo (valores menores indicam processos mais importantes).
+   *
+   * @return A prioridade do processo.
+   */
+  public int getPrioridade() {
+      return this.tabela.prioridade[this.id];
+  }
+
+  /**
+   * Obtém o valor mantido pela política de escalonamento para este processo.
+   *
+   * @return O valor da política.
+   */
+  public long getDadoPolitica() {
+      return this.tabela.dado_politica[this.id];
+  }
+
+  /**
+   * Define o estado do processo (por exemplo, `Estado.PRONTO` ou `Estado.BLOQUEADO`).
    *
    * @param estado O novo estado do processo.
    */
-  public void setEstado(String estado) {
-      this.estado = estado;
+  public void setEstado(Estado estado) {
+      this.tabela.estado[this.id] = estado.getCodigo();
   }
 
   /**
@@ -176,7 +195,7 @@ public class BCP{
    * @param valor O novo valor do registrador X.
    */
   public void setX(int valor) {
-      this.X = valor;
+      this.tabela.x[this.id] = valor;
   }
 
   /**
@@ -185,37 +204,73 @@ public class BCP{
    * @param valor O novo valor do registrador Y.
    */
   public void setY(int valor) {
-      this.Y = valor;
+      this.tabela.y[this.id] = valor;
+  }
+
+  /**
+   * Define o instante, no relógio de despachos, em que o processo deixa a fila de bloqueados.
+   *
+   * @param instante O instante de término da E/S.
+   */
+  public void setDespertar(long instante) {
+      this.tabela.despertar[this.id] = instante;
+  }
+
+  /**
+   * Define o instante, no relógio de despachos, em que o processo chega ao sistema.
+   *
+   * @param instante O instante de chegada.
+   */
+  public void setChegada(long instante) {
+      this.tabela.chegada[this.id] = instante;
+  }
+
+  /**
+   * Define a prioridade estática do processo (valores menores indicam processos mais importantes).
+   *
+   * @param prioridade A nova prioridade do processo.
+   */
+  public void setPrioridade(int prioridade) {
+      this.tabela.prioridade[this.id] = prioridade;
+  }
+
+  /**
+   * Define o valor mantido pela política de escalonamento para este processo.
+   *
+   * @param valor O novo valor da política.
+   */
+  public void setDadoPolitica(long valor) {
+      this.tabela.dado_politica[this.id] = valor;
   }
 
   /**
-   * Define o tempo de espera que do processo na fila de bloqueados
+   * Soma um intervalo ao tempo que o processo passou na fila de bloqueados.
    *
-   * @param n O tempo de espera na fila de bloqueados.
+   * @param tempo O intervalo, em despachos.
    */
-  public void setVezesFilaBloq(int n) {
-      this.vezes_fila_bloq = n;
+  public void addTempoBloqueado(long tempo) {
+    this.tabela.tempo_bloqueado[this.id] += tempo;
   }
 
   /**
    * Adiciona 1 ao Program Counter (PC), avançando para a próxima instrução no programa.
    */
   public void addUmPC(){
-    this.PC++;
+    this.tabela.pc[this.id]++;
   }
 
   /**
    * Exibe informações detalhadas sobre o processo, incluindo nome, estado, PC, X, Y e programa.
    */
   public void printBCP() {
-    System.out.println("Nome: " + this.nome);
-    System.out.println("Estado: " + this.estado);
-    System.out.println("PC: " + this.PC);
-    System.out.println("X: " + this.X);
-    System.out.println("Y: " + this.Y);
+    System.out.println("Nome: " + this.getNome());
+    System.out.println("Estado: " + this.getEstado());
+    System.out.println("PC: " + this.getPC());
+    System.out.println("X: " + this.getX());
+    System.out.println("Y: " + this.getY());
     System.out.println("Programa: ");
     for (int i=0; i < this.getNumComandos(); i++) {
-      System.out.println(programa.get(i));
+      System.out.println(this.getPrograma().getTexto(i));
     }
     System.out.println();
   }
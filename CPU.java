@@ -0,0 +1,349 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A classe `CPU` representa um núcleo na simulação com várias CPUs. Cada CPU roda em sua própria
+ * thread, tem a sua própria fila de prontos e, quando ela esvazia, rouba processos do fim da fila
+ * de outra CPU (work stealing). A tabela de processos, a fila de bloqueados e o relógio de despachos
+ * são compartilhados por todas as CPUs.
+ */
+
+public class CPU implements Runnable {
+  // Atributos
+
+  /**
+   * Tempo, em nanossegundos, que uma CPU sem processos espera antes de procurar de novo, cedendo o
+   * núcleo da máquina para as CPUs ocupadas.
+   */
+  private static final long ESPERA_NANOS = 50_000;
+
+  /**
+   * Número da CPU, exibido no log.
+   */
+  private final int id;
+
+  /**
+   * Todas as CPUs da simulação, usadas para procurar processos a roubar.
+   */
+  private final CPU[] cpus;
+
+  /**
+   * Fila de processos prontos desta CPU.
+   */
+  private final FilaProntos filaProntos;
+
+  /**
+   * Tabela de processos compartilhada.
+   */
+  private final TabelaDeProcessos tabela;
+
+  /**
+   * Fila de bloqueados compartilhada.
+   */
+  private final FilaBloq filaBloqueados;
+
+  /**
+   * Fila de chegadas compartilhada.
+   */
+  private final FilaChegadas filaChegadas;
+
+  /**
+   * Relógio de despachos compartilhado.
+   */
+  private final AtomicLong relogio;
+
+  /**
+   * Número de processos que ainda não terminaram, compartilhado.
+   */
+  private final AtomicInteger restantes;
+
+  /**
+   * Número de CPUs executando um processo ou procurando um para executar, compartilhado. Quando chega a
+   * zero com todas as filas de prontos vazias, a CPU ociosa pode avançar o relógio até a próxima E/S.
+   */
+  private final AtomicInteger ocupadas;
+
+  /**
+   * Quantum da simulação (pode ser mudado durante a execução).
+   */
+  private volatile int quantum;
+
+  /**
+   * Indica se os programas são executados pelo código compilado para bytecode (veja `CompiladorBytecode`).
+   */
+  private final boolean bytecode;
+
+  /**
+   * Instante do relógio de despachos em que as CPUs param, mesmo com processos não terminados.
+   */
+  private final long limite;
+
+  /**
+   * Número de instruções executadas, somando todas as CPUs, a partir do qual as CPUs param.
+   */
+  private final long limite_instrucoes;
+
+  /**
+   * Log da simulação, compartilhado.
+   */
+  private final SaidaLog log;
+
+  /**
+   * Contadores da simulação, compartilhados.
+   */
+  private final MonitorEscalonador monitor;
+
+  // Estatísticas da CPU
+
+  /**
+   * Número de processos escalonados nesta CPU.
+   */
+  private long n_trocas;
+
+  /**
+   * Número de instruções executadas nesta CPU.
+   */
+  private long n_instrucoes;
+
+  /**
+   * Número de processos roubados de outras CPUs.
+   */
+  private int n_roubos;
+
+  /**
+   * Despachos que o relógio avançou enquanto esta CPU estava ociosa com todos os processos bloqueados.
+   */
+  private long tempo_ocioso;
+
+  // Construtor
+
+  /**
+   * Cria uma CPU da simulação.
+   *
+   * @param id O número da CPU.
+   * @param cpus Todas as CPUs da simulação (incluindo esta, na posição `id`).
+   * @param politica A política de escalonamento da fila de prontos desta CPU.
+   * @param tabela A tabela de processos compartilhada.
+   * @param filaBloqueados A fila de bloqueados compartilhada.
+   * @param filaChegadas A fila de chegadas compartilhada.
+   * @param relogio O relógio de despachos compartilhado.
+   * @param restantes O contador de processos não terminados, compartilhado.
+   * @param ocupadas O contador de CPUs ocupadas, compartilhado.
+   * @param quantum O quantum da simulação.
+   * @param bytecode true para executar os programas compilados para bytecode, false para o interpretador.
+   * @param limite O instante do relógio de despachos em que a simulação é interrompida.
+   * @param limite_instrucoes O número de instruções, somando todas as CPUs, em que a simulação é interrompida.
+   * @param log O log da simulação.
+   * @param monitor Os contadores da simulação, expostos por JMX.
+   */
+  public CPU(int id, CPU[] cpus, PoliticaEscalonamento politica, TabelaDeProcessos tabela, FilaBloq filaBloqueados,
+             FilaChegadas filaChegadas, AtomicLong relogio, AtomicInteger restantes, AtomicInteger ocupadas, int quantum, boolean bytecode,
+             long limite, long limite_instrucoes, SaidaLog log, MonitorEscalonador monitor) {
+    this.id = id;
+    this.cpus = cpus;
+    this.filaProntos = new FilaProntos(politica);
+    this.tabela = tabela;
+    this.filaBloqueados = filaBloqueados;
+    this.filaChegadas = filaChegadas;
+    this.relogio = relogio;
+    this.restantes = restantes;
+    this.ocupadas = ocupadas;
+    this.quantum = quantum;
+    this.bytecode = bytecode;
+    this.limite = limite;
+    this.limite_instrucoes = limite_instrucoes;
+    this.log = log;
+    this.monitor = monitor;
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém a fila de processos prontos desta CPU.
+   *
+   * @return A fila de prontos.
+   */
+  public FilaProntos getFilaProntos() {
+    return this.filaProntos;
+  }
+
+  /**
+   * Muda o quantum desta CPU, a partir do próximo despacho.
+   *
+   * @param quantum O novo quantum.
+   */
+  public void setQuantum(int quantum) {
+    this.quantum = quantum;
+  }
+
+  /**
+   * Obtém o número de processos escalonados nesta CPU.
+   *
+   * @return O número de trocas.
+   */
+  public long getTrocas() {
+    return this.n_trocas;
+  }
+
+  /**
+   * Obtém o número de instruções executadas nesta CPU.
+   *
+   * @return O número de instruções.
+   */
+  public long getInstrucoes() {
+    return this.n_instrucoes;
+  }
+
+  /**
+   * Obtém o número de processos roubados de outras CPUs.
+   *
+   * @return O número de roubos.
+   */
+  public int getRoubos() {
+    return this.n_roubos;
+  }
+
+  /**
+   * Obtém o tempo de CPU ociosa registrado por esta CPU, em despachos.
+   *
+   * @return O tempo ocioso.
+   */
+  public long getTempoOcioso() {
+    return this.tempo_ocioso;
+  }
+
+  /**
+   * Obtém a fração do relógio de despachos ocupada pelos despachos desta CPU. Como o relógio é
+   * compartilhado e cada despacho de qualquer CPU o avança em 1, a soma das CPUs com o tempo ocioso é
+   * 100%, e o valor não depende do tempo real gasto pela JVM (JIT, log ou disputa por travas).
+   *
+   * @param relogio A duração da simulação, no relógio de despachos.
+   * @return A utilização da CPU, entre 0 e 1.
+   */
+  public double getUtilizacao(long relogio) {
+    return relogio > 0 ? (double) this.n_trocas / relogio : 0;
+  }
+
+  // Métodos
+
+  /**
+   * Laço de despacho da CPU: executa processos da própria fila, rouba de outras CPUs quando ela
+   * esvazia e termina quando todos os processos da simulação terminarem ou o relógio ou o total de
+   * instruções chegar ao limite.
+   */
+  @Override
+  public void run() {
+    while (this.restantes.get() > 0 && this.relogio.get() < this.limite && this.dentroDoLimiteInstrucoes()) {
+      this.ocupadas.incrementAndGet();
+      BCP bcp = this.filaProntos.retiraPronto();
+      if (bcp == null) bcp = this.roubaProcesso();
+
+      if (bcp != null) this.executar(bcp);
+      this.ocupadas.decrementAndGet();
+
+      if (bcp == null) this.aguarda();
+
+      this.filaBloqueados.liberaExpirados(this.relogio.get(), this.filaProntos);  // Libera os processos cuja E/S já terminou
+      this.filaChegadas.libera(this.relogio.get(), this.filaProntos, this.log, this.id);  // Carrega os processos que chegaram
+    }
+  }
+
+  /**
+   * Executa um processo de acordo com o quantum e o devolve à fila de prontos, à fila de bloqueados
+   * ou o exclui da tabela. Cada execução é um único evento do log, identificado pela CPU.
+   *
+   * @param bcp O processo a ser executado.
+   */
+  private void executar(BCP bcp) {
+    long instante = this.relogio.getAndIncrement();  // Avança o relógio de despachos
+    int maximo = this.filaProntos.getQuantum(bcp, this.quantum);
+    long resultado = this.bytecode ? CompiladorBytecode.executa(this.tabela, bcp.getId(), maximo)
+                                   : Interpretador.executa(this.tabela, bcp.getId(), maximo);
+    int motivo = Interpretador.motivo(resultado);
+    int instrucoesRodadas = Interpretador.executadas(resultado);
+    this.filaProntos.executou(bcp, instrucoesRodadas, motivo);  // Informa a política de escalonamento
+
+    this.log.despacho(this.id, bcp, instante, instrucoesRodadas, motivo);
+    this.tabela.registraDespacho(bcp.getId(), instante, motivo);
+
+    // Destino do processo após a execução
+    if (motivo == Interpretador.ENTRADA_SAIDA) {
+      this.filaBloqueados.insereBloq(bcp, instante);
+    }
+    else if (motivo == Interpretador.SAIDA) {
+      synchronized (this.tabela) {
+        this.tabela.excluiBCP(bcp);
+      }
+      this.restantes.decrementAndGet();
+    }
+    else {
+      this.filaProntos.inserePronto(bcp);
+    }
+
+    this.n_trocas++;
+    this.n_instrucoes += instrucoesRodadas;
+    this.monitor.despacho(instrucoesRodadas);
+  }
+
+  /**
+   * Verifica se o total de instruções executadas por todas as CPUs, lido dos contadores compartilhados,
+   * ainda está abaixo do limite. Sem limite, os contadores não são lidos.
+   *
+   * @return true se a simulação pode continuar.
+   */
+  private boolean dentroDoLimiteInstrucoes() {
+    return this.limite_instrucoes == Long.MAX_VALUE || this.monitor.getInstrucoes() < this.limite_instrucoes;
+  }
+
+  /**
+   * Procura um processo para roubar nas filas das outras CPUs, começando pela CPU seguinte.
+   *
+   * @return O processo roubado, ou null se todas as filas estiverem vazias.
+   */
+  private BCP roubaProcesso() {
+    for (int i = 1; i < this.cpus.length; i++) {
+      CPU vitima = this.cpus[(this.id + i) % this.cpus.length];
+      BCP bcp = vitima.filaProntos.roubaPronto();
+      if (bcp != null) {
+        this.n_roubos++;
+        return bcp;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Chamado quando a CPU não encontrou processo para executar. Se nenhuma CPU estiver ocupada e todas
+   * as filas de prontos estiverem vazias, todos os processos restantes estão bloqueados ou por chegar: o
+   * relógio avança direto para o término da próxima E/S ou a próxima chegada. Caso contrário, a thread da CPU
+   * dorme por `ESPERA_NANOS`, para não disputar o núcleo da máquina com as CPUs ocupadas.
+   */
+  private void aguarda() {
+    // As filas de bloqueados e de chegadas ficam travadas para que nenhum processo seja liberado durante a verificação
+    synchronized (this.filaBloqueados) {
+      synchronized (this.filaChegadas) {
+        long agora = this.relogio.get();
+        long proximo = FilaChegadas.proximoEvento(this.filaBloqueados.proximoDespertar(), this.filaChegadas.proximaChegada());
+        if (proximo > agora && this.ocupadas.get() == 0 && this.todasFilasVazias()
+            && this.relogio.compareAndSet(agora, proximo)) {
+          this.tempo_ocioso += proximo - agora;
+          return;
+        }
+      }
+    }
+    LockSupport.parkNanos(ESPERA_NANOS);
+  }
+
+  /**
+   * Verifica se as filas de prontos de todas as CPUs estão vazias.
+   *
+   * @return true se nenhuma CPU tiver processos prontos.
+   */
+  private boolean todasFilasVazias() {
+    for (CPU cpu : this.cpus) {
+      if (cpu.filaProntos.getTamanho() > 0) return false;
+    }
+    return true;
+  }
+}
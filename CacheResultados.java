@@ -0,0 +1,234 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A classe `CacheResultados` guarda em disco o resultado de simulações já executadas, para que uma
+ * simulação idêntica (mesmos programas, quantum e configurações; veja `Escalonador.chaveCache`) seja
+ * respondida sem executar de novo. Cada entrada tem o log compactado com gzip ("CHAVE.log.gz") e as
+ * estatísticas finais ("CHAVE.res").
+ *
+ * O tamanho total da pasta é limitado: quando passa do limite, as entradas usadas há mais tempo são
+ * removidas. O uso de uma entrada é marcado pela data de modificação do arquivo de estatísticas, que
+ * é gravado por último, então uma entrada só é encontrada depois de completa.
+ */
+
+public class CacheResultados {
+  // Atributos
+
+  /**
+   * Limite padrão do tamanho da pasta, em bytes.
+   */
+  public static final long LIMITE_PADRAO = 256L << 20;
+
+  /**
+   * Pasta das entradas.
+   */
+  private final Path pasta;
+
+  /**
+   * Tamanho máximo da pasta, em bytes.
+   */
+  private final long limite;
+
+  /**
+   * Número de simulações encontradas na cache.
+   */
+  private final AtomicLong acertos = new AtomicLong();
+
+  /**
+   * Número de simulações que não estavam na cache.
+   */
+  private final AtomicLong faltas = new AtomicLong();
+
+  // Construtor
+
+  /**
+   * Abre a cache em uma pasta, criando a pasta se não existir.
+   *
+   * @param pasta A pasta das entradas.
+   * @param limite O tamanho máximo da pasta, em bytes.
+   * @throws IOException Se não for possível criar a pasta.
+   */
+  public CacheResultados(Path pasta, long limite) throws IOException {
+    this.pasta = Files.createDirectories(pasta);
+    this.limite = limite;
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o número de simulações encontradas na cache.
+   *
+   * @return O número de acertos.
+   */
+  public long getAcertos() {
+    return this.acertos.get();
+  }
+
+  /**
+   * Obtém o número de simulações que não estavam na cache.
+   *
+   * @return O número de faltas.
+   */
+  public long getFaltas() {
+    return this.faltas.get();
+  }
+
+  // Métodos
+
+  /**
+   * Procura uma simulação na cache. Se ela estiver lá, o log é descompactado no destino.
+   *
+   * @param chave A chave da simulação.
+   * @param log O arquivo onde o log é descompactado.
+   * @return As estatísticas da simulação, ou null se ela não estiver na cache.
+   * @throws IOException Se não for possível ler a entrada ou gravar o log.
+   */
+  public Resultado busca(String chave, Path log) throws IOException {
+    Path estatisticas = this.pasta.resolve(chave + ".res");
+    Resultado resultado;
+    try (DataInputStream entrada = new DataInputStream(Files.newInputStream(estatisticas))) {
+      resultado = new Resultado(entrada.readDouble(), entrada.readDouble(), entrada.readUTF(), entrada.readUTF());
+      try (InputStream gzip = new GZIPInputStream(Files.newInputStream(this.pasta.resolve(chave + ".log.gz")), 1 << 16)) {
+        Files.copy(gzip, log, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (NoSuchFileException e) {
+      this.faltas.incrementAndGet();
+      return null;
+    }
+
+    Files.setLastModifiedTime(estatisticas, FileTime.fromMillis(System.currentTimeMillis()));  // Usada agora
+    this.acertos.incrementAndGet();
+    return resultado;
+  }
+
+  /**
+   * Guarda uma simulação na cache e remove as entradas mais antigas, se a pasta passar do limite.
+   *
+   * @param chave A chave da simulação.
+   * @param log O log da simulação, já fechado.
+   * @param resultado As estatísticas da simulação.
+   * @throws IOException Se não for possível gravar a entrada.
+   */
+  public void guarda(String chave, Path log, Resultado resultado) throws IOException {
+    // Os arquivos são gravados com nomes temporários e movidos, e as estatísticas por último
+    Path temporario = Files.createTempFile(this.pasta, chave, ".tmp");
+    try (OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(temporario), 1 << 16)) {
+      Files.copy(log, gzip);
+    }
+    Files.move(temporario, this.pasta.resolve(chave + ".log.gz"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    temporario = Files.createTempFile(this.pasta, chave, ".tmp");
+    try (DataOutputStream saida = new DataOutputStream(Files.newOutputStream(temporario))) {
+      saida.writeDouble(resultado.media_trocas);
+      saida.writeDouble(resultado.media_instrucoes);
+      saida.writeUTF(resultado.json);
+      saida.writeUTF(resultado.csv);
+    }
+    Files.move(temporario, this.pasta.resolve(chave + ".res"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    this.limita();
+  }
+
+  /**
+   * Resume o uso da cache, no formato "ACERTOS 3, FALTAS 1".
+   *
+   * @return O resumo.
+   */
+  public String resumo() {
+    return "ACERTOS " + this.acertos.get() + ", FALTAS " + this.faltas.get();
+  }
+
+  /**
+   * Remove as entradas usadas há mais tempo até o tamanho da pasta ficar dentro do limite.
+   */
+  private synchronized void limita() throws IOException {
+    List<Path> entradas = new ArrayList<>();
+    long total = 0;
+    try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(this.pasta, "*.res")) {
+      for (Path arquivo : arquivos) {
+        entradas.add(arquivo);
+        total += tamanho(arquivo) + tamanho(log(arquivo));
+      }
+    }
+    if (total <= this.limite) return;
+
+    // Da entrada usada há mais tempo para a mais recente
+    long[] usos = new long[entradas.size()];
+    Integer[] ordem = new Integer[entradas.size()];
+    for (int i = 0; i < ordem.length; i++) {
+      ordem[i] = i;
+      usos[i] = ultimoUso(entradas.get(i));
+    }
+    Arrays.sort(ordem, (a, b) -> Long.compare(usos[a], usos[b]));
+
+    for (int i = 0; i < ordem.length && total > this.limite; i++) {
+      Path estatisticas = entradas.get(ordem[i]);
+      total -= tamanho(estatisticas) + tamanho(log(estatisticas));
+      Files.deleteIfExists(estatisticas);  // Primeiro as estatísticas, para a entrada deixar de ser encontrada
+      Files.deleteIfExists(log(estatisticas));
+    }
+  }
+
+  /**
+   * Obtém o arquivo do log de uma entrada a partir do arquivo de estatísticas.
+   */
+  private static Path log(Path estatisticas) {
+    String nome = estatisticas.getFileName().toString();
+    return estatisticas.resolveSibling(nome.substring(0, nome.length() - ".res".length()) + ".log.gz");
+  }
+
+  /**
+   * Obtém o tamanho de um arquivo, ou 0 se ele não existir mais.
+   */
+  private static long tamanho(Path arquivo) {
+    try {
+      return Files.size(arquivo);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Obtém o instante do último uso de uma entrada, ou 0 se ela não existir mais.
+   */
+  private static long ultimoUso(Path estatisticas) {
+    try {
+      return Files.getLastModifiedTime(estatisticas).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * As estatísticas finais de uma simulação guardadas na cache.
+   */
+  static final class Resultado {
+    final double media_trocas;
+    final double media_instrucoes;
+    final String json;
+    final String csv;
+
+    Resultado(double media_trocas, double media_instrucoes, String json, String csv) {
+      this.media_trocas = media_trocas;
+      this.media_instrucoes = media_instrucoes;
+      this.json = json;
+      this.csv = csv;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+/**
+ * A interface `CodigoCompilado` é implementada pelas classes geradas por `CompiladorBytecode`, uma
+ * por programa: o método `executa` tem o mesmo contrato de `Interpretador.executa`, mas com as
+ * instruções do programa traduzidas para bytecode da JVM, sem o despacho por opcode a cada instrução.
+ */
+
+public interface CodigoCompilado {
+  /**
+   * Executa até `maximo` instruções do processo especificado, a partir do seu PC, atualizando o PC e
+   * os registradores na tabela de processos.
+   *
+   * @param tabela A tabela de processos onde estão os registradores do processo.
+   * @param id O identificador do processo.
+   * @param maximo O número máximo de instruções a executar (o quantum).
+   * @return O motivo da parada e o número de instruções executadas, codificados como em `Interpretador.resultado`.
+   */
+  long executa(TabelaDeProcessos tabela, int id, int maximo);
+}
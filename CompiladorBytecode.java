@@ -0,0 +1,587 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A classe `CompiladorBytecode` traduz cada programa distinto para uma classe da JVM gerada em tempo
+ * de execução (uma classe oculta, definida por `MethodHandles.Lookup.defineHiddenClass`), cujo método
+ * `executa` roda as instruções do programa a partir do PC do processo, sem o despacho por opcode do
+ * `Interpretador`. O JIT da JVM então otimiza cada programa como código próprio: os saltos do programa
+ * viram saltos do bytecode e os registradores ficam em variáveis locais durante a fatia.
+ *
+ * O bytecode gerado tem um bloco por instrução, começando pela verificação do quantum, e a entrada é
+ * um `tableswitch` pelo PC do processo. O resultado e o estado final do processo (PC, X e Y) são
+ * idênticos aos do interpretador, inclusive a parada no meio de uma sequência de "COM".
+ *
+ * Um programa é interpretado até ser despachado `LIMITE_EXECUCOES` vezes e só então é compilado, para
+ * não gerar classes para programas que executam pouco. Programas cujo bytecode passaria de 8000 bytes
+ * continuam no interpretador, já que a JVM não compila métodos maiores que isso com o JIT.
+ *
+ * O `Programa` continua imutável: a contagem de despachos e o código gerado ficam em uma tabela à
+ * parte, pelo conteúdo do programa, compartilhada por todas as simulações da JVM. Como no JIT da
+ * própria JVM, os despachos de todos os processos e simulações com o mesmo programa somam para o
+ * limite, e cada programa é compilado uma única vez, mesmo com várias CPUs ou simulações ao mesmo tempo.
+ *
+ * A classe é gerada no formato da versão 49 do class file, que dispensa os quadros de verificação
+ * (`StackMapTable`) das versões mais novas.
+ */
+
+public class CompiladorBytecode {
+  // Atributos
+
+  /**
+   * Número de despachos de um programa no interpretador antes de ele ser compilado.
+   */
+  public static final int LIMITE_EXECUCOES = 64;
+
+  /**
+   * Tamanho máximo do bytecode de um programa. Métodos maiores não são compilados pelo JIT da JVM
+   * (opção `DontCompileHugeMethods`), e seriam mais lentos que o interpretador.
+   */
+  private static final int LIMITE_CODIGO = 8000;
+
+  /**
+   * Código usado pelos programas que não são compilados: o próprio interpretador.
+   */
+  private static final CodigoCompilado INTERPRETADO = Interpretador::executa;
+
+  /**
+   * Número máximo de programas diferentes na tabela de compilações. Os programas que chegam depois
+   * que ela enche são sempre interpretados, para que cargas com milhões de programas distintos não
+   * ocupem memória sem limite.
+   */
+  private static final int LIMITE_PROGRAMAS = 1 << 16;
+
+  /**
+   * Contagem de despachos e código gerado de cada programa, pelo conteúdo.
+   */
+  private static final ConcurrentHashMap<Programa, Compilacao> COMPILACOES = new ConcurrentHashMap<>();
+
+  // Variáveis locais do método gerado (0 é o this)
+  private static final int TABELA = 1, ID = 2, MAXIMO = 3, PC = 4, X = 5, Y = 6, EXECUTADAS = 7, MOTIVO = 8, RESTANTE = 9;
+
+  // Instruções da JVM usadas
+  private static final int ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13, ILOAD = 0x15, ALOAD_0 = 0x2A,
+                           ALOAD_1 = 0x2B, IALOAD = 0x2E, ISTORE = 0x36, IASTORE = 0x4F, DUP = 0x59, IADD = 0x60,
+                           ISUB = 0x64, IINC = 0x84, IFEQ = 0x99, IFNE = 0x9A, IF_ICMPLT = 0xA1, IF_ICMPGE = 0xA2,
+                           GOTO = 0xA7, TABLESWITCH = 0xAA, LRETURN = 0xAD, RETURN = 0xB1, GETFIELD = 0xB4,
+                           INVOKESPECIAL = 0xB7, INVOKESTATIC = 0xB8, NEW = 0xBB, ATHROW = 0xBF;
+
+  /**
+   * Programa sendo compilado.
+   */
+  private final Programa programa;
+
+  /**
+   * Constantes da classe gerada (constant pool), já codificadas.
+   */
+  private final Bytes constantes = new Bytes();
+
+  /**
+   * Índice de cada constante já criada, para não repeti-las.
+   */
+  private final HashMap<String, Integer> indices = new HashMap<>();
+
+  /**
+   * Número de entradas das constantes mais 1 (o índice 0 não é usado).
+   */
+  private int num_constantes = 1;
+
+  /**
+   * Bytecode do método `executa`.
+   */
+  private final Bytes codigo = new Bytes();
+
+  /**
+   * Posição de cada rótulo no bytecode (-1 enquanto não marcado). Os rótulos 0 a n são os blocos das
+   * instruções do programa, e o rótulo n é o fim do programa.
+   */
+  private int[] rotulos;
+
+  /**
+   * Número de rótulos criados.
+   */
+  private int num_rotulos;
+
+  /**
+   * Saltos a preencher quando todos os rótulos forem marcados: posição da instrução, posição do
+   * deslocamento e rótulo de destino, em sequência. Deslocamentos do `tableswitch` (4 bytes) têm o
+   * rótulo negativo.
+   */
+  private int[] saltos = new int[48];
+
+  /**
+   * Número de posições usadas em `saltos`.
+   */
+  private int num_saltos;
+
+  // Construtor
+
+  /**
+   * Prepara a compilação de um programa.
+   */
+  private CompiladorBytecode(Programa programa) {
+    this.programa = programa;
+  }
+
+  // Métodos
+
+  /**
+   * Executa até `maximo` instruções do processo especificado, com o mesmo contrato de
+   * `Interpretador.executa`, usando o código compilado do programa quando ele já executou o bastante
+   * para ser compilado.
+   *
+   * @param tabela A tabela de processos onde estão os registradores do processo.
+   * @param id O identificador do processo.
+   * @param maximo O número máximo de instruções a executar (o quantum).
+   * @return O motivo da parada e o número de instruções executadas, codificados em um `long`.
+   */
+  public static long executa(TabelaDeProcessos tabela, int id, int maximo) {
+    Programa programa = tabela.programa[id];
+    Compilacao compilacao = COMPILACOES.get(programa);
+    if (compilacao == null) {
+      if (COMPILACOES.size() >= LIMITE_PROGRAMAS) return Interpretador.executa(tabela, id, maximo);
+      compilacao = COMPILACOES.computeIfAbsent(programa, p -> new Compilacao());
+    }
+
+    CodigoCompilado codigo = compilacao.codigo;
+    if (codigo == null) codigo = compilacao.despacho(programa);
+    return codigo.executa(tabela, id, maximo);
+  }
+
+  /**
+   * Compila um programa para uma classe oculta da JVM.
+   *
+   * @param programa O programa.
+   * @return O código compilado, ou o interpretador se o programa for grande demais.
+   * @throws IllegalStateException Se a JVM rejeitar a classe gerada.
+   */
+  public static CodigoCompilado compila(Programa programa) {
+    byte[] classe = new CompiladorBytecode(programa).geraClasse();
+    if (classe == null) return INTERPRETADO;
+
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classe, true);
+      return (CodigoCompilado) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+    } catch (Throwable e) {
+      throw new IllegalStateException("não foi possível gerar o código do programa", e);
+    }
+  }
+
+  /**
+   * Gera o class file da classe do programa.
+   *
+   * @return Os bytes da classe, ou null se o programa for grande demais.
+   */
+  private byte[] geraClasse() {
+    if (!this.geraExecuta()) return null;
+
+    int classe = this.classe("ProgramaCompilado"), superclasse = this.classe("java/lang/Object");
+    int interfaceCodigo = this.classe("CodigoCompilado");
+    int construtorObject = this.metodo("java/lang/Object", "<init>", "()V");
+    int nomeCode = this.utf8("Code");
+    int nomeInit = this.utf8("<init>"), tipoInit = this.utf8("()V");
+    int nomeExecuta = this.utf8("executa"), tipoExecuta = this.utf8("(LTabelaDeProcessos;II)J");
+
+    Bytes bytes = new Bytes();
+    bytes.u4(0xCAFEBABE).u2(0).u2(49);
+    bytes.u2(this.num_constantes).bytes(this.constantes);
+    bytes.u2(0x0031).u2(classe).u2(superclasse);  // public final super
+    bytes.u2(1).u2(interfaceCodigo);
+    bytes.u2(0);  // Sem campos
+    bytes.u2(2);
+
+    // Construtor: chama o construtor de Object
+    bytes.u2(0x0001).u2(nomeInit).u2(tipoInit).u2(1);
+    bytes.u2(nomeCode).u4(17).u2(1).u2(1).u4(5);
+    bytes.u1(ALOAD_0).u1(INVOKESPECIAL).u2(construtorObject).u1(RETURN);
+    bytes.u2(0).u2(0);
+
+    // Método executa
+    bytes.u2(0x0001).u2(nomeExecuta).u2(tipoExecuta).u2(1);
+    bytes.u2(nomeCode).u4(12 + this.codigo.tamanho).u2(4).u2(RESTANTE + 1).u4(this.codigo.tamanho);
+    bytes.bytes(this.codigo);
+    bytes.u2(0).u2(0);
+
+    bytes.u2(0);  // Sem atributos da classe
+    return Arrays.copyOf(bytes.dados, bytes.tamanho);
+  }
+
+  /**
+   * Gera o bytecode do método `executa(TabelaDeProcessos tabela, int id, int maximo)`.
+   *
+   * @return false se o programa for grande demais para ser compilado.
+   */
+  private boolean geraExecuta() {
+    int n = this.programa.getTamanho();
+    if (n > LIMITE_CODIGO / 8) return false;  // Cada instrução gera pelo menos 8 bytes
+
+    this.rotulos = new int[n + 8];
+    for (int i = 0; i <= n; i++) this.novoRotulo();
+    int fora = this.novoRotulo(), fim = this.novoRotulo();
+
+    // Carrega os registradores e o PC do processo em variáveis locais
+    this.carregaRegistrador("x", X);
+    this.carregaRegistrador("y", Y);
+    this.codigo.u1(ICONST_0).u1(ISTORE).u1(EXECUTADAS);
+    this.codigo.u1(ICONST_0).u1(ISTORE).u1(MOTIVO);
+    this.codigo.u1(ALOAD_1).u1(GETFIELD).u2(this.campo("pc")).u1(ILOAD).u1(ID).u1(IALOAD);
+    this.codigo.u1(DUP).u1(ISTORE).u1(PC);
+
+    // Entrada: salta para o bloco da instrução do PC
+    int inicio = this.codigo.tamanho;
+    this.codigo.u1(TABLESWITCH);
+    while (this.codigo.tamanho % 4 != 0) this.codigo.u1(0);
+    this.saltoLargo(inicio, fora);
+    this.codigo.u4(0).u4(n);
+    for (int i = 0; i <= n; i++) this.saltoLargo(inicio, i);
+
+    // Um bloco por instrução; sem salto, cada bloco continua no seguinte
+    for (int i = 0; i < n; i++) {
+      this.marca(i);
+      this.verificaQuantum(i, fim);
+
+      long instrucao = this.programa.getInstrucao(i);
+      int operando = Programa.operando(instrucao);
+      switch (Programa.opcode(instrucao)) {
+        case Programa.OP_X:
+          this.constante(operando);
+          this.codigo.u1(ISTORE).u1(X);
+          this.contaInstrucao();
+          break;
+
+        case Programa.OP_Y:
+          this.constante(operando);
+          this.codigo.u1(ISTORE).u1(Y);
+          this.contaInstrucao();
+          break;
+
+        case Programa.OP_SOMA_X:
+          this.codigo.u1(ILOAD).u1(X);
+          this.constante(operando);
+          this.codigo.u1(IADD).u1(ISTORE).u1(X);
+          this.contaInstrucao();
+          break;
+
+        case Programa.OP_SOMA_Y:
+          this.codigo.u1(ILOAD).u1(Y);
+          this.constante(operando);
+          this.codigo.u1(IADD).u1(ISTORE).u1(Y);
+          this.contaInstrucao();
+          break;
+
+        // Sequência de "COM": executa as que cabem no que resta do quantum, como o interpretador
+        case Programa.OP_COM: {
+          int comandos = Programa.comandosSeguidos(instrucao);
+          if (i + comandos > n) return false;
+          int parcial = this.novoRotulo();
+          this.codigo.u1(ILOAD).u1(MAXIMO).u1(ILOAD).u1(EXECUTADAS).u1(ISUB).u1(ISTORE).u1(RESTANTE);
+          this.codigo.u1(ILOAD).u1(RESTANTE);
+          this.constante(comandos);
+          this.salto(IF_ICMPLT, parcial);
+          this.codigo.u1(ILOAD).u1(EXECUTADAS);
+          this.constante(comandos);
+          this.codigo.u1(IADD).u1(ISTORE).u1(EXECUTADAS);
+          this.salto(GOTO, i + comandos);
+
+          // O quantum acaba no meio da sequência
+          this.marca(parcial);
+          this.codigo.u1(ILOAD).u1(MAXIMO).u1(ISTORE).u1(EXECUTADAS);
+          this.constante(i);
+          this.codigo.u1(ILOAD).u1(RESTANTE).u1(IADD).u1(ISTORE).u1(PC);
+          this.salto(GOTO, fim);
+          break;
+        }
+
+        // "E/S" e "SAIDA" param com o PC na própria instrução
+        case Programa.OP_ES:
+        case Programa.OP_SAIDA:
+          this.contaInstrucao();
+          this.constante(i);
+          this.codigo.u1(ISTORE).u1(PC);
+          this.constante(Programa.opcode(instrucao) == Programa.OP_ES ? Interpretador.ENTRADA_SAIDA : Interpretador.SAIDA);
+          this.codigo.u1(ISTORE).u1(MOTIVO);
+          this.salto(GOTO, fim);
+          break;
+
+        case Programa.OP_JMP:
+          if (operando < 0 || operando >= n) return false;
+          this.contaInstrucao();
+          this.salto(GOTO, operando);
+          break;
+
+        case Programa.OP_JZ_X:
+        case Programa.OP_JZ_Y:
+        case Programa.OP_JNZ_X:
+        case Programa.OP_JNZ_Y: {
+          if (operando < 0 || operando >= n) return false;
+          int opcode = Programa.opcode(instrucao);
+          this.contaInstrucao();
+          this.codigo.u1(ILOAD).u1(opcode == Programa.OP_JZ_X || opcode == Programa.OP_JNZ_X ? X : Y);
+          this.salto(opcode == Programa.OP_JZ_X || opcode == Programa.OP_JZ_Y ? IFEQ : IFNE, operando);
+          break;
+        }
+
+        case Programa.OP_LOOP_X:
+        case Programa.OP_LOOP_Y: {
+          if (operando < 0 || operando >= n) return false;
+          int registrador = Programa.opcode(instrucao) == Programa.OP_LOOP_X ? X : Y;
+          this.contaInstrucao();
+          this.codigo.u1(IINC).u1(registrador).u1(-1);
+          this.codigo.u1(ILOAD).u1(registrador);
+          this.salto(IFNE, operando);
+          break;
+        }
+
+        // Opcode desconhecido: o interpretador apenas avança o PC
+        default:
+          this.contaInstrucao();
+          break;
+      }
+
+      if (this.codigo.tamanho > LIMITE_CODIGO) return false;
+    }
+
+    // Fim do programa sem "SAIDA", ou PC fora do programa: como o interpretador, só falha se ainda
+    // houver quantum para executar
+    this.marca(n);
+    this.constante(n);
+    this.codigo.u1(ISTORE).u1(PC);
+    this.marca(fora);
+    this.codigo.u1(ILOAD).u1(EXECUTADAS).u1(ILOAD).u1(MAXIMO);
+    this.salto(IF_ICMPGE, fim);
+    this.codigo.u1(NEW).u2(this.classe("java/lang/IndexOutOfBoundsException")).u1(DUP).u1(ILOAD).u1(PC);
+    this.codigo.u1(INVOKESPECIAL).u2(this.metodo("java/lang/IndexOutOfBoundsException", "<init>", "(I)V")).u1(ATHROW);
+
+    // Saída: grava o PC e os registradores na tabela e devolve o resultado
+    this.marca(fim);
+    this.gravaRegistrador("pc", PC);
+    this.gravaRegistrador("x", X);
+    this.gravaRegistrador("y", Y);
+    this.codigo.u1(ILOAD).u1(MOTIVO).u1(ILOAD).u1(EXECUTADAS);
+    this.codigo.u1(INVOKESTATIC).u2(this.metodo("Interpretador", "resultado", "(II)J")).u1(LRETURN);
+
+    if (this.codigo.tamanho > LIMITE_CODIGO) return false;
+    this.preencheSaltos();
+    return true;
+  }
+
+  /**
+   * Gera o início do bloco de uma instrução: se o quantum acabou, sai com o PC nesta instrução.
+   */
+  private void verificaQuantum(int pc, int fim) {
+    int continua = this.novoRotulo();
+    this.codigo.u1(ILOAD).u1(EXECUTADAS).u1(ILOAD).u1(MAXIMO);
+    this.salto(IF_ICMPLT, continua);
+    this.constante(pc);
+    this.codigo.u1(ISTORE).u1(PC);
+    this.salto(GOTO, fim);
+    this.marca(continua);
+  }
+
+  /**
+   * Gera a contagem de uma instrução executada.
+   */
+  private void contaInstrucao() {
+    this.codigo.u1(IINC).u1(EXECUTADAS).u1(1);
+  }
+
+  /**
+   * Gera a leitura de um vetor da tabela na posição do processo para uma variável local.
+   */
+  private void carregaRegistrador(String nome, int local) {
+    this.codigo.u1(ALOAD_1).u1(GETFIELD).u2(this.campo(nome)).u1(ILOAD).u1(ID).u1(IALOAD).u1(ISTORE).u1(local);
+  }
+
+  /**
+   * Gera a gravação de uma variável local em um vetor da tabela, na posição do processo.
+   */
+  private void gravaRegistrador(String nome, int local) {
+    this.codigo.u1(ALOAD_1).u1(GETFIELD).u2(this.campo(nome)).u1(ILOAD).u1(ID).u1(ILOAD).u1(local).u1(IASTORE);
+  }
+
+  /**
+   * Gera o empilhamento de uma constante inteira, na forma mais curta.
+   */
+  private void constante(int valor) {
+    if (valor >= -1 && valor <= 5) this.codigo.u1(ICONST_0 + valor);
+    else if (valor >= Byte.MIN_VALUE && valor <= Byte.MAX_VALUE) this.codigo.u1(BIPUSH).u1(valor);
+    else if (valor >= Short.MIN_VALUE && valor <= Short.MAX_VALUE) this.codigo.u1(SIPUSH).u2(valor);
+    else this.codigo.u1(LDC_W).u2(this.inteiro(valor));
+  }
+
+  // Rótulos e saltos
+
+  /**
+   * Cria um rótulo ainda não marcado.
+   */
+  private int novoRotulo() {
+    if (this.num_rotulos == this.rotulos.length) this.rotulos = Arrays.copyOf(this.rotulos, 2 * this.num_rotulos);
+    this.rotulos[this.num_rotulos] = -1;
+    return this.num_rotulos++;
+  }
+
+  /**
+   * Marca a posição atual do bytecode como a de um rótulo.
+   */
+  private void marca(int rotulo) {
+    this.rotulos[rotulo] = this.codigo.tamanho;
+  }
+
+  /**
+   * Gera um salto (com deslocamento de 2 bytes) para um rótulo, preenchido no fim.
+   */
+  private void salto(int instrucao, int rotulo) {
+    this.registraSalto(this.codigo.tamanho, this.codigo.tamanho + 1, rotulo);
+    this.codigo.u1(instrucao).u2(0);
+  }
+
+  /**
+   * Gera um deslocamento de 4 bytes do `tableswitch` para um rótulo, preenchido no fim.
+   */
+  private void saltoLargo(int instrucao, int rotulo) {
+    this.registraSalto(instrucao, this.codigo.tamanho, -1 - rotulo);
+    this.codigo.u4(0);
+  }
+
+  private void registraSalto(int instrucao, int posicao, int rotulo) {
+    if (this.num_saltos + 3 > this.saltos.length) this.saltos = Arrays.copyOf(this.saltos, 2 * this.saltos.length);
+    this.saltos[this.num_saltos++] = instrucao;
+    this.saltos[this.num_saltos++] = posicao;
+    this.saltos[this.num_saltos++] = rotulo;
+  }
+
+  /**
+   * Preenche os deslocamentos de todos os saltos, relativos à instrução de salto.
+   */
+  private void preencheSaltos() {
+    for (int i = 0; i < this.num_saltos; i += 3) {
+      int instrucao = this.saltos[i], posicao = this.saltos[i + 1], rotulo = this.saltos[i + 2];
+      if (rotulo >= 0) this.codigo.escreve2(posicao, this.rotulos[rotulo] - instrucao);
+      else this.codigo.escreve4(posicao, this.rotulos[-1 - rotulo] - instrucao);
+    }
+  }
+
+  // Constantes
+
+  private int utf8(String texto) {
+    Integer indice = this.indices.get("U" + texto);
+    if (indice != null) return indice;
+    byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);  // Os nomes usados são ASCII
+    this.constantes.u1(1).u2(bytes.length).bytes(bytes, bytes.length);
+    return this.novaConstante("U" + texto);
+  }
+
+  private int classe(String nome) {
+    Integer indice = this.indices.get("C" + nome);
+    if (indice != null) return indice;
+    int nomeClasse = this.utf8(nome);
+    this.constantes.u1(7).u2(nomeClasse);
+    return this.novaConstante("C" + nome);
+  }
+
+  private int inteiro(int valor) {
+    Integer indice = this.indices.get("I" + valor);
+    if (indice != null) return indice;
+    this.constantes.u1(3).u4(valor);
+    return this.novaConstante("I" + valor);
+  }
+
+  private int campo(String nome) {
+    return this.membro(9, "TabelaDeProcessos", nome, "[I");
+  }
+
+  private int metodo(String classe, String nome, String tipo) {
+    return this.membro(10, classe, nome, tipo);
+  }
+
+  /**
+   * Cria a referência a um campo (tag 9) ou método (tag 10) de uma classe.
+   */
+  private int membro(int tag, String classe, String nome, String tipo) {
+    String chave = tag + classe + "." + nome + ":" + tipo;
+    Integer indice = this.indices.get(chave);
+    if (indice != null) return indice;
+
+    int indiceClasse = this.classe(classe), indiceNome = this.utf8(nome), indiceTipo = this.utf8(tipo);
+    this.constantes.u1(12).u2(indiceNome).u2(indiceTipo);
+    int nomeETipo = this.novaConstante(chave + "#nt");
+    this.constantes.u1(tag).u2(indiceClasse).u2(nomeETipo);
+    return this.novaConstante(chave);
+  }
+
+  private int novaConstante(String chave) {
+    this.indices.put(chave, this.num_constantes);
+    return this.num_constantes++;
+  }
+
+  /**
+   * Buffer de bytes que cresce conforme é escrito, em big-endian como o class file.
+   */
+  private static final class Bytes {
+    byte[] dados = new byte[256];
+    int tamanho;
+
+    Bytes u1(int valor) {
+      if (this.tamanho == this.dados.length) this.dados = Arrays.copyOf(this.dados, 2 * this.tamanho);
+      this.dados[this.tamanho++] = (byte) valor;
+      return this;
+    }
+
+    Bytes u2(int valor) {
+      return this.u1(valor >>> 8).u1(valor);
+    }
+
+    Bytes u4(int valor) {
+      return this.u2(valor >>> 16).u2(valor);
+    }
+
+    Bytes bytes(byte[] outros, int quantidade) {
+      if (this.tamanho + quantidade > this.dados.length)
+        this.dados = Arrays.copyOf(this.dados, Math.max(2 * this.dados.length, this.tamanho + quantidade));
+      System.arraycopy(outros, 0, this.dados, this.tamanho, quantidade);
+      this.tamanho += quantidade;
+      return this;
+    }
+
+    Bytes bytes(Bytes outros) {
+      return this.bytes(outros.dados, outros.tamanho);
+    }
+
+    void escreve2(int posicao, int valor) {
+      this.dados[posicao] = (byte) (valor >>> 8);
+      this.dados[posicao + 1] = (byte) valor;
+    }
+
+    void escreve4(int posicao, int valor) {
+      this.escreve2(posicao, valor >>> 16);
+      this.escreve2(posicao + 2, valor);
+    }
+  }
+
+  /**
+   * A contagem de despachos de um programa no interpretador e o seu código compilado, publicado uma
+   * única vez quando a contagem chega a `LIMITE_EXECUCOES`.
+   */
+  private static final class Compilacao {
+    final AtomicInteger despachos = new AtomicInteger();
+    volatile CodigoCompilado codigo;
+
+    /**
+     * Conta um despacho do programa ainda não compilado e o compila ao chegar ao limite.
+     *
+     * @return O código a usar neste despacho: o interpretador ou o código compilado.
+     */
+    CodigoCompilado despacho(Programa programa) {
+      if (this.despachos.incrementAndGet() < LIMITE_EXECUCOES) return INTERPRETADO;
+      synchronized (this) {
+        if (this.codigo == null) this.codigo = compila(programa);
+        return this.codigo;
+      }
+    }
+  }
+}
@@ -0,0 +1,209 @@
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * A classe `DispositivoES` representa um dispositivo de E/S simulado, como um disco ou uma placa de
+ * rede: tem um nome, um número máximo de operações atendidas ao mesmo tempo e uma distribuição do
+ * tempo de atendimento, em despachos. As operações que chegam com o dispositivo ocupado esperam em
+ * uma fila, em ordem de chegada.
+ *
+ * O tempo de atendimento de cada operação é sorteado a partir da semente do dispositivo e do número
+ * da operação, então não depende do momento em que é calculado (veja `GerenciadorES`), e a simulação
+ * continua determinística.
+ *
+ * A especificação na linha de comando tem o formato "NOME:CAPACIDADE:DISTRIBUICAO:PARAMETROS":
+ *
+ * - "disco:1:fixa:5": tempo fixo de 5 despachos;
+ * - "rede:4:uniforme:2:8": tempo uniforme entre 2 e 8 despachos;
+ * - "fita:2:exponencial:10": tempo exponencial com média 10 despachos (pelo menos 1).
+ */
+
+public class DispositivoES {
+  // Atributos
+
+  /**
+   * Nome do dispositivo, usado no relatório.
+   */
+  private final String nome;
+
+  /**
+   * Número máximo de operações atendidas ao mesmo tempo.
+   */
+  private final int capacidade;
+
+  /**
+   * Distribuição do tempo de atendimento: "fixa", "uniforme" ou "exponencial".
+   */
+  private final String distribuicao;
+
+  /**
+   * Primeiro parâmetro da distribuição: o tempo fixo, o mínimo da uniforme ou a média da exponencial.
+   */
+  private final int parametro_a;
+
+  /**
+   * Segundo parâmetro da distribuição: o máximo da uniforme (igual ao primeiro nas outras).
+   */
+  private final int parametro_b;
+
+  /**
+   * Semente dos sorteios do tempo de atendimento.
+   */
+  private final long semente;
+
+  /**
+   * Operações esperando o dispositivo, em ordem de chegada.
+   */
+  final ArrayDeque<GerenciadorES.Requisicao> fila = new ArrayDeque<>();
+
+  /**
+   * Número de operações sendo atendidas.
+   */
+  int em_servico;
+
+  /**
+   * Número de operações pedidas ao dispositivo, usado para numerar cada uma.
+   */
+  long pedidas;
+
+  /**
+   * Soma dos tempos de atendimento das operações concluídas, em despachos.
+   */
+  long ocupado;
+
+  /**
+   * Tempo que cada operação esperou na fila até começar a ser atendida, em despachos.
+   */
+  final Histograma espera = new Histograma();
+
+  // Construtor
+
+  /**
+   * Cria um dispositivo de E/S.
+   *
+   * @param nome O nome do dispositivo.
+   * @param capacidade O número máximo de operações atendidas ao mesmo tempo.
+   * @param distribuicao A distribuição do tempo de atendimento: "fixa", "uniforme" ou "exponencial".
+   * @param parametro_a O tempo fixo, o mínimo da uniforme ou a média da exponencial, em despachos.
+   * @param parametro_b O máximo da uniforme (ignorado nas outras distribuições).
+   * @throws IllegalArgumentException Se algum parâmetro for inválido.
+   */
+  public DispositivoES(String nome, int capacidade, String distribuicao, int parametro_a, int parametro_b) {
+    if (capacidade < 1) throw new IllegalArgumentException("a capacidade do dispositivo deve ser positiva: " + capacidade);
+    if (!distribuicao.equals("fixa") && !distribuicao.equals("uniforme") && !distribuicao.equals("exponencial"))
+      throw new IllegalArgumentException("distribuição desconhecida: " + distribuicao);
+    if (parametro_a < 1 || (distribuicao.equals("uniforme") && parametro_b < parametro_a))
+      throw new IllegalArgumentException("tempo de atendimento inválido para " + nome);
+
+    this.nome = nome;
+    this.capacidade = capacidade;
+    this.distribuicao = distribuicao;
+    this.parametro_a = parametro_a;
+    this.parametro_b = distribuicao.equals("uniforme") ? parametro_b : parametro_a;
+    this.semente = nome.hashCode();
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o nome do dispositivo.
+   *
+   * @return O nome.
+   */
+  public String getNome() {
+    return this.nome;
+  }
+
+  /**
+   * Obtém o número máximo de operações atendidas ao mesmo tempo.
+   *
+   * @return A capacidade.
+   */
+  public int getCapacidade() {
+    return this.capacidade;
+  }
+
+  /**
+   * Obtém a especificação do dispositivo, no formato aceito por `cria`.
+   *
+   * @return A especificação, por exemplo "rede:4:uniforme:2:8".
+   */
+  public String getEspecificacao() {
+    return this.nome + ":" + this.capacidade + ":" + this.distribuicao + ":" + this.parametro_a
+           + (this.distribuicao.equals("uniforme") ? ":" + this.parametro_b : "");
+  }
+
+  /**
+   * Obtém a utilização do dispositivo: o tempo total de atendimento dividido pela capacidade no período.
+   *
+   * @param relogio A duração da simulação, no relógio de despachos.
+   * @return A utilização, de 0 a 1.
+   */
+  public double getUtilizacao(long relogio) {
+    return relogio > 0 ? (double) this.ocupado / ((long) this.capacidade * relogio) : 0;
+  }
+
+  /**
+   * Obtém a distribuição do tempo que as operações esperaram na fila.
+   *
+   * @return O histograma da espera.
+   */
+  public Histograma getEspera() {
+    return this.espera;
+  }
+
+  // Métodos
+
+  /**
+   * Cria um dispositivo a partir da especificação "NOME:CAPACIDADE:DISTRIBUICAO:PARAMETROS".
+   *
+   * @param especificacao A especificação do dispositivo.
+   * @return O dispositivo.
+   * @throws IllegalArgumentException Se a especificação for inválida.
+   */
+  public static DispositivoES cria(String especificacao) {
+    String[] partes = especificacao.split(":");
+    if (partes.length < 4 || partes[0].isEmpty())
+      throw new IllegalArgumentException("dispositivo inválido: " + especificacao + " (formato: NOME:CAPACIDADE:DISTRIBUICAO:PARAMETROS)");
+    try {
+      int a = Integer.parseInt(partes[3]);
+      int b = partes.length > 4 ? Integer.parseInt(partes[4]) : a;
+      return new DispositivoES(partes[0], Integer.parseInt(partes[1]), partes[2], a, b);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("dispositivo inválido: " + especificacao);
+    }
+  }
+
+  /**
+   * Sorteia o tempo de atendimento de uma operação. O resultado depende só do dispositivo e do número
+   * da operação, então pode ser calculado em qualquer thread.
+   *
+   * @param sequencia O número da operação no dispositivo.
+   * @return O tempo de atendimento, em despachos (pelo menos 1).
+   */
+  public int sorteiaDuracao(long sequencia) {
+    SplittableRandom aleatorio = new SplittableRandom(this.semente + sequencia * 0x9E3779B97F4A7C15L);
+    switch (this.distribuicao) {
+      case "uniforme":
+        return this.parametro_a + aleatorio.nextInt(this.parametro_b - this.parametro_a + 1);
+      case "exponencial":
+        return (int) Math.max(1, Math.min(Math.round(-this.parametro_a * Math.log(1 - aleatorio.nextDouble())), Integer.MAX_VALUE));
+      default:
+        return this.parametro_a;
+    }
+  }
+
+  /**
+   * Escreve a linha do dispositivo no relatório, no formato
+   * "DISPOSITIVO disco: E/S 120, UTILIZAÇÃO 85.3%, ESPERA MÉDIA 3.20, P99 12, MÁX 15".
+   *
+   * @param log O log da simulação.
+   * @param relogio A duração da simulação, no relógio de despachos.
+   */
+  public void relatorio(SaidaLog log, long relogio) {
+    log.texto(String.format(Locale.ROOT, "DISPOSITIVO %s: E/S %d, UTILIZAÇÃO %.1f%%, ESPERA MÉDIA %.2f, P99 %d, MÁX %d",
+                            this.nome, this.espera.getTotal(), 100 * this.getUtilizacao(relogio), this.espera.getMedia(),
+                            this.espera.percentil(99), this.espera.getMaximo()));
+  }
+}
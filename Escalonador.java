@@ -5,10 +5,30 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.io.PrintWriter;
-import java.io.FileNotFoundException;
-import java.io.UnsupportedEncodingException;
-import java.util.Comparator;
-import java.util.Collections;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * A classe Escalonador representa um escalonador de processos que executa
@@ -22,11 +42,27 @@ import java.util.Collections;
 public class Escalonador {
   // Atributos
 
+  /**
+   * Tamanho, em bytes, a partir do qual um arquivo de programa é mapeado em memória em vez de lido
+   * para um buffer. Para arquivos pequenos, o custo de criar o mapeamento é maior que o da leitura.
+   */
+  private static final long LIMITE_MAPEAMENTO = 1 << 20;
+
+  /**
+   * Número de programas a partir do qual o progresso da leitura é exibido.
+   */
+  private static final int LIMITE_PROGRESSO = 10_000;
+
+  /**
+   * Bytes iniciais de um arquivo de checkpoint.
+   */
+  private static final byte[] ASSINATURA_CHECKPOINT = "CKP3".getBytes(StandardCharsets.US_ASCII);
+
   /**
    * O quantum define o número máximo de instruções que um processo pode executar
-   * antes de ser interrompido e escalonado novamente.
+   * antes de ser interrompido e escalonado novamente. Pode ser mudado durante a simulação, por JMX.
    */
-  private int quantum;
+  private volatile int quantum;
 
   /**
    * Tabela de processos que armazena informações sobre os programas a serem
@@ -34,6 +70,12 @@ public class Escalonador {
    */
   private TabelaDeProcessos tabela;
 
+  /**
+   * Programas únicos carregados, para que processos com o mesmo código compartilhem um único
+   * `Programa`, inclusive os que chegam durante a simulação.
+   */
+  private InternadorProgramas internador = new InternadorProgramas();
+
   /**
    * Fila de processos prontos para execução.
    */
@@ -43,6 +85,108 @@ public class Escalonador {
    * Fila de processos bloqueados aguardando operações de E/S.
    */
   private FilaBloq filaBloqueados;
+
+  /**
+   * Fila dos processos que ainda não chegaram ao sistema.
+   */
+  private FilaChegadas filaChegadas;
+
+  /**
+   * Origem dos programas que chegam durante a simulação, ou null.
+   */
+  private FonteChegadas fonte;
+
+  /**
+   * Relógio de despachos: número de vezes que um processo foi escalonado na CPU. É a base de
+   * tempo usada pela fila de bloqueados para saber quando cada E/S termina.
+   */
+  private long relogio;
+
+  /**
+   * Número de CPUs simuladas. Com mais de uma CPU, cada uma roda em sua própria thread.
+   */
+  private int numCPUs = 1;
+
+  /**
+   * CPUs da última simulação com várias CPUs, usadas no relatório final do log.
+   */
+  private volatile CPU[] cpus;
+
+  /**
+   * Nome da política de escalonamento (veja `PoliticaEscalonamento.cria`).
+   */
+  private String politica = "rr";
+
+  /**
+   * Indica se `gerar_log` também grava o trace binário da simulação (`logs/logNN.trc`).
+   */
+  private boolean trace;
+
+  /**
+   * Indica se os programas são executados pelo código compilado para bytecode (veja `CompiladorBytecode`)
+   * em vez do interpretador.
+   */
+  private boolean bytecode;
+
+  /**
+   * Instante do relógio de despachos em que a simulação é interrompida se ainda houver processos.
+   */
+  private long limite_despachos = Long.MAX_VALUE;
+
+  /**
+   * Número de instruções executadas a partir do qual a simulação é interrompida se ainda houver processos.
+   */
+  private long limite_instrucoes = Long.MAX_VALUE;
+
+  /**
+   * Número de despachos entre dois checkpoints gravados por `gerar_log` (0 para não gravar).
+   */
+  private int intervalo_checkpoint;
+
+  /**
+   * Arquivo onde os checkpoints da simulação em andamento são gravados, ou null.
+   */
+  private Path arquivo_checkpoint;
+
+  /**
+   * Tamanho do log no momento do checkpoint restaurado, ou -1 se a simulação não foi retomada.
+   */
+  private long posicao_log = -1;
+
+  /**
+   * Contadores da simulação em andamento, expostos por JMX.
+   */
+  private final MonitorEscalonador monitor = new MonitorEscalonador(this);
+
+  /**
+   * Formato do arquivo de métricas gravado por `gerar_log` ("json" ou "csv"), ou null para não gravar.
+   */
+  private String formato_metricas;
+
+  /**
+   * Métricas por processo calculadas no fim da última simulação.
+   */
+  private MetricasExecucao metricas;
+
+  /**
+   * Média de trocas por processo calculada no fim da última simulação.
+   */
+  private double media_trocas;
+
+  /**
+   * Média de instruções por troca calculada no fim da última simulação.
+   */
+  private double media_instrucoes;
+
+  /**
+   * Cache dos resultados de simulações já executadas, ou null.
+   */
+  private CacheResultados cache;
+
+  /**
+   * Estatísticas da última simulação, quando ela foi encontrada na cache em vez de executada.
+   */
+  private CacheResultados.Resultado resultado_cache;
   
   // Metodo construtor
 
@@ -53,6 +197,7 @@ public class Escalonador {
     this.tabela = new TabelaDeProcessos();
     this.filaProntos = new FilaProntos();
     this.filaBloqueados = new FilaBloq();
+    this.filaChegadas = new FilaChegadas();
   }
   
   // Metodo set do atributo quantum
@@ -64,6 +209,12 @@ public class Escalonador {
    */
   public void setQuantum(int quantum) {
     this.quantum = quantum;
+
+    // Na simulação com várias CPUs, o novo quantum vale a partir do próximo despacho de cada uma
+    CPU[] cpus = this.cpus;
+    if (cpus != null) {
+      for (CPU cpu : cpus) cpu.setQuantum(quantum);
+    }
   }
   
   // Metodo get do atributo quantum
@@ -76,133 +227,663 @@ public class Escalonador {
     return this.quantum;
   }
 
+  /**
+   * Define a latência das operações de E/S, isto é, o número de despachos que um processo
+   * permanece na fila de bloqueados.
+   *
+   * @param latencia A latência de E/S, em despachos.
+   */
+  public void setLatenciaES(int latencia) {
+    this.filaBloqueados.setLatencia(latencia);
+  }
+
+  /**
+   * Define a cache de resultados usada por `gerar_log`: uma simulação idêntica a uma já executada
+   * (veja `chaveCache`) tem o log e as estatísticas copiados da cache, sem executar de novo. A cache
+   * não é usada com várias CPUs, trace, chegadas durante a simulação nem checkpoints.
+   *
+   * @param cache A cache, ou null para executar sempre.
+   */
+  public void setCache(CacheResultados cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Obtém a cache de resultados.
+   *
+   * @return A cache, ou null se ela não for usada.
+   */
+  public CacheResultados getCache() {
+    return this.cache;
+  }
+
+  /**
+   * Define os dispositivos de E/S que atendem as operações dos processos, no lugar da latência fixa.
+   * A instrução "E/S=n" usa o dispositivo n da lista (veja `GerenciadorES`).
+   *
+   * @param dispositivos Os dispositivos, ou uma lista vazia para voltar à latência fixa.
+   */
+  public void setDispositivos(List<DispositivoES> dispositivos) {
+    this.filaBloqueados.setDispositivos(dispositivos.isEmpty() ? null : new GerenciadorES(dispositivos));
+  }
+
+  /**
+   * Obtém a média de trocas por processo da última simulação.
+   *
+   * @return A média de trocas.
+   */
+  public double getMediaTrocas() {
+    return this.media_trocas;
+  }
+
+  /**
+   * Obtém a média de instruções por troca da última simulação.
+   *
+   * @return A média de instruções.
+   */
+  public double getMediaInstrucoes() {
+    return this.media_instrucoes;
+  }
+
+  /**
+   * Obtém o número total de trocas de processo (execuções na CPU) da última simulação.
+   *
+   * @return O número de trocas.
+   */
+  public long getNumTrocas() {
+    return this.tabela.n_trocas;
+  }
+
+  /**
+   * Obtém o número total de instruções executadas na última simulação.
+   *
+   * @return O número de instruções.
+   */
+  public long getNumInstrucoes() {
+    return this.tabela.n_instrucoes;
+  }
+
+  /**
+   * Obtém o número de processos nas filas de prontos (de todas as CPUs, na simulação com várias CPUs).
+   *
+   * @return O tamanho da fila de prontos.
+   */
+  public int getTamanhoFilaProntos() {
+    CPU[] cpus = this.cpus;
+    if (cpus == null) return this.filaProntos.getTamanho();
+
+    int tamanho = 0;
+    for (CPU cpu : cpus) tamanho += cpu.getFilaProntos().getTamanho();
+    return tamanho;
+  }
+
+  /**
+   * Obtém o número de processos na fila de bloqueados.
+   *
+   * @return O tamanho da fila de bloqueados.
+   */
+  public int getTamanhoFilaBloqueados() {
+    return this.filaBloqueados.getTamanho();
+  }
+
+  /**
+   * Obtém o número de processos que ainda não terminaram.
+   *
+   * @return O número de processos restantes.
+   */
+  public int getProcessosRestantes() {
+    return this.tabela.getTamanhoLista();
+  }
+
+  /**
+   * Obtém o monitor com os contadores da simulação, exposto por JMX durante `gerar_log`.
+   *
+   * @return O monitor.
+   */
+  public MonitorEscalonador getMonitor() {
+    return this.monitor;
+  }
+
+  /**
+   * Obtém as métricas por processo da última simulação.
+   *
+   * @return As métricas, ou null se nenhuma simulação foi executada.
+   */
+  public MetricasExecucao getMetricas() {
+    return this.metricas;
+  }
+
+  /**
+   * Obtém o resultado da última simulação, independente do estado do escalonador.
+   *
+   * @return As estatísticas finais da simulação.
+   */
+  public ResultadoSimulacao getResultado() {
+    return new ResultadoSimulacao(this.getQuantum(), this.politica, this.numCPUs, this.tabela.getNumCriados(),
+                                  this.tabela.n_trocas, this.tabela.n_instrucoes, this.media_trocas, this.media_instrucoes,
+                                  this.tabela.tempo_ocioso, this.metricas);
+  }
+
+  /**
+   * Cria um novo escalonador com as mesmas configurações e programas deste, mas com outro quantum e
+   * com a sua própria cópia do estado dos processos, pronto para gerar o log. Os programas compilados
+   * são compartilhados, pois são imutáveis.
+   *
+   * @param quantum O quantum do novo escalonador.
+   * @return O novo escalonador.
+   */
+  public Escalonador copia(int quantum) {
+    Escalonador copia = new Escalonador();
+    copia.tabela = this.tabela.copia();
+    copia.setPolitica(this.politica);
+    copia.setLatenciaES(this.filaBloqueados.getLatencia());
+    copia.setNumCPUs(this.numCPUs);
+    copia.setTrace(this.trace);
+    copia.setBytecode(this.bytecode);
+    copia.limite_despachos = this.limite_despachos;
+    copia.limite_instrucoes = this.limite_instrucoes;
+    copia.formato_metricas = this.formato_metricas;
+    copia.cache = this.cache;
+    copia.setQuantum(quantum);
+    copia.novaFila();
+    return copia;
+  }
+
+  /**
+   * Define o número de CPUs simuladas. Com mais de uma CPU, cada uma tem a sua própria fila de
+   * prontos e roda em sua própria thread, roubando processos das outras quando fica sem trabalho.
+   *
+   * @param numCPUs O número de CPUs.
+   */
+  public void setNumCPUs(int numCPUs) {
+    this.numCPUs = Math.max(numCPUs, 1);
+  }
+
+  /**
+   * Define se `gerar_log` também grava o trace binário da simulação, lido por `LeitorTrace`.
+   *
+   * @param trace true para gravar o trace.
+   */
+  public void setTrace(boolean trace) {
+    this.trace = trace;
+  }
+
+  /**
+   * Define se os programas são compilados para bytecode da JVM e executados pelo código gerado (veja
+   * `CompiladorBytecode`) em vez do `Interpretador`. O log e as estatísticas são os mesmos.
+   *
+   * @param bytecode true para usar o código compilado, false para o interpretador.
+   */
+  public void setBytecode(boolean bytecode) {
+    this.bytecode = bytecode;
+  }
+
+  /**
+   * Define um limite para a duração da simulação, no relógio de despachos. Programas com saltos podem
+   * nunca terminar; ao chegar ao limite com processos ainda não terminados, `simular` é interrompido.
+   *
+   * @param limite O número máximo de despachos (0 para não limitar).
+   */
+  public void setLimiteDespachos(long limite) {
+    this.limite_despachos = limite > 0 ? limite : Long.MAX_VALUE;
+  }
+
+  /**
+   * Define um limite para o número total de instruções executadas na simulação, somando todas as CPUs.
+   * O limite é verificado entre os despachos: ao chegar a ele com processos ainda não terminados,
+   * `simular` é interrompido (o último despacho de cada CPU pode passar do limite em até um quantum).
+   *
+   * @param limite O número máximo de instruções (0 para não limitar).
+   */
+  public void setLimiteInstrucoes(long limite) {
+    this.limite_instrucoes = limite > 0 ? limite : Long.MAX_VALUE;
+  }
+
+  /**
+   * Define uma origem de programas que chegam enquanto a simulação executa. A simulação só termina
+   * quando a origem terminar e todos os processos tiverem terminado. Só vale para a simulação com uma CPU.
+   *
+   * @param fonte A origem dos programas, ou null.
+   */
+  public void setFonteChegadas(FonteChegadas fonte) {
+    this.fonte = fonte;
+  }
+
+  /**
+   * Preenche a fila de prontos com os processos da tabela presentes desde o início e a fila de
+   * chegadas com os que chegam depois.
+   */
+  public void novaFila() {
+    for (int id = 0; id < this.tabela.getNumCriados(); id++) {
+      BCP bcp = this.tabela.getBCP(id);
+      if (bcp.getEstado() == Estado.PRONTO && bcp.getChegada() > 0) this.filaChegadas.insere(bcp);
+    }
+    this.filaProntos.novaFila(this.tabela);
+  }
+
+  /**
+   * Define se `gerar_log` também grava as métricas da simulação em `logs/logNN-metricas.json` ou
+   * `logs/logNN-metricas.csv`.
+   *
+   * @param formato "json", "csv" ou null para não gravar.
+   * @throws IllegalArgumentException Se o formato não for reconhecido.
+   */
+  public void setMetricas(String formato) {
+    if (formato != null && !formato.equals("json") && !formato.equals("csv"))
+      throw new IllegalArgumentException("formato de métricas desconhecido: " + formato);
+    this.formato_metricas = formato;
+  }
+
+  /**
+   * Define de quantos em quantos despachos `gerar_log` grava um checkpoint da simulação em
+   * `logs/logNN.ckp`, do qual ela pode ser retomada com `restauraCheckpoint`. Só vale para a
+   * simulação com uma CPU.
+   *
+   * @param intervalo O número de despachos entre dois checkpoints, ou 0 para não gravar.
+   */
+  public void setCheckpoint(int intervalo) {
+    this.intervalo_checkpoint = Math.max(intervalo, 0);
+  }
+
+  /**
+   * Define a política de escalonamento usada na fila de prontos (e na fila de cada CPU, na simulação
+   * com várias CPUs). Deve ser chamado antes de a fila de prontos ser preenchida.
+   *
+   * @param politica O nome da política: "rr", "srt", "prioridade", "mlfq", "loteria" ou "cfs".
+   * @throws IllegalArgumentException Se o nome não corresponder a nenhuma política.
+   */
+  public void setPolitica(String politica) {
+    this.filaProntos = new FilaProntos(PoliticaEscalonamento.cria(politica));
+    this.politica = politica;
+  }
+
   /**
    * O método principal da aplicação que lê programas, gera a fila de processos
    * prontos e gera um log de execução.
    *
-   * @param args Os argumentos da linha de comando (não utilizados).
+   * Opções aceitas na linha de comando:
+   * `--latencia-es N` define a latência de E/S, em despachos (padrão: 2);
+   * `--dispositivo NOME:CAPACIDADE:DISTRIBUICAO:PARAMETROS` define um dispositivo de E/S, no lugar da latência fixa (veja `DispositivoES`; pode ser repetida);
+   * `--cpus N` simula N CPUs, cada uma em sua própria thread (padrão: 1);
+   * `--politica P` escolhe a política de escalonamento: rr, srt, prioridade, mlfq, loteria ou cfs (padrão: rr);
+   * `--varredura INICIO FIM` gera um log para cada quantum de INICIO a FIM, em paralelo, e uma tabela comparativa;
+   * `--programas CAMINHO` lê os programas de outra pasta ou de um arquivo de programas (veja `ArquivoProgramas`);
+   * `--bytecode` executa os programas compilados para bytecode da JVM em vez do interpretador (veja `CompiladorBytecode`);
+   * `--trace` grava também o trace binário da simulação em `logs/logNN.trc` (veja `LeitorTrace`);
+   * `--metricas FORMATO` grava as métricas por processo em `logs/logNN-metricas.json` ou `.csv` (FORMATO: json ou csv);
+   * `--chegadas ORIGEM` recebe programas novos durante a simulação, da entrada padrão ("-") ou de uma pasta observada (veja `FonteChegadas`);
+   * `--checkpoint N` grava um checkpoint da simulação em `logs/logNN.ckp` a cada N despachos;
+   * `--cache PASTA` reaproveita o log e as estatísticas de simulações idênticas já executadas (veja `CacheResultados`),
+   * com o tamanho da pasta limitado por `--cache-limite MB` (padrão: 256);
+   * `--retomar ARQUIVO` retoma a simulação de um checkpoint, com os mesmos programas, continuando o log;
+   * `--gerar N` simula N programas sintéticos gerados em memória em vez de ler a pasta "programas", com
+   * as opções do gerador `--quantum Q`, `--tamanho MIN MAX`, `--distribuicao D`, `--prob-es P` e `--semente S` (veja `GeradorCarga`).
+   *
+   * @param args Os argumentos da linha de comando.
    */
   public static void main (String[] args) {
     Escalonador escalonador = new Escalonador();
 
-    // Tabela lida
-    escalonador.lerArquivos();
-  
-    // Fila gerada
-    escalonador.filaProntos.novaFila(escalonador.tabela);
-  
-    // Geração do log
-    escalonador.gerar_log();
+    // Opções da linha de comando
+    int varreduraInicio = 0, varreduraFim = 0;
+    GeradorCarga gerador = new GeradorCarga();
+    boolean gerar = false;
+    String programas = "programas";
+    String retomar = null;
+    String chegadas = null;
+    List<DispositivoES> dispositivos = new ArrayList<>();
+    String cache = null;
+    long limite_cache = CacheResultados.LIMITE_PADRAO;
+    for (int i = 0; i < args.length; i++) {
+      int proximo;
+      if (args[i].equals("--latencia-es") && i + 1 < args.length) {
+        escalonador.setLatenciaES(Integer.parseInt(args[++i]));
+      }
+      else if (args[i].equals("--dispositivo") && i + 1 < args.length) {
+        try {
+          dispositivos.add(DispositivoES.cria(args[++i]));
+        } catch (IllegalArgumentException e) {
+          System.out.println("Opção inválida: " + e.getMessage());
+          return;
+        }
+      }
+      else if (args[i].equals("--cpus") && i + 1 < args.length) {
+        escalonador.setNumCPUs(Integer.parseInt(args[++i]));
+      }
+      else if (args[i].equals("--varredura") && i + 2 < args.length) {
+        varreduraInicio = Integer.parseInt(args[++i]);
+        varreduraFim = Integer.parseInt(args[++i]);
+      }
+      else if (args[i].equals("--politica") && i + 1 < args.length) {
+        try {
+          escalonador.setPolitica(args[++i]);
+        } catch (IllegalArgumentException e) {
+          System.out.println("Opção inválida: " + e.getMessage());
+          return;
+        }
+      }
+      else if (args[i].equals("--programas") && i + 1 < args.length) {
+        programas = args[++i];
+      }
+      else if (args[i].equals("--trace")) {
+        escalonador.setTrace(true);
+      }
+      else if (args[i].equals("--bytecode")) {
+        escalonador.setBytecode(true);
+      }
+      else if (args[i].equals("--metricas") && i + 1 < args.length) {
+        try {
+          escalonador.setMetricas(args[++i]);
+        } catch (IllegalArgumentException e) {
+          System.out.println("Opção inválida: " + e.getMessage());
+          return;
+        }
+      }
+      else if (args[i].equals("--chegadas") && i + 1 < args.length) {
+        chegadas = args[++i];
+      }
+      else if (args[i].equals("--checkpoint") && i + 1 < args.length) {
+        escalonador.setCheckpoint(Integer.parseInt(args[++i]));
+      }
+      else if (args[i].equals("--cache") && i + 1 < args.length) {
+        cache = args[++i];
+      }
+      else if (args[i].equals("--cache-limite") && i + 1 < args.length) {
+        limite_cache = Long.parseLong(args[++i]) << 20;
+      }
+      else if (args[i].equals("--retomar") && i + 1 < args.length) {
+        retomar = args[++i];
+      }
+      else if (args[i].equals("--gerar") && i + 1 < args.length) {
+        gerador.setProcessos(Integer.parseInt(args[++i]));
+        gerar = true;
+      }
+      else if ((proximo = leOpcaoGerador(gerador, args, i)) >= 0) {
+        i = proximo;
+      }
+      else if (proximo == -2) {
+        return;
+      }
+      else {
+        System.out.println("Opção desconhecida: " + args[i]);
+        return;
+      }
+    }
+    if ((retomar != null || escalonador.intervalo_checkpoint > 0)
+        && (escalonador.numCPUs > 1 || varreduraInicio > 0 || (retomar != null && escalonador.trace))) {
+      System.out.println("Opção inválida: --checkpoint e --retomar só valem para a simulação com uma CPU, sem --varredura"
+                         + " (e --retomar, sem --trace)");
+      return;
+    }
+    if (!dispositivos.isEmpty() && (varreduraInicio > 0 || retomar != null || escalonador.intervalo_checkpoint > 0)) {
+      System.out.println("Opção inválida: --dispositivo não vale com --varredura, --checkpoint e --retomar");
+      return;
+    }
+    escalonador.setDispositivos(dispositivos);
+    if (cache != null) {
+      try {
+        escalonador.setCache(new CacheResultados(Paths.get(cache), limite_cache));
+      } catch (IOException e) {
+        System.out.println("Ocorreu um erro ao abrir a cache " + cache + ".");
+        e.printStackTrace();
+        return;
+      }
+    }
+    if (chegadas != null && (escalonador.numCPUs > 1 || varreduraInicio > 0 || retomar != null
+                             || escalonador.intervalo_checkpoint > 0)) {
+      System.out.println("Opção inválida: --chegadas só vale para a simulação com uma CPU, sem --varredura, --checkpoint e --retomar");
+      return;
+    }
+
+    // Tabela lida (programas com instruções inválidas são rejeitados antes da simulação)
+    long inicio = System.nanoTime();
+    try {
+      if (gerar) escalonador.carregar(gerador);
+      else escalonador.lerArquivos(programas);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Programa inválido: " + e.getMessage());
+      return;
+    }
+    if (escalonador.tabela.getNumCriados() == 0 && chegadas == null) {
+      System.out.println("Nenhum programa carregado.");
+      return;
+    }
+    long nanos_carga = System.nanoTime() - inicio;
+    System.out.println(String.format("Carregamento: %s em %.1f ms",
+                                     escalonador.internador.resumo(), nanos_carga / 1e6));
+
+    inicio = System.nanoTime();
+
+    // Varredura de quantum: os programas já lidos são reaproveitados por todas as simulações
+    if (varreduraInicio > 0) {
+      new VarreduraQuantum(escalonador, varreduraInicio, varreduraFim).executar();
+    }
+    else {
+      // Fila gerada, ou restaurada do checkpoint junto com o estado dos processos
+      if (retomar == null) {
+        escalonador.novaFila();
+      }
+      else {
+        try {
+          escalonador.restauraCheckpoint(Paths.get(retomar));
+        } catch (IOException e) {
+          System.out.println("Ocorreu um erro ao ler o checkpoint.");
+          e.printStackTrace();
+          return;
+        } catch (IllegalArgumentException e) {
+          System.out.println("Checkpoint inválido: " + e.getMessage());
+          return;
+        }
+      }
+
+      // Programas que chegam durante a simulação
+      if (chegadas != null) {
+        escalonador.setFonteChegadas(chegadas.equals("-") ? new FonteChegadas() : new FonteChegadas(Paths.get(chegadas)));
+      }
+
+      // Geração do log
+      escalonador.gerar_log();
+    }
+
+    long nanos_simulacao = System.nanoTime() - inicio;
+    System.out.println(String.format("Simulação: %.1f ms (%.0f%% do tempo total no carregamento)", nanos_simulacao / 1e6,
+                                     100.0 * nanos_carga / (nanos_carga + nanos_simulacao)));
+    if (escalonador.getCache() != null) System.out.println("Cache: " + escalonador.getCache().getAcertos() + " acertos, "
+                                                          + escalonador.getCache().getFaltas() + " faltas");
+  }
+
+  /**
+   * Lê uma opção do gerador de carga na linha de comando, informando o erro se o valor for inválido.
+   *
+   * @param gerador O gerador de carga.
+   * @param args Os argumentos da linha de comando.
+   * @param i A posição da opção.
+   * @return A posição do último argumento consumido, -1 se a opção não for do gerador ou -2 se o valor for inválido.
+   */
+  private static int leOpcaoGerador(GeradorCarga gerador, String[] args, int i) {
+    try {
+      return gerador.leOpcao(args, i);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Opção inválida: " + e.getMessage());
+      return -2;
+    }
   }
 
   /**
    * Executa um processo da fila de processos prontos de acordo com o quantum.
    *
-   * @param writer Um objeto PrintWriter para gravar saída no log.
+   * @param log O log da simulação.
    */
-  public void executar(PrintWriter writer) {
-    boolean saida = false;  // Booleano para verificar se o programa terminou
-    int contagemQuantum = this.getQuantum();
+  public void executar(SaidaLog log) {
+    if (fonte != null) this.recebeChegadas(fonte.retira());  // Programas recebidos durante a simulação
+
     BCP bcp = filaProntos.pegaPronto();
 
     // Caso haja um processo na fila de prontos, o executa
     if (bcp != null) {
-      // Printa o nome
-      writer.println("Executando " + bcp.getNome());
-
       // Executa o quantum
-      while (contagemQuantum > 0) {
+      int maximo = filaProntos.getQuantum(bcp, this.getQuantum());
+      long resultado = this.bytecode ? CompiladorBytecode.executa(tabela, bcp.getId(), maximo)
+                                     : Interpretador.executa(tabela, bcp.getId(), maximo);
+      int motivo = Interpretador.motivo(resultado);
+      int instrucoesRodadas = Interpretador.executadas(resultado);
+      filaProntos.executou(bcp, instrucoesRodadas, motivo);  // Informa a política de escalonamento
 
-        contagemQuantum--;  // Diminui o numero da contagem atual
-        String comando = bcp.getComando();  // Armazena o comando atual do programa
+      // Registra a execução no log (nome, E/S, instruções executadas e, se terminou, os registradores)
+      log.despacho(SaidaLog.SEM_CPU, bcp, relogio, instrucoesRodadas, motivo);
+      tabela.registraDespacho(bcp.getId(), relogio, motivo);
 
-        // Caso o comando seja "X="
-        if (comando.contains("X=")) {
-          String[] partes = comando.split("=");
-          String valorString = partes[1];
-          int valor = Integer.parseInt(valorString);
-          bcp.setX(valor);
-        }
+      // Caso o comando seja "E/S"
+      if (motivo == Interpretador.ENTRADA_SAIDA) {
+        filaProntos.entradaSaida(filaBloqueados, relogio);  // Adiciona o processo à fila de bloqueados e remove da fila de prontos
+      }
 
-        // Caso o comando seja "Y="
-        else if (comando.contains("Y=")) {
-          String[] partes = comando.split("=");
-          String valorString = partes[1];
-          int valor = Integer.parseInt(valorString);
-          bcp.setY(valor);
-        }
+      // Caso o comando seja "SAIDA" (fim do processo)
+      else if (motivo == Interpretador.SAIDA) {
+        tabela.excluiBCP(bcp);  // Exclui o processo da tabela
+        filaProntos.removePronto();  // Exclui o processo da fila de prontos
+      }
 
-        // Caso o comando seja "COM"
-        else if (comando.equals("COM")){
-        }
+      else filaProntos.jogaFimDaFila();  // Se o processo não tiver sido excluído ou bloqueado, o envia para o fim da fila de prontos
 
-        // Caso o comando seja "E/S"
-        else if (comando.equals("E/S")) {
-          writer.println("E/S iniciada em " + bcp.getNome());
-          filaProntos.entradaSaida(filaBloqueados);  // Adiciona o processo à fila de bloqueados e remove da fila de prontos
-          //bcp.addUmPC(); // Avança o Program Counter do processo
-          break;  // Interrompe o laço
-        }
+      relogio++;  // Avança o relógio de despachos
 
-        // Caso o comando seja "SAIDA" (fim do processo)
-        else if (comando.equals("SAIDA")) {
-          tabela.excluiBCP(bcp);  // Exclui o processo da tabela
-          filaProntos.removePronto();  // Exclui o processo da fila de prontos
-          saida = true;
-          break;  // Interrompe o laço
-        }
+      tabela.n_trocas++;  // +1 ao número de trocas de processos
+      tabela.n_instrucoes += instrucoesRodadas;
+      monitor.despacho(instrucoesRodadas);
+    }  
 
-        bcp.addUmPC();  // Avança o Program Counter do processo
+    // Caso a fila de prontos esteja vazia e todos os processos estejam bloqueados ou por chegar, a CPU
+    // fica ociosa: o relógio avança direto para o término da próxima E/S ou a próxima chegada, em um único passo
+    else {
+      long proximo = FilaChegadas.proximoEvento(filaBloqueados.proximoDespertar(), filaChegadas.proximaChegada());
+      if (proximo > relogio) {
+        tabela.tempo_ocioso += proximo - relogio;  // Tempo de CPU ociosa
+        relogio = proximo;
       }
+      else if (proximo < 0 && fonte != null) {
+        this.recebeChegadas(fonte.aguarda());  // Nada a executar: espera um programa novo
+      }
+    }
 
-      int instrucoesRodadas = this.getQuantum() - contagemQuantum;
-
-      // 'if' pra definir se 'instrução' fica no plural ou não
-      if (instrucoesRodadas == 1)
-        writer.println("Interrompendo " + bcp.getNome() + " após " + instrucoesRodadas + " instrução");
-      else
-        writer.println("Interrompendo " + bcp.getNome() + " após " + instrucoesRodadas + " instruções");
+    filaBloqueados.liberaExpirados(relogio, filaProntos);  // Libera os processos da fila de bloqueados cuja E/S já terminou
+    filaChegadas.libera(relogio, filaProntos, log, SaidaLog.SEM_CPU);  // Carrega os processos que chegaram
+  }
 
-      if (saida) {  // Se o programa tiver terminado, printa a saída e zera o BCP
-        writer.print(bcp.getNome() + " terminado. ");
-        writer.print("X=" + bcp.getX() + ". ");
-        writer.println("Y=" + bcp.getY());
+  /**
+   * Cria na tabela de processos os programas recebidos pela fonte de chegadas e os coloca na fila de
+   * chegadas. Um programa sem instante de chegada, ou com um instante que já passou, chega agora.
+   *
+   * @param lido O primeiro programa recebido, ou null; os demais são retirados da fonte.
+   */
+  private void recebeChegadas(ProgramaLido lido) {
+    for (; lido != null; lido = fonte.retira()) {
+      BCP bcp = tabela.novoProcesso(lido.nome, lido.nome_arquivo, internador.interna(lido.programa));
+      bcp.setPrioridade(lido.prioridade);
+      bcp.setChegada(Math.max(lido.chegada, relogio));
+      filaChegadas.insere(bcp);
+    }
+  }
 
-        bcp = null;
-      }
+  /**
+   * Executa todos os processos em várias CPUs, cada uma em sua própria thread. Os processos da fila
+   * de prontos são distribuídos entre as filas das CPUs em rodízio, e cada linha do log indica a CPU
+   * que executou o processo.
+   *
+   * @param log O log da simulação.
+   */
+  public void executarMultiCPU(SaidaLog log) {
+    AtomicLong relogioCompartilhado = new AtomicLong(this.relogio);
+    AtomicInteger restantes = new AtomicInteger(this.tabela.getTamanhoLista());
+    AtomicInteger ocupadas = new AtomicInteger();
 
-      if (!saida && bcp.getEstado() != "Bloqueado") filaProntos.jogaFimDaFila();  // Se o processo não tiver sido excluído ou bloqueado, o envia para o fim da fila de prontos   
+    CPU[] cpus = new CPU[this.numCPUs];
+    for (int i = 0; i < this.numCPUs; i++) {
+      cpus[i] = new CPU(i, cpus, PoliticaEscalonamento.cria(this.politica), this.tabela, this.filaBloqueados,
+                        this.filaChegadas, relogioCompartilhado, restantes, ocupadas, this.getQuantum(), this.bytecode,
+                        this.limite_despachos, this.limite_instrucoes, log, this.monitor);
+    }
+    this.cpus = cpus;
 
-      filaBloqueados.decrementaTempoEspera();
+    // Distribui a fila de prontos entre as CPUs
+    int i = 0;
+    for (BCP bcp = filaProntos.retiraPronto(); bcp != null; bcp = filaProntos.retiraPronto(), i++) {
+      log.carregando(i % this.numCPUs, bcp);
+      this.cpus[i % this.numCPUs].getFilaProntos().inserePronto(bcp);
+    }
 
-      tabela.n_trocas++;  // +1 ao número de trocas de processos
-      tabela.n_instrucoes += instrucoesRodadas;
-    }  
+    // Inicia uma thread por CPU e espera todas terminarem
+    Thread[] threads = new Thread[this.numCPUs];
+    for (i = 0; i < this.numCPUs; i++) {
+      threads[i] = new Thread(this.cpus[i], "CPU-" + i);
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
 
-    filaBloqueados.verificarUltimoElemento(filaProntos);  // Verifica se há processos para sair da fila de bloqueados
+    // Consolida as estatísticas das CPUs
+    for (CPU cpu : this.cpus) {
+      this.tabela.n_trocas += cpu.getTrocas();
+      this.tabela.n_instrucoes += cpu.getInstrucoes();
+      this.tabela.tempo_ocioso += cpu.getTempoOcioso();
+    }
+    this.relogio = relogioCompartilhado.get();
   }
 
   /**
-   * Lê programas de arquivos de texto e preenche a tabela de processos.
+   * Lê programas de arquivos de texto da pasta "programas", compila cada um deles e preenche a tabela de processos.
+   *
+   * @throws IllegalArgumentException Se algum programa contiver uma linha inválida.
    */
   public void lerArquivos() {
-    // Criando a pasta que contem os arquivos
-    File diretorio = new File("programas");
+    this.lerArquivos("programas");
+  }
+
+  /**
+   * Lê programas de arquivos de texto da pasta especificada, compila cada um deles e preenche a tabela de processos.
+   * Se o caminho for um arquivo, e não uma pasta, ele é lido como um arquivo de programas (veja `ArquivoProgramas`).
+   *
+   * Os arquivos são lidos e compilados em paralelo, em todos os núcleos, direto dos bytes do arquivo
+   * (arquivos grandes são mapeados em memória). Os processos entram na tabela na ordem dos números
+   * dos arquivos, independente da ordem em que terminaram de ser lidos. Programas com as mesmas
+   * instruções compartilham um único `Programa` (veja `InternadorProgramas`).
+   *
+   * @param pasta O caminho da pasta com os arquivos de programa e o arquivo do quantum, ou de um arquivo de programas.
+   * @throws IllegalArgumentException Se algum programa contiver uma linha inválida.
+   */
+  public void lerArquivos(String pasta) {
+    if (new File(pasta).isFile()) {
+      this.lerArquivoProgramas(Paths.get(pasta));
+      return;
+    }
+
     // Buscando todos os arquivos na pasta
-    File[] arquivos = diretorio.listFiles(); 
+    File[] arquivos = new File(pasta).listFiles();
+    if (arquivos == null) {
+      System.out.println("Ocorreu um erro ao ler a pasta " + pasta + ".");
+      this.tabela = new TabelaDeProcessos();
+      return;
+    }
 
-    // Variaveis temporarias usadas para criar cada um dos programas
-    List<BCP> processos = new ArrayList<>();
-    List<String> programa;
-    BCP bcp;
-    String nome, linha;
-    int nome_arquivo;
+    // Ordenando os arquivos pelo número do arquivo, para que os processos entrem na tabela em ordem. O
+    // número de cada arquivo é calculado uma única vez e ordenado junto com a posição do arquivo
+    long[] chaves = new long[arquivos.length];
+    for (int i = 0; i < arquivos.length; i++) chaves[i] = ((long) numeroArquivo(arquivos[i]) << 32) | i;
+    Arrays.parallelSort(chaves);
 
-    // Iterando sobre a lista de arquivos
-    for (File arquivo : arquivos) {
+    // Separando o arquivo do quantum dos arquivos de programa
+    List<File> programas = new ArrayList<>(arquivos.length);
+    for (long chave : chaves) {
+      File arquivo = arquivos[(int) chave];
       if (arquivo.getName().contains("quantum")) {
         try (BufferedReader br = new BufferedReader(new FileReader(arquivo))) {
-          linha = br.readLine();
+          String linha = br.readLine();
           // Caso o arquivo esteja correto, determina o quantum
           if (linha != null) this.setQuantum(Integer.parseInt(linha)); 
         }
@@ -211,43 +892,285 @@ public class Escalonador {
           e.printStackTrace();
         }     
       }
+      else programas.add(arquivo);
+    }
+
+    // Lendo e compilando os programas em paralelo; cada um vai para a sua posição
+    int total = programas.size();
+    ProgramaLido[] lidos = new ProgramaLido[total];
+    IllegalArgumentException[] erros = new IllegalArgumentException[total];
+    AtomicInteger concluidos = new AtomicInteger();
+
+    IntStream.range(0, total).parallel().forEach(i -> {
+      try {
+        lidos[i] = lePrograma(programas.get(i));
+      }
+      catch (IllegalArgumentException e) {
+        erros[i] = e;
+      }
+      // Tratando excecoes (o arquivo que não pôde ser lido fica de fora da tabela)
+      catch (IOException e) {
+        e.printStackTrace();
+      }
+
+      // Progresso, a cada 10% dos programas, em cargas grandes
+      int feitos = concluidos.incrementAndGet();
+      if (total >= LIMITE_PROGRESSO && feitos % (total / 10) == 0) {
+        System.out.println("Carregados " + feitos + " de " + total + " programas");
+      }
+    });
+
+    // O erro informado é sempre o do primeiro arquivo inválido, como na leitura sequencial
+    for (IllegalArgumentException erro : erros) {
+      if (erro != null) throw erro;
+    }
+
+    // Criando os processos na tabela, na ordem dos arquivos
+    this.carregar(lidos);
+  }
+
+  /**
+   * Preenche a tabela de processos com programas já compilados, na ordem em que estão no vetor.
+   * Programas idênticos compartilham o código (veja `InternadorProgramas`).
+   *
+   * @param lidos Os programas lidos; as posições null (arquivos que não puderam ser lidos) ficam de fora.
+   */
+  void carregar(ProgramaLido[] lidos) {
+    TabelaDeProcessos processos = new TabelaDeProcessos(lidos.length);
+    this.internador = new InternadorProgramas();
+    for (ProgramaLido lido : lidos) {
+      if (lido == null) continue;
+      BCP bcp = processos.novoProcesso(lido.nome, lido.nome_arquivo, this.internador.interna(lido.programa));
+      bcp.setPrioridade(lido.prioridade);
+      bcp.setChegada(lido.chegada);
+    }
+
+    this.tabela = processos;
+  }
+
+  /**
+   * Lê um arquivo de programas, com o quantum e todos os programas já compilados. As instruções são
+   * usadas direto do arquivo mapeado em memória.
+   *
+   * @param arquivo O arquivo de programas.
+   * @throws IllegalArgumentException Se o arquivo não estiver no formato esperado.
+   */
+  public void lerArquivoProgramas(Path arquivo) {
+    try {
+      ArquivoProgramas programas = new ArquivoProgramas(arquivo);
+      this.setQuantum(programas.getQuantum());
+      this.internador = new InternadorProgramas();
+      this.tabela = programas.criaTabela(this.internador);
+    }
+    // Tratando excecao
+    catch (IOException e) {
+      System.out.println("Ocorreu um erro ao ler o arquivo de programas.");
+      e.printStackTrace();
+      this.tabela = new TabelaDeProcessos();
+    }
+  }
+
+  /**
+   * Grava os programas lidos e o quantum em um arquivo de programas, que pode ser lido depois no
+   * lugar da pasta.
+   *
+   * @param destino O arquivo de destino.
+   * @throws IOException Se não for possível gravar o arquivo.
+   */
+  public void gravarArquivo(Path destino) throws IOException {
+    ArquivoProgramas.grava(this.tabela, this.getQuantum(), destino);
+  }
+
+  /**
+   * Lê e compila um arquivo de programa: o nome na primeira linha, a prioridade opcional na segunda
+   * ("PRIORIDADE=n") e as instruções nas demais.
+   *
+   * @param arquivo O arquivo de programa.
+   * @return O programa lido.
+   * @throws IOException Se não for possível ler o arquivo.
+   * @throws IllegalArgumentException Se o programa contiver uma linha inválida.
+   */
+  private static ProgramaLido lePrograma(File arquivo) throws IOException {
+    ByteBuffer conteudo;
+    try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+      long tamanho = canal.size();
+      if (tamanho >= LIMITE_MAPEAMENTO) {
+        conteudo = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+      }
       else {
-        // Identificando o nome do arquivo
-        nome_arquivo = Integer.parseInt(arquivo.getName().replace(".txt", ""));
-        // Esvaziando ou inicializando o programa
-        programa = new ArrayList<>();
+        conteudo = ByteBuffer.allocate((int) tamanho);
+        while (conteudo.hasRemaining() && canal.read(conteudo) >= 0);
+        conteudo.flip();
+      }
+    }
 
-        // Leitura do arquivo
-        try (BufferedReader br = new BufferedReader(new FileReader(arquivo))) {
-          // Determinando a primeira linha do arquivo como nome do programa
-          nome = br.readLine();
-
-          // Criando o programa a partir de todas as outras linhas
-          linha = br.readLine();         
-          while (linha != null) {     
-            programa.add(linha);
-            linha = br.readLine();
-          }    
-
-          // Criando um BCP e o adicionando na tabela
-          processos.add(new BCP(nome, nome_arquivo, programa));
-        } 
-        // Tratando excecoes
-        catch (IOException e) {
-          e.printStackTrace();
-        }   
+    return lePrograma(arquivo.getPath(), numeroArquivo(arquivo), conteudo);
+  }
+
+  /**
+   * Compila um programa a partir do conteúdo de um arquivo de programa: o nome na primeira linha, as
+   * linhas opcionais "PRIORIDADE=n" e "CHEGADA=n" (instante de chegada no relógio de despachos), em
+   * qualquer ordem, e as instruções nas demais.
+   *
+   * @param arquivo O nome do arquivo, usado nas mensagens de erro.
+   * @param nome_arquivo O identificador do arquivo.
+   * @param conteudo O conteúdo do arquivo.
+   * @return O programa lido.
+   * @throws IllegalArgumentException Se o programa contiver uma linha inválida.
+   */
+  static ProgramaLido lePrograma(String arquivo, int nome_arquivo, ByteBuffer conteudo) {
+    ProgramaLido lido = new ProgramaLido();
+    lido.nome_arquivo = nome_arquivo;
+    int pos = 0, fim;
+    int primeiraLinha = 2;
+
+    // Determinando a primeira linha do arquivo como nome do programa
+    if (pos < conteudo.limit()) {
+      fim = Programa.fimLinha(conteudo, pos);
+      lido.nome = Programa.linha(conteudo, pos, fim);
+      pos = Programa.proximaLinha(conteudo, fim);
+    }
+
+    // As linhas seguintes podem definir a prioridade ("PRIORIDADE=n") e a chegada ("CHEGADA=n") do processo
+    while (pos < conteudo.limit() && (conteudo.get(pos) == 'P' || conteudo.get(pos) == 'C')) {
+      fim = Programa.fimLinha(conteudo, pos);
+      String linha = Programa.linha(conteudo, pos, fim);
+      try {
+        if (linha.startsWith("PRIORIDADE=")) lido.prioridade = Integer.parseInt(linha.substring("PRIORIDADE=".length()).trim());
+        else if (linha.startsWith("CHEGADA=")) lido.chegada = Long.parseLong(linha.substring("CHEGADA=".length()).trim());
+        else break;  // Uma instrução (por exemplo, "COM")
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(arquivo + ", linha " + primeiraLinha + ": valor inválido: " + linha);
       }
-    } 
+      pos = Programa.proximaLinha(conteudo, fim);
+      primeiraLinha++;
+    }
+
+    // Compilando o programa a partir de todas as outras linhas
+    lido.programa = Programa.compila(arquivo, conteudo, pos, primeiraLinha);
+    return lido;
+  }
 
-    // Ordenando os processos por ordem alfabetica referente ao nome
-    Collections.sort(processos, new Comparator<BCP>() {
-            @Override
-            public int compare(BCP bcp1, BCP bcp2) {
-                return Integer.compare(bcp1.getNomeArquivo(), bcp2.getNomeArquivo());
-            }
-        });
-    
-    this.tabela = new TabelaDeProcessos(processos);
+  /**
+   * Um programa lido de um arquivo, antes de entrar na tabela de processos.
+   */
+  static final class ProgramaLido {
+    String nome;
+    int nome_arquivo;
+    int prioridade;
+    long chegada;
+    Programa programa;
+  }
+
+  /**
+   * Preenche a tabela de processos com programas sintéticos gerados em memória, sem ler arquivos.
+   * O quantum passa a ser o do gerador.
+   *
+   * @param gerador O gerador de carga configurado.
+   */
+  public void carregar(GeradorCarga gerador) {
+    this.setQuantum(gerador.getQuantum());
+    this.internador = new InternadorProgramas();
+    this.tabela = gerador.gerarTabela(this.internador);
+  }
+
+  /**
+   * Obtém o número de um arquivo de programa a partir do seu nome (por exemplo, 7 para "07.txt").
+   * O arquivo do quantum, que não é numerado, fica antes de todos os programas.
+   *
+   * @param arquivo O arquivo de programa.
+   * @return O número do arquivo.
+   */
+  private static int numeroArquivo(File arquivo) {
+    if (arquivo.getName().contains("quantum")) return -1;
+    return Integer.parseInt(arquivo.getName().replace(".txt", ""));
+  }
+
+  /**
+   * Obtém o número de trocas em que o próximo checkpoint deve ser gravado.
+   */
+  private long proximoCheckpoint() {
+    if (this.arquivo_checkpoint == null) return Long.MAX_VALUE;
+    return (this.tabela.n_trocas / this.intervalo_checkpoint + 1) * (long) this.intervalo_checkpoint;
+  }
+
+  /**
+   * Grava um checkpoint da simulação, depois de esperar o log chegar ao arquivo. O checkpoint é escrito
+   * em um arquivo temporário e só então substitui o anterior, para que uma interrupção no meio da
+   * gravação não deixe um checkpoint incompleto.
+   *
+   * @param log O log da simulação.
+   */
+  private void gravaCheckpoint(SaidaLog log) {
+    long posicao = log.sincroniza();
+    if (posicao < 0) return;
+
+    Path temporario = this.arquivo_checkpoint.resolveSibling(this.arquivo_checkpoint.getFileName() + ".tmp");
+    try {
+      this.gravaCheckpoint(temporario, posicao);
+      Files.move(temporario, this.arquivo_checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao gravar o checkpoint.");
+      e.printStackTrace();
+      this.arquivo_checkpoint = null;  // Não tenta de novo a cada intervalo
+    }
+  }
+
+  /**
+   * Grava um checkpoint com tudo o que é preciso para continuar a simulação exatamente de onde ela
+   * está: configuração, relógio, estado dos processos, fila de prontos (com o estado da política),
+   * fila de bloqueados e fila de chegadas. Os programas não são gravados e devem ser carregados de novo ao retomar.
+   *
+   * Formato: os bytes "CKP3", quantum, latência de E/S, nome da política, relógio e tamanho do log,
+   * seguidos da tabela de processos, da fila de prontos, da fila de bloqueados e da fila de chegadas.
+   *
+   * @param destino O arquivo do checkpoint.
+   * @param posicao_log O tamanho do log, em bytes, no momento do checkpoint.
+   * @throws IOException Se não for possível gravar o arquivo.
+   */
+  public void gravaCheckpoint(Path destino, long posicao_log) throws IOException {
+    try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(destino), 1 << 16))) {
+      saida.write(ASSINATURA_CHECKPOINT);
+      saida.writeInt(this.getQuantum());
+      saida.writeInt(this.filaBloqueados.getLatencia());
+      saida.writeUTF(this.politica);
+      saida.writeLong(this.relogio);
+      saida.writeLong(posicao_log);
+
+      this.tabela.salva(saida);
+      this.filaProntos.salva(saida);
+      this.filaBloqueados.salva(saida);
+      this.filaChegadas.salva(saida);
+    }
+  }
+
+  /**
+   * Restaura um checkpoint gravado por `gravaCheckpoint`, sobre os mesmos programas já carregados e com
+   * a fila de prontos ainda vazia. O próximo `gerar_log` continua o log a partir do ponto do checkpoint.
+   *
+   * @param origem O arquivo do checkpoint.
+   * @return O tamanho do log, em bytes, no momento do checkpoint.
+   * @throws IOException Se não for possível ler o arquivo.
+   * @throws IllegalArgumentException Se o arquivo não for um checkpoint desses programas.
+   */
+  public long restauraCheckpoint(Path origem) throws IOException {
+    try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(origem), 1 << 16))) {
+      byte[] assinatura = new byte[ASSINATURA_CHECKPOINT.length];
+      entrada.readFully(assinatura);
+      if (!Arrays.equals(assinatura, ASSINATURA_CHECKPOINT)) throw new IllegalArgumentException(origem + " não é um checkpoint");
+
+      this.setQuantum(entrada.readInt());
+      this.setLatenciaES(entrada.readInt());
+      this.setPolitica(entrada.readUTF());
+      this.relogio = entrada.readLong();
+      this.posicao_log = entrada.readLong();
+
+      this.tabela.restaura(entrada);
+      this.filaProntos.restaura(entrada, this.tabela);
+      this.filaBloqueados.restaura(entrada, this.tabela);
+      this.filaChegadas.restaura(entrada, this.tabela);
+    }
+    return this.posicao_log;
   }
 
   /**
@@ -255,8 +1178,6 @@ public class Escalonador {
    * média de trocas e média de instruções.
    */
   public void gerar_log() {
-    int num_processos = this.tabela.getTamanhoLista();
-
     try {
       // Verifica se a pasta "logs" existe e cria se não existir
       File logsDir = new File("logs");
@@ -264,36 +1185,274 @@ public class Escalonador {
           logsDir.mkdirs(); // Cria a pasta "logs" se não existir
       }
 
-      // Cria log
-      String nome_file = "logs/log" + String.format("%02d", this.getQuantum()) + ".txt";
-      PrintWriter writer = new PrintWriter(nome_file, "UTF-8");
-
-      // Adiciona a fila de prontos ao log
-      for (BCP bcp : filaProntos.getFilaProntos()) writer.println("Carregando " + bcp.getNome());
+      // Cria log: os eventos são gravados no arquivo por uma thread separada
+      String nome_file = "logs/log" + String.format("%02d", this.getQuantum())
+                         + (this.numCPUs > 1 ? "-" + this.numCPUs + "cpus" : "");
 
-      // Executa todos os programas na tabela
-      while (tabela.getTamanhoLista() > 0) {
-        this.executar(writer);
+      // Simulação idêntica a uma já executada: o log e as estatísticas vêm da cache
+      String chave = this.usaCache() ? this.chaveCache() : null;
+      this.resultado_cache = chave != null ? this.cache.busca(chave, Paths.get(nome_file + ".txt")) : null;
+      if (this.resultado_cache != null) {
+        this.media_trocas = this.resultado_cache.media_trocas;
+        this.media_instrucoes = this.resultado_cache.media_instrucoes;
+        this.metricas = null;
+        this.concluiCache(Paths.get(nome_file + ".txt"), "ACERTO");
+        if (this.formato_metricas != null) this.gravarMetricas(Paths.get(nome_file + "-metricas." + this.formato_metricas));
+        return;
       }
 
-      // Adiciona média de trocas e de instruções ao log
-      double media_trocas = this.tabela.n_trocas / num_processos;
-      double media_instrucoes = this.tabela.n_instrucoes / tabela.n_trocas;
+      SaidaLog log = this.posicao_log >= 0 ? new LogAssincrono(Paths.get(nome_file + ".txt"), this.posicao_log)
+                                           : new LogAssincrono(Paths.get(nome_file + ".txt"));
+      if (this.intervalo_checkpoint > 0 && this.numCPUs == 1) this.arquivo_checkpoint = Paths.get(nome_file + ".ckp");
+
+      // Trace binário opcional, gravado junto com o log em texto
+      if (this.trace) log = SaidaLog.combina(log, new TraceBinario(Paths.get(nome_file + ".trc")));
+
+      // Contadores da simulação visíveis por JMX enquanto ela executa
+      ObjectName nome_jmx = this.registraMonitor(Paths.get(nome_file).getFileName().toString());
 
-      writer.println("MÉDIA DE TROCAS: " + media_trocas);
-      writer.println("MÉDIA DE INSTRUCOES: " + media_instrucoes);
-      writer.println("QUANTUM: " + this.getQuantum());
+      // Conclui o log e remove o monitor mesmo se a simulação for interrompida (por exemplo, pelo limite de despachos)
+      try {
+        this.simular(log);
+      } finally {
+        log.fecha();
+        this.arquivo_checkpoint = null;
+        this.removeMonitor(nome_jmx);
+      }
+
+      // Guarda o resultado na cache antes de acrescentar a linha da cache ao log
+      if (chave != null) {
+        StringBuilder json = new StringBuilder(), csv = new StringBuilder();
+        this.formataMetricas(json, "json");
+        this.formataMetricas(csv, "csv");
+        this.cache.guarda(chave, Paths.get(nome_file + ".txt"),
+                          new CacheResultados.Resultado(this.media_trocas, this.media_instrucoes, json.toString(), csv.toString()));
+        this.concluiCache(Paths.get(nome_file + ".txt"), "FALTA");
+      }
 
-      // Conclui o log
-      writer.close();
+      // Métricas em formato para outras ferramentas
+      if (this.formato_metricas != null) this.gravarMetricas(Paths.get(nome_file + "-metricas." + this.formato_metricas));
 
-    // Tratamento de exceções do writer
-    } catch (FileNotFoundException e) {
+    // Tratamento de exceções do log
+    } catch (IOException e) {
       System.out.println("Ocorreu um erro ao abrir o arquivo.");
       e.printStackTrace();
-    } catch (UnsupportedEncodingException e) {
-      System.out.println("Ocorreu um erro com a codificação do arquivo.");
+    }
+  }
+
+  /**
+   * Indica se `gerar_log` pode usar a cache: só as simulações determinísticas, que geram apenas o log
+   * e as métricas, são guardadas.
+   *
+   * @return true se a cache estiver definida e a simulação puder ser guardada nela.
+   */
+  private boolean usaCache() {
+    return this.cache != null && this.numCPUs == 1 && !this.trace && this.fonte == null
+           && this.intervalo_checkpoint == 0 && this.posicao_log < 0;
+  }
+
+  /**
+   * Calcula a chave da simulação na cache: o SHA-256 dos programas compilados (com nome, prioridade e
+   * chegada de cada processo), do quantum, da política e da configuração de E/S.
+   *
+   * @return A chave, em hexadecimal.
+   */
+  public String chaveCache() {
+    try {
+      MessageDigest sha = MessageDigest.getInstance("SHA-256");
+      try (DataOutputStream saida = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), sha))) {
+        saida.writeUTF("LOG1");  // Muda se o formato do log mudar
+        saida.writeInt(this.getQuantum());
+        saida.writeUTF(this.politica);
+        saida.writeInt(this.filaBloqueados.getLatencia());
+        GerenciadorES dispositivos = this.filaBloqueados.getDispositivos();
+        saida.writeUTF(dispositivos != null ? dispositivos.getEspecificacao() : "");
+
+        saida.writeInt(this.tabela.getNumCriados());
+        for (int id = 0; id < this.tabela.getNumCriados(); id++) {
+          Programa programa = this.tabela.programa[id];
+          saida.writeUTF(String.valueOf(this.tabela.nome[id]));
+          saida.writeInt(this.tabela.prioridade[id]);
+          saida.writeLong(this.tabela.chegada[id]);
+          saida.writeInt(programa.getTamanho());
+          for (int pc = 0; pc < programa.getTamanho(); pc++) saida.writeLong(programa.getInstrucao(pc));
+        }
+      }
+      return HexFormat.of().formatHex(sha.digest());
+    } catch (NoSuchAlgorithmException | IOException e) {
+      throw new IllegalStateException("não foi possível calcular a chave da simulação", e);
+    }
+  }
+
+  /**
+   * Acrescenta ao log a linha da cache, com o resultado da busca e os contadores, por exemplo
+   * "CACHE: ACERTO (ACERTOS 3, FALTAS 1)". A linha não faz parte do log guardado na cache.
+   *
+   * @param log O arquivo do log, já fechado.
+   * @param resultado "ACERTO" ou "FALTA".
+   * @throws IOException Se não for possível gravar o log.
+   */
+  private void concluiCache(Path log, String resultado) throws IOException {
+    String linha = "CACHE: " + resultado + " (" + this.cache.resumo() + ")" + System.lineSeparator();
+    Files.write(log, linha.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Registra o monitor da simulação no servidor de MBeans da plataforma, com o nome
+   * "Escalonador:type=Simulacao,log=NOME".
+   *
+   * @param nome O nome do log da simulação, que identifica o MBean.
+   * @return O nome do MBean registrado, ou null se não foi possível registrá-lo.
+   */
+  private ObjectName registraMonitor(String nome) {
+    try {
+      ObjectName nome_jmx = new ObjectName("Escalonador:type=Simulacao,log=" + ObjectName.quote(nome));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this.monitor, nome_jmx);
+      return nome_jmx;
+    } catch (JMException e) {
+      System.out.println("Ocorreu um erro ao registrar o monitor JMX.");
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  /**
+   * Remove o monitor da simulação do servidor de MBeans.
+   *
+   * @param nome_jmx O nome do MBean, ou null se ele não foi registrado.
+   */
+  private void removeMonitor(ObjectName nome_jmx) {
+    if (nome_jmx == null) return;
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(nome_jmx);
+    } catch (JMException e) {
+      System.out.println("Ocorreu um erro ao remover o monitor JMX.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Executa todos os processos da fila de prontos até terminarem, gravando a execução e as médias
+   * de trocas e de instruções no writer especificado.
+   *
+   * @param writer Um objeto PrintWriter para gravar saída no log.
+   */
+  public void simular(PrintWriter writer) {
+    LogTexto log = new LogTexto(writer);
+    this.simular(log);
+    log.fecha();
+  }
+
+  /**
+   * Executa todos os processos da fila de prontos até terminarem, publicando a execução e as médias
+   * de trocas e de instruções no log especificado.
+   *
+   * @param log O log da simulação.
+   * @throws IllegalStateException Se a simulação passar do limite de despachos ou de instruções (veja
+   *                               `setLimiteDespachos` e `setLimiteInstrucoes`).
+   */
+  public void simular(SaidaLog log) {
+
+    this.monitor.inicia();
+    if (this.numCPUs > 1) {
+      this.executarMultiCPU(log);
+    }
+    else {
+      // Adiciona os processos carregados ao log, na ordem da tabela (ao retomar, já estão no log); os
+      // que chegam depois são registrados na chegada
+      if (this.posicao_log < 0) {
+        for (int id = 0; id < tabela.getNumCriados(); id++) {
+          if (tabela.chegada[id] <= 0) log.carregando(SaidaLog.SEM_CPU, tabela.getBCP(id));
+        }
+      }
+
+      // Executa todos os programas na tabela, gravando um checkpoint a cada intervalo
+      long proximo_checkpoint = this.proximoCheckpoint();
+      while ((tabela.getTamanhoLista() > 0 || (this.fonte != null && !this.fonte.isTerminada()))
+             && this.relogio < this.limite_despachos && this.tabela.n_instrucoes < this.limite_instrucoes) {
+        this.executar(log);
+
+        if (this.tabela.n_trocas >= proximo_checkpoint && tabela.getTamanhoLista() > 0) {
+          this.gravaCheckpoint(log);
+          proximo_checkpoint = this.proximoCheckpoint();
+        }
+      }
+    }
+
+    // Simulação interrompida pelo limite de despachos, antes de todos os processos terminarem
+    if (this.relogio >= this.limite_despachos && this.tabela.getTamanhoLista() > 0) {
+      throw new IllegalStateException("a simulação passou do limite de " + this.limite_despachos + " despachos");
+    }
+    if (this.tabela.n_instrucoes >= this.limite_instrucoes && this.tabela.getTamanhoLista() > 0) {
+      throw new IllegalStateException("a simulação passou do limite de " + this.limite_instrucoes + " instruções");
+    }
+
+    // Adiciona média de trocas e de instruções ao log
+    int num_processos = this.tabela.getNumCriados();  // Inclui os processos que chegaram durante a simulação
+    media_trocas = (double) this.tabela.n_trocas / num_processos;
+    media_instrucoes = (double) this.tabela.n_instrucoes / tabela.n_trocas;
+
+    log.texto("MÉDIA DE TROCAS: " + media_trocas);
+    log.texto("MÉDIA DE INSTRUCOES: " + media_instrucoes);
+    log.texto("QUANTUM: " + this.getQuantum());
+    if (!this.politica.equals("rr")) log.texto("POLÍTICA: " + this.politica);
+    if (this.tabela.tempo_ocioso > 0) log.texto("TEMPO OCIOSO: " + this.tabela.tempo_ocioso);
+
+    // Adiciona a utilização e os roubos de cada CPU ao log
+    if (this.numCPUs > 1) {
+      for (int i = 0; i < this.cpus.length; i++) {
+        log.texto("CPU " + i + ": TROCAS: " + this.cpus[i].getTrocas()
+                       + ", INSTRUCOES: " + this.cpus[i].getInstrucoes()
+                       + ", UTILIZAÇÃO: " + String.format("%.1f%%", 100 * this.cpus[i].getUtilizacao(this.relogio))
+                       + ", ROUBOS: " + this.cpus[i].getRoubos());
+      }
+    }
+
+    // Adiciona a utilização e a espera de cada dispositivo de E/S ao log
+    GerenciadorES dispositivos = this.filaBloqueados.getDispositivos();
+    if (dispositivos != null) {
+      dispositivos.relatorio(log, this.relogio);
+    }
+
+    // Adiciona as métricas por processo ao log
+    this.metricas = new MetricasExecucao(this.tabela);
+    this.metricas.relatorio(log);
+  }
+
+  /**
+   * Grava as médias e as métricas por processo da última simulação em JSON ou CSV, conforme a
+   * extensão do arquivo.
+   *
+   * @param destino O arquivo de destino (".json" ou ".csv").
+   */
+  public void gravarMetricas(Path destino) {
+    StringBuilder sb = new StringBuilder();
+    this.formataMetricas(sb, destino.toString().endsWith(".csv") ? "csv" : "json");
+
+    try {
+      Files.write(destino, sb.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao gravar o arquivo de métricas.");
       e.printStackTrace();
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Escreve as médias e as métricas por processo da última simulação em JSON (um objeto, em uma linha)
+   * ou CSV.
+   *
+   * @param sb O buffer onde as métricas são escritas.
+   * @param formato O formato: "json" ou "csv".
+   */
+  public void formataMetricas(StringBuilder sb, String formato) {
+    if (this.metricas == null && this.resultado_cache != null) {
+      sb.append(formato.equals("csv") ? this.resultado_cache.csv : this.resultado_cache.json);
+    }
+    else if (formato.equals("csv")) {
+      this.getResultado().formataCSV(sb);
+    }
+    else {
+      this.getResultado().formataJSON(sb);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * O enum `Estado` representa os estados possíveis de um processo no escalonador. Na tabela de
+ * processos o estado é armazenado como um byte (o ordinal do enum), evitando comparações de strings.
+ */
+
+public enum Estado {
+  /**
+   * Processo na fila de prontos, aguardando a CPU.
+   */
+  PRONTO("Pronto"),
+
+  /**
+   * Processo que está ocupando a CPU.
+   */
+  EXECUTANDO("Executando"),
+
+  /**
+   * Processo na fila de bloqueados, aguardando o fim de uma operação de E/S.
+   */
+  BLOQUEADO("Bloqueado"),
+
+  /**
+   * Processo que já executou a instrução SAIDA.
+   */
+  TERMINADO("Terminado");
+
+  /**
+   * Todos os estados, indexados pelo ordinal, para converter o byte armazenado na tabela.
+   */
+  private static final Estado[] VALORES = values();
+
+  /**
+   * Nome do estado usado na exibição dos processos.
+   */
+  private final String descricao;
+
+  /**
+   * Cria um estado com a descrição especificada.
+   *
+   * @param descricao O nome do estado usado na exibição.
+   */
+  Estado(String descricao) {
+    this.descricao = descricao;
+  }
+
+  /**
+   * Obtém o estado correspondente ao byte armazenado na tabela de processos.
+   *
+   * @param codigo O ordinal do estado.
+   * @return O estado correspondente.
+   */
+  public static Estado deCodigo(byte codigo) {
+    return VALORES[codigo];
+  }
+
+  /**
+   * Obtém o código (ordinal) do estado, armazenado como byte na tabela de processos.
+   *
+   * @return O código do estado.
+   */
+  public byte getCodigo() {
+    return (byte) this.ordinal();
+  }
+
+  @Override
+  public String toString() {
+    return this.descricao;
+  }
+}
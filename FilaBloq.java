@@ -1,68 +1,189 @@
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
 /**
  * A classe `FilaBloq` representa uma fila de processos bloqueados em um sistema de escalonamento.
  * Ela é responsável por gerenciar os processos que estão no estado "Bloqueado" e determinar quando
  * um processo deve ser movido de volta para o estado "Pronto".
+ *
+ * Os processos são ordenados pelo instante (no relógio de despachos do escalonador) em que a sua
+ * E/S termina, em um heap mínimo. Assim bloquear e liberar um processo custa O(log n), e todos os
+ * processos cuja espera já terminou são liberados no mesmo instante, em ordem determinística
+ * (instante de término e, em caso de empate, ordem de bloqueio).
+ *
+ * Com dispositivos de E/S (veja `GerenciadorES`), o tempo de bloqueio deixa de ser a latência fixa: o
+ * processo espera o dispositivo ficar livre e o tempo de atendimento sorteado, e só entra no heap quando
+ * o atendimento começa.
+ *
+ * Os métodos são sincronizados, pois na simulação com várias CPUs a fila de bloqueados é compartilhada
+ * por todas elas.
  */
 
 public class FilaBloq {
   // Atributos
 
   /**
-   * Fila de processos que estão bloqueados.
+   * Latência padrão de uma operação de E/S, em despachos.
    */
-  Queue<BCP> fila_bloq = new LinkedList<BCP> ();
+  public static final int LATENCIA_PADRAO = 2;
+
+  /**
+   * Número de despachos que um processo permanece bloqueado após iniciar uma E/S.
+   */
+  private int latencia;
+
+  /**
+   * Heap de processos bloqueados, ordenado pelo instante de término da E/S.
+   */
+  private final HeapProcessos heap = new HeapProcessos();
+
+  /**
+   * Dispositivos de E/S que atendem as operações, ou null para usar a latência fixa.
+   */
+  private GerenciadorES dispositivos;
+
+  // Construtores
+
+  /**
+   * Cria uma fila de bloqueados com a latência de E/S padrão.
+   */
+  public FilaBloq() {
+    this(LATENCIA_PADRAO);
+  }
+
+  /**
+   * Cria uma fila de bloqueados com a latência de E/S especificada.
+   *
+   * @param latencia O número de despachos que um processo permanece bloqueado.
+   */
+  public FilaBloq(int latencia) {
+    this.latencia = latencia;
+  }
 
   // Métodos
 
+  /**
+   * Obtém a latência de E/S, em despachos.
+   *
+   * @return A latência de E/S.
+   */
+  public synchronized int getLatencia() {
+    return this.latencia;
+  }
+
+  /**
+   * Define a latência de E/S, em despachos. Vale para os próximos bloqueios.
+   *
+   * @param latencia O número de despachos que um processo permanece bloqueado.
+   */
+  public synchronized void setLatencia(int latencia) {
+    this.latencia = latencia;
+  }
+
+  /**
+   * Define os dispositivos de E/S que atendem as operações dos próximos bloqueios.
+   *
+   * @param dispositivos Os dispositivos, ou null para usar a latência fixa.
+   */
+  public synchronized void setDispositivos(GerenciadorES dispositivos) {
+    this.dispositivos = dispositivos;
+  }
+
+  /**
+   * Obtém os dispositivos de E/S.
+   *
+   * @return Os dispositivos, ou null se a fila usa a latência fixa.
+   */
+  public synchronized GerenciadorES getDispositivos() {
+    return this.dispositivos;
+  }
+
+  /**
+   * Obtém o número de processos bloqueados.
+   *
+   * @return O número de processos na fila de bloqueados (com dispositivos, inclusive os que esperam o dispositivo).
+   */
+  public synchronized int getTamanho() {
+    return this.dispositivos != null ? this.dispositivos.getPendentes() : this.heap.getTamanho();
+  }
+
   /**
    * Insere um processo na fila de bloqueados e altera o estado do processo para "Bloqueado".
    * Este método é utilizado na classe `FilaProntos` quando um processo precisa ser bloqueado.
    *
    * @param processo O BCP (Bloco de Controle de Processo) a ser inserido na fila de bloqueados.
+   * @param relogio O instante atual no relógio de despachos.
    */
-  public void insereBloq(BCP processo) {
-    processo.setVezesFilaBloq(2);  // Contador para verificar se dois processos passaram pelo estado 'Executando'
-    processo.setEstado("Bloqueado");
-    fila_bloq.add(processo);
+  public synchronized void insereBloq(BCP processo, long relogio) {
+    if (this.dispositivos != null) {
+      processo.setEstado(Estado.BLOQUEADO);
+      this.dispositivos.solicita(processo, relogio, this.heap);  // Entra no heap quando o atendimento começar
+      return;
+    }
+
+    processo.setDespertar(relogio + this.latencia);  // Instante em que a E/S termina
+    processo.setEstado(Estado.BLOQUEADO);
+    this.heap.insere(processo, processo.getDespertar());
   }
 
   /**
-   * Verifica se algum processo na fila de bloqueados zerou seu tempo de espera e o move de volta
-   * para a fila de prontos. Isso ocorre quando um processo está bloqueado temporariamente e agora
-   * está pronto para ser executado novamente.
+   * Move para a fila de prontos todos os processos cuja E/S já terminou no instante atual, em ordem
+   * de término (e de bloqueio, em caso de empate).
    *
-   * @param fila_prontos A fila de processos prontos onde o processo deve ser inserido.
-   */
-  public void verificarUltimoElemento(FilaProntos fila_prontos) {
-    BCP ultimoElemento = fila_bloq.peek(); 
-    if (ultimoElemento != null && ultimoElemento.getVezesFilaBloq() == 0) {
-        fila_bloq.poll(); // Remove o último elemento da fila
-        fila_prontos.inserePronto(ultimoElemento); // Adiciona o último elemento à fila de prontos
-        ultimoElemento.setEstado("Pronto");
-        ultimoElemento.addUmPC(); // Avança PC
+   * @param relogio O instante atual no relógio de despachos.
+   * @param fila_prontos A fila de processos prontos onde os processos devem ser inseridos.
+   */
+  public synchronized void liberaExpirados(long relogio, FilaProntos fila_prontos) {
+    while (this.heap.getTamanho() > 0 && this.heap.chaveTopo() <= relogio) {
+      BCP processo = this.heap.remove();
+      processo.addUmPC(); // Avança PC
+      if (this.dispositivos != null) processo.addTempoBloqueado(this.dispositivos.conclui(processo, relogio));
+      else processo.addTempoBloqueado(Math.max(relogio - (processo.getDespertar() - this.latencia) - 1, 0));  // Desde o despacho da E/S
+      fila_prontos.inserePronto(processo); // Adiciona o processo à fila de prontos
     }
+
+    // A capacidade liberada pelos processos que terminaram atende as operações que esperam os dispositivos
+    if (this.dispositivos != null) this.dispositivos.iniciaFilas(relogio, this.heap);
   }
 
   /**
-   * Decrementa o tempo de espera de todos os processos na fila de bloqueados. Isso é usado para
-   * acompanhar o tempo de espera restante para cada processo na fila de bloqueados.
+   * Obtém o instante em que termina a próxima E/S.
+   *
+   * @return O instante de término da próxima E/S, ou -1 se não houver processos bloqueados.
    */
-  public void decrementaTempoEspera(){
-    for(BCP x : fila_bloq) x.setVezesFilaBloq(x.getVezesFilaBloq()-1);
+  public synchronized long proximoDespertar() {
+    return this.heap.chaveTopo();
   }
 
   /**
-   * Exibe informações detalhadas sobre todos os BCPs na tabela, incluindo seus estados,
-   * Program Counters (PCs), valores de X e Y e programas associados.
+   * Exibe os processos bloqueados e o instante em que cada um será liberado.
    */
-  public void printaFila(){
+  public synchronized void printaFila(){
    System.out.println("Fila Bloqueados:");
-   for(BCP x : fila_bloq)
-     System.out.println(x.getNome() + "vezes:" + x.getVezesFilaBloq());
-  } 
-}
\ No newline at end of file
+   for (int i = 0; i < this.heap.getTamanho(); i++)
+     System.out.println(this.heap.get(i).getNome() + " despertar:" + this.heap.getChave(i));
+  }
+
+  /**
+   * Grava os processos bloqueados, com o instante de término da E/S de cada um, em um checkpoint.
+   *
+   * @param saida O destino do checkpoint.
+   * @throws IOException Se não for possível gravar.
+   */
+  public synchronized void salva(DataOutputStream saida) throws IOException {
+    if (this.dispositivos != null) throw new IllegalStateException("checkpoint com dispositivos de E/S não é suportado");
+    this.heap.salva(saida);
+  }
+
+  /**
+   * Restaura os processos bloqueados gravados por `salva`.
+   *
+   * @param entrada A origem do checkpoint.
+   * @param tabela A tabela de processos já restaurada.
+   * @throws IOException Se não for possível ler.
+   */
+  public synchronized void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    this.heap.restaura(entrada, tabela);
+  }
+}
@@ -0,0 +1,101 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A classe `FilaChegadas` guarda os processos que ainda não chegaram ao sistema, ordenados pelo
+ * instante de chegada no relógio de despachos, em um heap mínimo (como a fila de bloqueados). Quando
+ * o relógio alcança a chegada de um processo, ele é carregado e vai para a fila de prontos.
+ *
+ * Os métodos são sincronizados, pois na simulação com várias CPUs a fila de chegadas é compartilhada
+ * por todas elas.
+ */
+
+public class FilaChegadas {
+  // Atributos
+
+  /**
+   * Heap de processos que ainda não chegaram, ordenado pelo instante de chegada.
+   */
+  private final HeapProcessos heap = new HeapProcessos();
+
+  // Métodos
+
+  /**
+   * Obtém o número de processos que ainda não chegaram.
+   *
+   * @return O número de processos na fila de chegadas.
+   */
+  public synchronized int getTamanho() {
+    return this.heap.getTamanho();
+  }
+
+  /**
+   * Insere um processo na fila de chegadas, pelo seu instante de chegada.
+   *
+   * @param processo O processo.
+   */
+  public synchronized void insere(BCP processo) {
+    this.heap.insere(processo, processo.getChegada());
+  }
+
+  /**
+   * Carrega e move para a fila de prontos todos os processos que já chegaram no instante atual, em
+   * ordem de chegada (e de inserção, em caso de empate).
+   *
+   * @param relogio O instante atual no relógio de despachos.
+   * @param fila_prontos A fila de prontos onde os processos devem ser inseridos.
+   * @param log O log da simulação, que registra o carregamento de cada processo.
+   * @param cpu A CPU que recebe os processos, ou `SaidaLog.SEM_CPU`.
+   */
+  public synchronized void libera(long relogio, FilaProntos fila_prontos, SaidaLog log, int cpu) {
+    while (this.heap.getTamanho() > 0 && this.heap.chaveTopo() <= relogio) {
+      BCP processo = this.heap.remove();
+      log.carregando(cpu, processo);
+      fila_prontos.inserePronto(processo);
+    }
+  }
+
+  /**
+   * Obtém o instante da próxima chegada.
+   *
+   * @return O instante da próxima chegada, ou -1 se não houver processos por chegar.
+   */
+  public synchronized long proximaChegada() {
+    return this.heap.chaveTopo();
+  }
+
+  /**
+   * Obtém o instante mais próximo entre dois eventos futuros (término de E/S ou chegada).
+   *
+   * @param a O instante de um evento, ou -1 se não houver.
+   * @param b O instante do outro evento, ou -1 se não houver.
+   * @return O menor instante, ou -1 se não houver nenhum evento.
+   */
+  public static long proximoEvento(long a, long b) {
+    if (a < 0) return b;
+    if (b < 0) return a;
+    return Math.min(a, b);
+  }
+
+  /**
+   * Grava os processos que ainda não chegaram em um checkpoint.
+   *
+   * @param saida O destino do checkpoint.
+   * @throws IOException Se não for possível gravar.
+   */
+  public synchronized void salva(DataOutputStream saida) throws IOException {
+    this.heap.salva(saida);
+  }
+
+  /**
+   * Restaura os processos gravados por `salva`.
+   *
+   * @param entrada A origem do checkpoint.
+   * @param tabela A tabela de processos já restaurada.
+   * @throws IOException Se não for possível ler.
+   */
+  public synchronized void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    this.heap.restaura(entrada, tabela);
+  }
+}
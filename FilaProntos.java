@@ -1,81 +1,168 @@
-import java.util.LinkedList;
-import java.util.Queue;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 
 /**
  * A classe `FilaProntos` representa uma fila de processos prontos em um sistema de escalonamento.
  * Ela é responsável por gerenciar os processos que estão no estado "Pronto" e determinar qual processo
  * deve ser executado em seguida. A classe fornece métodos para manipular a fila de prontos e transições
  * de estados dos processos.
+ *
+ * A ordem de escalonamento é delegada a uma `PoliticaEscalonamento` (rodízio, por padrão). O processo
+ * em execução sai da política e fica guardado na fila até voltar para ela, ser bloqueado ou terminar.
+ *
+ * Os métodos são sincronizados para que, na simulação com várias CPUs, outras CPUs possam roubar
+ * processos desta fila enquanto a CPU dona dela está executando.
  */
 
 public class FilaProntos {
   // Atributos
 
   /**
-   * Fila de processos que estão prontos para serem executados.
+   * Política que define a ordem dos processos prontos.
    */
-  Queue<BCP> fila_prontos = new LinkedList<BCP> ();
+  private final PoliticaEscalonamento politica;
+
+  /**
+   * Processo obtido por `pegaPronto` que ainda está em execução.
+   */
+  private BCP atual;
+
+  // Construtores
+
+  /**
+   * Cria uma fila de prontos com a política de rodízio (round-robin).
+   */
+  public FilaProntos() {
+    this(new PoliticaRoundRobin());
+  }
+
+  /**
+   * Cria uma fila de prontos com a política de escalonamento especificada.
+   *
+   * @param politica A política que define a ordem dos processos prontos.
+   */
+  public FilaProntos(PoliticaEscalonamento politica) {
+    this.politica = politica;
+  }
 
   // Métodos
 
   /**
-   * Obtém a fila de processos prontos.
+   * Obtém a política de escalonamento da fila.
    *
-   * @return A fila de processos prontos.
+   * @return A política de escalonamento.
    */
-  public Queue<BCP> getFilaProntos() {
-    return fila_prontos;
+  public PoliticaEscalonamento getPolitica() {
+    return politica;
   }
-  
+
+  /**
+   * Obtém o número de processos na fila de prontos, sem contar o processo em execução.
+   *
+   * @return O número de processos prontos.
+   */
+  public synchronized int getTamanho() {
+    return politica.getTamanho();
+  }
+
   /**
    * Cria uma nova fila de processos prontos inicialmente preenchida com os processos da tabela especificada.
+   * Os processos com instante de chegada posterior ao início ficam de fora.
    *
    * @param tabela A tabela de processos que fornece os processos para preencher a fila de prontos.
    */
-  public void novaFila(TabelaDeProcessos tabela){
-    for(BCP x : tabela.processos)
-      fila_prontos.add(x);
+  public synchronized void novaFila(TabelaDeProcessos tabela){
+    for (int id = 0; id < tabela.getNumCriados(); id++) {
+      BCP x = tabela.getBCP(id);
+      if (x.getEstado() == Estado.PRONTO && x.getChegada() <= 0) politica.insere(x);
+    }
   }
-  
+
   /**
    * Insere um processo na fila de prontos e altera o estado do processo para "Pronto".
    * Este método é utilizado na classe `FilaBloq` quando um processo precisa ser desbloqueado.
    *
    * @param processo O BCP (Bloco de Controle de Processo) a ser inserido na fila de prontos.
    */
-  public void inserePronto(BCP processo){
-    processo.setEstado("Pronto");
-    fila_prontos.add(processo);
+  public synchronized void inserePronto(BCP processo){
+    processo.setEstado(Estado.PRONTO);
+    politica.insere(processo);
   }
 
   /**
-   * Remove o processo pronto que será executado a seguir da fila de prontos.
+   * Remove o processo em execução da fila de prontos, quando ele termina.
    */
-  public void removePronto(){
-    fila_prontos.remove();
+  public synchronized void removePronto(){
+    atual = null;
   }
 
   /**
    * Obtém o próximo processo pronto que será executado e altera o estado do processo para "Executando".
+   * Enquanto ele não for devolvido à fila, bloqueado ou removido, chamadas seguintes devolvem o mesmo processo.
    *
    * @return O próximo processo pronto a ser executado.
    */
-  public BCP pegaPronto(){
-    BCP temp = fila_prontos.peek();
-    if (temp != null) temp.setEstado("Executando");
+  public synchronized BCP pegaPronto(){
+    if (atual == null) atual = politica.remove();
+    if (atual != null) atual.setEstado(Estado.EXECUTANDO);
+    return atual;
+  }
+
+  /**
+   * Retira da fila o próximo processo pronto e altera o estado do processo para "Executando". Diferente de
+   * `pegaPronto`, a fila não guarda o processo enquanto ele executa, e ele deve ser devolvido com `inserePronto`.
+   *
+   * @return O próximo processo pronto, ou null se a fila estiver vazia.
+   */
+  public synchronized BCP retiraPronto(){
+    BCP temp = politica.remove();
+    if (temp != null) temp.setEstado(Estado.EXECUTANDO);
     return temp;
   }
 
   /**
-   * Após a execução de um processo, move-o para o final da fila de prontos e altera seu estado de "Executando" para "Pronto".
+   * Rouba um processo da fila de prontos, para que seja executado por outra CPU.
+   *
+   * @return O processo roubado, ou null se a fila estiver vazia.
    */
-  public void jogaFimDaFila(){
-    BCP temp;
-    temp = fila_prontos.peek();
+  public synchronized BCP roubaPronto(){
+    BCP temp = politica.rouba();
+    if (temp != null) temp.setEstado(Estado.EXECUTANDO);
+    return temp;
+  }
+
+  /**
+   * Obtém o quantum da próxima execução do processo, de acordo com a política.
+   *
+   * @param processo O processo que será executado.
+   * @param quantum O quantum configurado no escalonador.
+   * @return O quantum do processo.
+   */
+  public synchronized int getQuantum(BCP processo, int quantum){
+    return politica.getQuantum(processo, quantum);
+  }
+
+  /**
+   * Informa a política de que um processo acabou de ser executado.
+   *
+   * @param processo O processo executado.
+   * @param instrucoes O número de instruções executadas.
+   * @param motivo O motivo da parada, como em `Interpretador`.
+   */
+  public synchronized void executou(BCP processo, int instrucoes, int motivo){
+    politica.executou(processo, instrucoes, motivo);
+  }
+
+  /**
+   * Após a execução de um processo, devolve-o à fila de prontos e altera seu estado de "Executando" para "Pronto".
+   * Na política de rodízio ele vai para o fim da fila.
+   */
+  public synchronized void jogaFimDaFila(){
+    BCP temp = atual;
     if (temp != null) {
-      fila_prontos.poll();
+      atual = null;
       inserePronto(temp);
-      temp.setEstado("Pronto");
     }
   }
 
@@ -83,19 +170,38 @@ public class FilaProntos {
    * Quando há um comando de E/S, move o processo para a fila de bloqueados e altera seu estado para "Bloqueado".
    *
    * @param fila_bloq A fila de bloqueados onde o processo deve ser inserido.
+   * @param relogio O instante atual no relógio de despachos.
    */
-  public void entradaSaida(FilaBloq fila_bloq){
+  public void entradaSaida(FilaBloq fila_bloq, long relogio){
     BCP temp;
-    temp = fila_prontos.peek();
-    fila_prontos.poll();
-    fila_bloq.insereBloq(temp);
+    synchronized (this) {
+      temp = atual;
+      atual = null;
+    }
+    // A fila de bloqueados é acessada fora do bloqueio desta fila, pois ela mesma insere processos aqui
+    fila_bloq.insereBloq(temp, relogio);
+  }
+
+  /**
+   * Grava o estado da fila de prontos em um checkpoint. Deve ser chamado entre dois despachos, quando
+   * nenhum processo está em execução.
+   *
+   * @param saida O destino do checkpoint.
+   * @throws IOException Se não for possível gravar.
+   */
+  public synchronized void salva(DataOutputStream saida) throws IOException {
+    if (atual != null) throw new IllegalStateException("checkpoint com um processo em execução");
+    politica.salva(saida);
   }
 
   /**
-   * Exibe informações da fila de prontos, incluindo os nomes dos processos prontos. Este método é apenas para fins de visualização.
+   * Restaura, em uma fila vazia, o estado gravado por `salva`.
+   *
+   * @param entrada A origem do checkpoint.
+   * @param tabela A tabela de processos já restaurada.
+   * @throws IOException Se não for possível ler.
    */
-  public void printaFila(){
-   for(BCP x : fila_prontos)
-     System.out.println("Carregando " + x.getNome());
-  } 
-}
\ No newline at end of file
+  public synchronized void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    politica.restaura(entrada, tabela);
+  }
+}
@@ -0,0 +1,230 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A classe `FonteChegadas` recebe programas novos enquanto a simulação executa. Uma thread própria lê
+ * e compila cada programa e o coloca em uma fila concorrente; o laço de despacho do escalonador
+ * esvazia essa fila entre dois despachos e cria os processos na tabela, sem parar a simulação.
+ *
+ * Há duas origens:
+ *
+ * - a entrada padrão, com os programas no formato dos arquivos de programa separados por uma linha
+ *   em branco; a fonte termina no fim da entrada;
+ * - uma pasta observada: os arquivos ".txt" que já estão nela e os que forem criados depois (de
+ *   preferência movidos para a pasta já completos). A fonte termina quando um arquivo "FIM" aparece.
+ *
+ * Um programa sem "CHEGADA=n" chega no instante em que entra na tabela.
+ */
+
+public class FonteChegadas {
+  // Atributos
+
+  /**
+   * Nome do arquivo que encerra a observação de uma pasta.
+   */
+  public static final String ARQUIVO_FIM = "FIM";
+
+  /**
+   * Programas já compilados, esperando para entrar na tabela de processos.
+   */
+  private final LinkedBlockingQueue<Escalonador.ProgramaLido> fila = new LinkedBlockingQueue<>();
+
+  /**
+   * Indica que a origem terminou e nenhum programa novo será colocado na fila.
+   */
+  private volatile boolean terminada;
+
+  /**
+   * Número de programas recebidos, usado como identificador de arquivo de cada um.
+   */
+  private int recebidos;
+
+  // Construtores
+
+  /**
+   * Cria uma fonte que lê os programas da entrada padrão.
+   */
+  public FonteChegadas() {
+    this.inicia(() -> this.leEntrada(System.in), "chegadas-entrada");
+  }
+
+  /**
+   * Cria uma fonte que observa uma pasta.
+   *
+   * @param pasta A pasta observada.
+   */
+  public FonteChegadas(Path pasta) {
+    this.inicia(() -> this.observaPasta(pasta), "chegadas-" + pasta.getFileName());
+  }
+
+  // Métodos
+
+  /**
+   * Indica se a fonte terminou e todos os programas recebidos já foram retirados.
+   *
+   * @return true se nenhum programa novo vai chegar.
+   */
+  public boolean isTerminada() {
+    return this.terminada && this.fila.isEmpty();
+  }
+
+  /**
+   * Retira o próximo programa recebido, sem esperar.
+   *
+   * @return O programa, ou null se nenhum estiver esperando.
+   */
+  public Escalonador.ProgramaLido retira() {
+    return this.fila.poll();
+  }
+
+  /**
+   * Espera um pouco por um programa novo. Usado quando o escalonador não tem mais nada para executar.
+   *
+   * @return O programa, ou null se nenhum chegou (o escalonador verifica de novo se a fonte terminou).
+   */
+  public Escalonador.ProgramaLido aguarda() {
+    try {
+      return this.fila.poll(50, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  /**
+   * Inicia a thread de leitura.
+   */
+  private void inicia(Runnable leitura, String nome) {
+    Thread leitor = new Thread(() -> {
+      try {
+        leitura.run();
+      } finally {
+        this.terminada = true;
+      }
+    }, nome);
+    leitor.setDaemon(true);
+    leitor.start();
+  }
+
+  /**
+   * Lê programas separados por linhas em branco de uma entrada, até o fim dela.
+   *
+   * @param entrada A entrada.
+   */
+  private void leEntrada(InputStream entrada) {
+    ByteArrayOutputStream programa = new ByteArrayOutputStream();
+    ByteArrayOutputStream linha = new ByteArrayOutputStream();
+    try {
+      int b;
+      do {
+        b = entrada.read();
+        if (b >= 0 && b != '\n') {
+          linha.write(b);
+          continue;
+        }
+
+        // Fim de uma linha: uma linha em branco (ou o fim da entrada) encerra o programa
+        if (linha.toString().trim().isEmpty()) {
+          if (programa.size() > 0) this.recebe("entrada padrão", ByteBuffer.wrap(programa.toByteArray()));
+          programa.reset();
+        }
+        else {
+          linha.writeTo(programa);
+          programa.write('\n');
+        }
+        linha.reset();
+      } while (b >= 0);
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao ler os programas da entrada padrão.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Lê os programas de uma pasta e observa a criação de arquivos novos, até aparecer o arquivo `ARQUIVO_FIM`.
+   *
+   * @param pasta A pasta observada.
+   */
+  private void observaPasta(Path pasta) {
+    try (WatchService observador = pasta.getFileSystem().newWatchService()) {
+      // Registra a observação antes de listar a pasta, para não perder arquivos criados no meio
+      pasta.register(observador, StandardWatchEventKinds.ENTRY_CREATE);
+
+      List<Path> existentes = new ArrayList<>();
+      try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(pasta)) {
+        for (Path arquivo : arquivos) existentes.add(arquivo);
+      }
+      existentes.sort(null);
+      Set<Path> vistos = new HashSet<>(existentes);
+      boolean fim = false;
+      for (Path arquivo : existentes) fim |= this.leArquivo(arquivo);
+
+      while (!fim) {
+        WatchKey chave = observador.take();
+        for (WatchEvent<?> evento : chave.pollEvents()) {
+          if (evento.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+          Path arquivo = pasta.resolve((Path) evento.context());
+          if (vistos.contains(arquivo)) continue;  // Criado durante a listagem inicial
+          fim |= this.leArquivo(arquivo);
+        }
+        vistos.clear();
+        if (!chave.reset()) break;  // A pasta deixou de existir
+      }
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao observar a pasta " + pasta + ".");
+      e.printStackTrace();
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Lê um arquivo da pasta observada.
+   *
+   * @param arquivo O arquivo.
+   * @return true se for o arquivo que encerra a observação.
+   */
+  private boolean leArquivo(Path arquivo) {
+    String nome = arquivo.getFileName().toString();
+    if (nome.equals(ARQUIVO_FIM)) return true;
+    if (!nome.endsWith(".txt")) return false;
+
+    try {
+      this.recebe(arquivo.toString(), ByteBuffer.wrap(Files.readAllBytes(arquivo)));
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao ler o arquivo " + arquivo + ".");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  /**
+   * Compila um programa recebido e o coloca na fila. Um programa inválido é informado e descartado.
+   *
+   * @param origem A origem do programa, usada nas mensagens de erro.
+   * @param conteudo O conteúdo do programa.
+   */
+  private void recebe(String origem, ByteBuffer conteudo) {
+    try {
+      this.fila.add(Escalonador.lePrograma(origem, ++this.recebidos, conteudo));
+    } catch (IllegalArgumentException e) {
+      System.out.println("Programa inválido: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,321 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+
+/**
+ * A classe `GeradorCarga` gera programas sintéticos no mesmo formato dos arquivos da pasta "programas"
+ * (nome na primeira linha, depois instruções `X=`, `Y=`, `COM`, `E/S` e `SAIDA`), para testes de carga
+ * com muitos processos. O número de processos, a distribuição do tamanho dos programas, a probabilidade
+ * de E/S e a semente são configuráveis, e a mesma semente sempre gera os mesmos programas.
+ *
+ * Os programas são gerados um de cada vez: podem ser gravados em uma pasta sem que todos fiquem em
+ * memória, ou carregados direto na tabela de processos do escalonador, sem passar pelo disco.
+ */
+
+public class GeradorCarga {
+  // Atributos
+
+  /**
+   * Número de processos gerados.
+   */
+  private int processos = 10;
+
+  /**
+   * Tamanho mínimo de um programa, em instruções (incluindo o SAIDA final).
+   */
+  private int tamanho_minimo = 10;
+
+  /**
+   * Tamanho máximo de um programa, em instruções (incluindo o SAIDA final).
+   */
+  private int tamanho_maximo = 30;
+
+  /**
+   * Distribuição do tamanho dos programas: "fixa" (sempre o máximo), "uniforme" entre o mínimo e o
+   * máximo, ou "exponencial" com média no meio da faixa (muitos programas curtos e poucos longos).
+   */
+  private String distribuicao = "uniforme";
+
+  /**
+   * Probabilidade de cada instrução (exceto a última) ser uma E/S.
+   */
+  private double prob_es = 0.1;
+
+  /**
+   * Semente do gerador de números aleatórios.
+   */
+  private long semente = 42;
+
+  /**
+   * Quantum gravado no arquivo "quantum.txt" da pasta gerada.
+   */
+  private int quantum = 3;
+
+  // Métodos de Acesso
+
+  /**
+   * Define o número de processos gerados.
+   *
+   * @param processos O número de processos.
+   */
+  public void setProcessos(int processos) {
+    this.processos = processos;
+  }
+
+  /**
+   * Obtém o número de processos gerados.
+   *
+   * @return O número de processos.
+   */
+  public int getProcessos() {
+    return this.processos;
+  }
+
+  /**
+   * Define a faixa de tamanho dos programas.
+   *
+   * @param minimo O tamanho mínimo, em instruções (pelo menos 1).
+   * @param maximo O tamanho máximo, em instruções.
+   * @throws IllegalArgumentException Se a faixa for inválida.
+   */
+  public void setTamanho(int minimo, int maximo) {
+    if (minimo < 1 || maximo < minimo)
+      throw new IllegalArgumentException("tamanho inválido: " + minimo + " a " + maximo);
+    this.tamanho_minimo = minimo;
+    this.tamanho_maximo = maximo;
+  }
+
+  /**
+   * Define a distribuição do tamanho dos programas.
+   *
+   * @param distribuicao "fixa", "uniforme" ou "exponencial".
+   * @throws IllegalArgumentException Se o nome não corresponder a nenhuma distribuição.
+   */
+  public void setDistribuicao(String distribuicao) {
+    if (!distribuicao.equals("fixa") && !distribuicao.equals("uniforme") && !distribuicao.equals("exponencial"))
+      throw new IllegalArgumentException("distribuição desconhecida '" + distribuicao + "'");
+    this.distribuicao = distribuicao;
+  }
+
+  /**
+   * Define a probabilidade de cada instrução ser uma E/S.
+   *
+   * @param prob_es A probabilidade, entre 0 e 1.
+   * @throws IllegalArgumentException Se a probabilidade estiver fora do intervalo.
+   */
+  public void setProbES(double prob_es) {
+    if (prob_es < 0 || prob_es > 1) throw new IllegalArgumentException("probabilidade de E/S inválida: " + prob_es);
+    this.prob_es = prob_es;
+  }
+
+  /**
+   * Define a semente do gerador de números aleatórios.
+   *
+   * @param semente A semente.
+   */
+  public void setSemente(long semente) {
+    this.semente = semente;
+  }
+
+  /**
+   * Define o quantum gravado na pasta gerada.
+   *
+   * @param quantum O quantum.
+   */
+  public void setQuantum(int quantum) {
+    this.quantum = quantum;
+  }
+
+  /**
+   * Obtém o quantum da carga gerada.
+   *
+   * @return O quantum.
+   */
+  public int getQuantum() {
+    return this.quantum;
+  }
+
+  // Métodos
+
+  /**
+   * Lê uma opção do gerador na linha de comando. Usado pelo escalonador e pelo `main` desta classe,
+   * para que as opções sejam as mesmas nos dois.
+   *
+   * Opções aceitas: `--quantum Q`, `--tamanho MIN MAX`, `--distribuicao D`, `--prob-es P` e `--semente S`.
+   *
+   * @param args Os argumentos da linha de comando.
+   * @param i A posição da opção.
+   * @return A posição do último argumento consumido, ou -1 se a opção não for do gerador.
+   * @throws IllegalArgumentException Se o valor da opção for inválido.
+   */
+  public int leOpcao(String[] args, int i) {
+    if (args[i].equals("--quantum") && i + 1 < args.length) {
+      this.setQuantum(Integer.parseInt(args[i + 1]));
+      return i + 1;
+    }
+    if (args[i].equals("--tamanho") && i + 2 < args.length) {
+      this.setTamanho(Integer.parseInt(args[i + 1]), Integer.parseInt(args[i + 2]));
+      return i + 2;
+    }
+    if (args[i].equals("--distribuicao") && i + 1 < args.length) {
+      this.setDistribuicao(args[i + 1]);
+      return i + 1;
+    }
+    if (args[i].equals("--prob-es") && i + 1 < args.length) {
+      this.setProbES(Double.parseDouble(args[i + 1]));
+      return i + 1;
+    }
+    if (args[i].equals("--semente") && i + 1 < args.length) {
+      this.setSemente(Long.parseLong(args[i + 1]));
+      return i + 1;
+    }
+    return -1;
+  }
+
+  /**
+   * Obtém o nome do programa de número especificado.
+   *
+   * @param numero O número do programa, a partir de 1.
+   * @return O nome do programa.
+   */
+  public static String nome(int numero) {
+    return "TESTE-" + numero;
+  }
+
+  /**
+   * Sorteia o tamanho do próximo programa de acordo com a distribuição configurada.
+   *
+   * @param aleatorio O gerador de números aleatórios.
+   * @return O tamanho do programa, em instruções.
+   */
+  private int sorteiaTamanho(SplittableRandom aleatorio) {
+    switch (this.distribuicao) {
+      case "fixa":
+        return this.tamanho_maximo;
+      case "exponencial":
+        double media = (this.tamanho_minimo + this.tamanho_maximo) / 2.0 - this.tamanho_minimo;
+        long tamanho = this.tamanho_minimo + Math.round(-media * Math.log(1 - aleatorio.nextDouble()));
+        return (int) Math.min(tamanho, this.tamanho_maximo);
+      default:
+        return aleatorio.nextInt(this.tamanho_minimo, this.tamanho_maximo + 1);
+    }
+  }
+
+  /**
+   * Gera o próximo programa. As instruções são codificadas direto, sem passar por texto.
+   *
+   * @param aleatorio O gerador de números aleatórios da carga.
+   * @return O programa gerado.
+   */
+  private Programa proximo(SplittableRandom aleatorio) {
+    long[] instrucoes = new long[this.sorteiaTamanho(aleatorio)];
+
+    for (int i = 0; i < instrucoes.length - 1; i++) {
+      double sorteio = aleatorio.nextDouble();
+      if (sorteio < this.prob_es) instrucoes[i] = Programa.codifica(Programa.OP_ES, 0);
+      else if (sorteio < this.prob_es + (1 - this.prob_es) * 0.1) instrucoes[i] = Programa.codifica(Programa.OP_X, aleatorio.nextInt(100));
+      else if (sorteio < this.prob_es + (1 - this.prob_es) * 0.2) instrucoes[i] = Programa.codifica(Programa.OP_Y, aleatorio.nextInt(100));
+      else instrucoes[i] = Programa.codifica(Programa.OP_COM, 0);
+    }
+    instrucoes[instrucoes.length - 1] = Programa.codifica(Programa.OP_SAIDA, 0);
+
+    return new Programa(instrucoes);
+  }
+
+  /**
+   * Gera a carga direto em uma tabela de processos, sem passar pelo disco.
+   *
+   * @return A tabela com os processos gerados, na ordem dos números dos programas.
+   */
+  public TabelaDeProcessos gerarTabela() {
+    return this.gerarTabela(new InternadorProgramas());
+  }
+
+  /**
+   * Gera a carga direto em uma tabela de processos, sem passar pelo disco. Os programas gerados com
+   * as mesmas instruções (comuns com programas curtos) compartilham um único `Programa`.
+   *
+   * @param internador O internador dos programas gerados.
+   * @return A tabela com os processos gerados, na ordem dos números dos programas.
+   */
+  public TabelaDeProcessos gerarTabela(InternadorProgramas internador) {
+    SplittableRandom aleatorio = new SplittableRandom(this.semente);
+    TabelaDeProcessos tabela = new TabelaDeProcessos(this.processos);
+
+    for (int i = 1; i <= this.processos; i++) {
+      tabela.novoProcesso(nome(i), i, internador.interna(this.proximo(aleatorio)));
+    }
+
+    return tabela;
+  }
+
+  /**
+   * Grava a carga em uma pasta, no formato da pasta "programas": um arquivo "NN.txt" por programa e o
+   * arquivo "quantum.txt". Cada programa é gravado assim que é gerado, então a memória usada não
+   * depende do número de processos.
+   *
+   * @param pasta A pasta de destino (criada se não existir).
+   * @throws IOException Se não for possível gravar algum arquivo.
+   */
+  public void gravar(File pasta) throws IOException {
+    pasta.mkdirs();
+    Files.writeString(new File(pasta, "quantum.txt").toPath(), this.quantum + System.lineSeparator());
+
+    SplittableRandom aleatorio = new SplittableRandom(this.semente);
+    for (int i = 1; i <= this.processos; i++) {
+      Programa programa = this.proximo(aleatorio);
+      File arquivo = new File(pasta, String.format("%02d.txt", i));
+
+      try (BufferedWriter writer = Files.newBufferedWriter(arquivo.toPath(), StandardCharsets.UTF_8)) {
+        writer.write(nome(i));
+        writer.newLine();
+        for (int pc = 0; pc < programa.getTamanho(); pc++) {
+          writer.write(programa.getTexto(pc));
+          writer.newLine();
+        }
+      }
+    }
+  }
+
+  /**
+   * Grava uma carga sintética em uma pasta, para ser lida depois pelo escalonador.
+   *
+   * Uso: `java GeradorCarga PASTA PROCESSOS [--quantum Q] [--tamanho MIN MAX] [--distribuicao D]
+   * [--prob-es P] [--semente S]`.
+   *
+   * @param args Os argumentos da linha de comando.
+   */
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      System.out.println("Uso: java GeradorCarga PASTA PROCESSOS [--quantum Q] [--tamanho MIN MAX] "
+                         + "[--distribuicao fixa|uniforme|exponencial] [--prob-es P] [--semente S]");
+      return;
+    }
+
+    GeradorCarga gerador = new GeradorCarga();
+    try {
+      gerador.setProcessos(Integer.parseInt(args[1]));
+      for (int i = 2; i < args.length; i++) {
+        int proximo = gerador.leOpcao(args, i);
+        if (proximo < 0) {
+          System.out.println("Opção desconhecida: " + args[i]);
+          return;
+        }
+        i = proximo;
+      }
+    } catch (IllegalArgumentException e) {
+      System.out.println("Opção inválida: " + e.getMessage());
+      return;
+    }
+
+    try {
+      gerador.gravar(new File(args[0]));
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao gravar os programas.");
+      e.printStackTrace();
+    }
+  }
+}
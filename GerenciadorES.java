@@ -0,0 +1,155 @@
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A classe `GerenciadorES` atende as operações de E/S dos processos em dispositivos simulados (veja
+ * `DispositivoES`), no lugar da latência fixa da fila de bloqueados.
+ *
+ * O tempo de atendimento de cada operação é sorteado no pedido, na própria thread do laço de despacho:
+ * ele só depende da semente do dispositivo e do número da operação (veja `DispositivoES.sorteiaDuracao`),
+ * então a simulação é determinística sem nenhuma troca de dados entre threads. Uma operação só começa a
+ * ser atendida quando o dispositivo tem capacidade livre; a partir daí o processo entra no heap da fila
+ * de bloqueados com o instante de término, como na latência fixa.
+ *
+ * Os métodos são chamados com a fila de bloqueados travada.
+ */
+
+public class GerenciadorES {
+  // Atributos
+
+  /**
+   * Dispositivos, na ordem em que foram definidos. A instrução "E/S=n" usa o dispositivo n.
+   */
+  private final List<DispositivoES> dispositivos;
+
+  /**
+   * Operação de E/S pendente de cada processo bloqueado, pelo id do processo.
+   */
+  private final HashMap<Integer, Requisicao> pendentes = new HashMap<>();
+
+  // Construtor
+
+  /**
+   * Cria um gerenciador para os dispositivos especificados.
+   *
+   * @param dispositivos Os dispositivos, na ordem usada pela instrução "E/S=n".
+   */
+  public GerenciadorES(List<DispositivoES> dispositivos) {
+    if (dispositivos.isEmpty()) throw new IllegalArgumentException("nenhum dispositivo de E/S definido");
+    this.dispositivos = dispositivos;
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o número de processos com uma operação de E/S pendente, na fila de algum dispositivo ou em atendimento.
+   *
+   * @return O número de processos bloqueados.
+   */
+  public int getPendentes() {
+    return this.pendentes.size();
+  }
+
+  /**
+   * Obtém a especificação dos dispositivos, separadas por vírgula, na ordem em que foram definidos.
+   *
+   * @return As especificações dos dispositivos.
+   */
+  public String getEspecificacao() {
+    StringBuilder sb = new StringBuilder();
+    for (DispositivoES dispositivo : this.dispositivos) {
+      if (sb.length() > 0) sb.append(',');
+      sb.append(dispositivo.getEspecificacao());
+    }
+    return sb.toString();
+  }
+
+  // Métodos
+
+  /**
+   * Pede uma operação de E/S para um processo que acabou de executar a instrução "E/S". O dispositivo
+   * é o do operando da instrução ("E/S=n"; módulo o número de dispositivos). A operação começa a ser
+   * atendida agora, se o dispositivo tiver capacidade livre.
+   *
+   * @param processo O processo, com o PC na instrução de E/S.
+   * @param relogio O instante atual no relógio de despachos.
+   * @param heap O heap da fila de bloqueados.
+   */
+  public void solicita(BCP processo, long relogio, HeapProcessos heap) {
+    int numero = Math.floorMod(Programa.operando(processo.getInstrucao()), this.dispositivos.size());
+    DispositivoES dispositivo = this.dispositivos.get(numero);
+
+    Requisicao requisicao = new Requisicao(processo, dispositivo, dispositivo.sorteiaDuracao(dispositivo.pedidas++), relogio);
+    this.pendentes.put(processo.getId(), requisicao);
+    dispositivo.fila.add(requisicao);
+
+    this.inicia(dispositivo, relogio, heap);
+  }
+
+  /**
+   * Conclui a operação de E/S de um processo liberado da fila de bloqueados, liberando a capacidade do dispositivo.
+   *
+   * @param processo O processo liberado.
+   * @param relogio O instante atual no relógio de despachos.
+   * @return O tempo que o processo ficou bloqueado, desde o despacho da E/S.
+   */
+  public long conclui(BCP processo, long relogio) {
+    Requisicao requisicao = this.pendentes.remove(processo.getId());
+    DispositivoES dispositivo = requisicao.dispositivo;
+    dispositivo.em_servico--;
+    dispositivo.ocupado += requisicao.duracao;
+    return Math.max(relogio - requisicao.pedido - 1, 0);
+  }
+
+  /**
+   * Começa o atendimento das operações que esperam dispositivos com capacidade livre.
+   *
+   * @param relogio O instante atual no relógio de despachos.
+   * @param heap O heap da fila de bloqueados.
+   */
+  public void iniciaFilas(long relogio, HeapProcessos heap) {
+    for (DispositivoES dispositivo : this.dispositivos) this.inicia(dispositivo, relogio, heap);
+  }
+
+  /**
+   * Escreve uma linha por dispositivo no relatório da simulação.
+   *
+   * @param log O log da simulação.
+   * @param relogio A duração da simulação, no relógio de despachos.
+   */
+  public void relatorio(SaidaLog log, long relogio) {
+    for (DispositivoES dispositivo : this.dispositivos) dispositivo.relatorio(log, relogio);
+  }
+
+  /**
+   * Começa o atendimento das operações da fila de um dispositivo enquanto houver capacidade livre.
+   */
+  private void inicia(DispositivoES dispositivo, long relogio, HeapProcessos heap) {
+    while (dispositivo.em_servico < dispositivo.getCapacidade() && !dispositivo.fila.isEmpty()) {
+      Requisicao requisicao = dispositivo.fila.poll();
+      dispositivo.em_servico++;
+      dispositivo.espera.registra(relogio - requisicao.pedido);
+
+      // O processo entra no heap com o instante de término do atendimento
+      requisicao.processo.setDespertar(relogio + requisicao.duracao);
+      heap.insere(requisicao.processo, requisicao.processo.getDespertar());
+    }
+  }
+
+  /**
+   * Uma operação de E/S de um processo, com o tempo de atendimento já sorteado.
+   */
+  static final class Requisicao {
+    final BCP processo;
+    final DispositivoES dispositivo;
+    final int duracao;
+    final long pedido;
+
+    Requisicao(BCP processo, DispositivoES dispositivo, int duracao, long pedido) {
+      this.processo = processo;
+      this.dispositivo = dispositivo;
+      this.duracao = duracao;
+      this.pedido = pedido;
+    }
+  }
+}
@@ -0,0 +1,206 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A classe `HeapProcessos` é um heap mínimo de processos ordenado por uma chave numérica (por exemplo,
+ * o instante de término da E/S ou o número de instruções restantes). Processos com a mesma chave saem
+ * na ordem em que entraram, o que torna a ordem de remoção determinística. Inserir e remover custam
+ * O(log n) e não alocam objetos, a não ser quando o heap precisa crescer.
+ */
+
+public class HeapProcessos {
+  // Atributos
+
+  /**
+   * Processos do heap.
+   */
+  private BCP[] processos = new BCP[16];
+
+  /**
+   * Chave de cada posição do heap.
+   */
+  private long[] chaves = new long[16];
+
+  /**
+   * Ordem de entrada de cada posição do heap, usada para desempate.
+   */
+  private long[] ordem = new long[16];
+
+  /**
+   * Número de processos no heap.
+   */
+  private int tamanho;
+
+  /**
+   * Contador de inserções, usado para dar a cada processo sua ordem de entrada.
+   */
+  private long n_insercoes;
+
+  // Métodos
+
+  /**
+   * Obtém o número de processos no heap.
+   *
+   * @return O número de processos.
+   */
+  public int getTamanho() {
+    return this.tamanho;
+  }
+
+  /**
+   * Insere um processo no heap com a chave especificada.
+   *
+   * @param processo O processo a ser inserido.
+   * @param chave A chave de ordenação do processo.
+   */
+  public void insere(BCP processo, long chave) {
+    if (this.tamanho == this.processos.length) {
+      this.processos = Arrays.copyOf(this.processos, this.tamanho * 2);
+      this.chaves = Arrays.copyOf(this.chaves, this.tamanho * 2);
+      this.ordem = Arrays.copyOf(this.ordem, this.tamanho * 2);
+    }
+
+    // Insere no fim do heap e sobe até a posição correta
+    int i = this.tamanho++;
+    this.processos[i] = processo;
+    this.chaves[i] = chave;
+    this.ordem[i] = this.n_insercoes++;
+    while (i > 0) {
+      int pai = (i - 1) / 2;
+      if (!this.antes(i, pai)) break;
+      this.troca(i, pai);
+      i = pai;
+    }
+  }
+
+  /**
+   * Obtém o processo de menor chave, sem removê-lo.
+   *
+   * @return O processo do topo, ou null se o heap estiver vazio.
+   */
+  public BCP topo() {
+    return this.tamanho > 0 ? this.processos[0] : null;
+  }
+
+  /**
+   * Obtém a menor chave do heap.
+   *
+   * @return A chave do topo, ou -1 se o heap estiver vazio.
+   */
+  public long chaveTopo() {
+    return this.tamanho > 0 ? this.chaves[0] : -1;
+  }
+
+  /**
+   * Obtém o processo em uma posição qualquer do heap (a ordem das posições não é a ordem de remoção).
+   *
+   * @param i A posição no heap.
+   * @return O processo na posição.
+   */
+  public BCP get(int i) {
+    return this.processos[i];
+  }
+
+  /**
+   * Obtém a chave de uma posição qualquer do heap.
+   *
+   * @param i A posição no heap.
+   * @return A chave na posição.
+   */
+  public long getChave(int i) {
+    return this.chaves[i];
+  }
+
+  /**
+   * Remove o processo de menor chave.
+   *
+   * @return O processo removido, ou null se o heap estiver vazio.
+   */
+  public BCP remove() {
+    if (this.tamanho == 0) return null;
+
+    BCP topo = this.processos[0];
+    int ultimo = --this.tamanho;
+    this.processos[0] = this.processos[ultimo];
+    this.chaves[0] = this.chaves[ultimo];
+    this.ordem[0] = this.ordem[ultimo];
+    this.processos[ultimo] = null;
+
+    // Desce o elemento movido até a posição correta
+    int i = 0;
+    while (true) {
+      int menor = i;
+      int esq = 2 * i + 1, dir = esq + 1;
+      if (esq < this.tamanho && this.antes(esq, menor)) menor = esq;
+      if (dir < this.tamanho && this.antes(dir, menor)) menor = dir;
+      if (menor == i) break;
+      this.troca(i, menor);
+      i = menor;
+    }
+    return topo;
+  }
+
+  /**
+   * Verifica se o processo na posição `a` do heap deve sair antes do processo na posição `b`.
+   */
+  private boolean antes(int a, int b) {
+    if (this.chaves[a] != this.chaves[b]) return this.chaves[a] < this.chaves[b];
+    return this.ordem[a] < this.ordem[b];
+  }
+
+  /**
+   * Troca duas posições do heap.
+   */
+  private void troca(int a, int b) {
+    BCP tempProcesso = this.processos[a];
+    this.processos[a] = this.processos[b];
+    this.processos[b] = tempProcesso;
+    long tempChave = this.chaves[a];
+    this.chaves[a] = this.chaves[b];
+    this.chaves[b] = tempChave;
+    long tempOrdem = this.ordem[a];
+    this.ordem[a] = this.ordem[b];
+    this.ordem[b] = tempOrdem;
+  }
+
+  /**
+   * Grava o heap em um checkpoint, na ordem interna do vetor, com as chaves e a ordem de inserção,
+   * para que a restauração produza exatamente o mesmo heap.
+   *
+   * @param saida O destino do checkpoint.
+   * @throws IOException Se não for possível gravar.
+   */
+  public void salva(DataOutputStream saida) throws IOException {
+    saida.writeInt(this.tamanho);
+    saida.writeLong(this.n_insercoes);
+    for (int i = 0; i < this.tamanho; i++) {
+      saida.writeInt(this.processos[i].getId());
+      saida.writeLong(this.chaves[i]);
+      saida.writeLong(this.ordem[i]);
+    }
+  }
+
+  /**
+   * Restaura o heap gravado por `salva`, substituindo o conteúdo atual.
+   *
+   * @param entrada A origem do checkpoint.
+   * @param tabela A tabela de processos já restaurada.
+   * @throws IOException Se não for possível ler.
+   */
+  public void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    int tamanho = entrada.readInt();
+    int capacidade = Math.max(16, tamanho);
+    this.processos = new BCP[capacidade];
+    this.chaves = new long[capacidade];
+    this.ordem = new long[capacidade];
+    this.tamanho = tamanho;
+    this.n_insercoes = entrada.readLong();
+    for (int i = 0; i < tamanho; i++) {
+      this.processos[i] = tabela.getBCP(entrada.readInt());
+      this.chaves[i] = entrada.readLong();
+      this.ordem[i] = entrada.readLong();
+    }
+  }
+}
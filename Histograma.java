@@ -0,0 +1,144 @@
+/**
+ * A classe `Histograma` acumula uma distribuição de valores inteiros não negativos em faixas de
+ * tamanho fixo, sem guardar os valores. Os valores abaixo de 64 têm uma faixa cada; acima disso,
+ * cada potência de 2 é dividida em 32 faixas, então um percentil calculado pelo histograma erra no
+ * máximo cerca de 3% para cima. Registrar um valor custa poucas operações e não aloca memória.
+ */
+
+public class Histograma {
+  // Faixas
+
+  /**
+   * Número de bits das subfaixas de cada potência de 2 (32 subfaixas).
+   */
+  private static final int BITS_SUBFAIXA = 5;
+
+  /**
+   * Valores abaixo deste limite têm uma faixa cada.
+   */
+  private static final int LIMITE_EXATO = 2 << BITS_SUBFAIXA;
+
+  /**
+   * Número total de faixas, suficiente para qualquer valor `long` não negativo.
+   */
+  private static final int NUM_FAIXAS = LIMITE_EXATO + (63 - BITS_SUBFAIXA - 1) * (1 << BITS_SUBFAIXA);
+
+  // Atributos
+
+  /**
+   * Número de valores registrados em cada faixa.
+   */
+  private final long[] contagem = new long[NUM_FAIXAS];
+
+  /**
+   * Número de valores registrados.
+   */
+  private long total;
+
+  /**
+   * Soma dos valores registrados.
+   */
+  private long soma;
+
+  /**
+   * Maior valor registrado.
+   */
+  private long maximo;
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o número de valores registrados.
+   *
+   * @return O número de valores.
+   */
+  public long getTotal() {
+    return this.total;
+  }
+
+  /**
+   * Obtém o maior valor registrado.
+   *
+   * @return O maior valor, ou 0 se nenhum valor foi registrado.
+   */
+  public long getMaximo() {
+    return this.maximo;
+  }
+
+  /**
+   * Obtém a média exata dos valores registrados.
+   *
+   * @return A média, ou 0 se nenhum valor foi registrado.
+   */
+  public double getMedia() {
+    return this.total == 0 ? 0 : (double) this.soma / this.total;
+  }
+
+  // Métodos
+
+  /**
+   * Registra um valor. Valores negativos são registrados como 0.
+   *
+   * @param valor O valor.
+   */
+  public void registra(long valor) {
+    valor = Math.max(valor, 0);
+    this.contagem[faixa(valor)]++;
+    this.total++;
+    this.soma += valor;
+    if (valor > this.maximo) this.maximo = valor;
+  }
+
+  /**
+   * Acrescenta a este histograma os valores registrados em outro.
+   *
+   * @param outro O outro histograma.
+   */
+  public void combina(Histograma outro) {
+    for (int i = 0; i < NUM_FAIXAS; i++) this.contagem[i] += outro.contagem[i];
+    this.total += outro.total;
+    this.soma += outro.soma;
+    this.maximo = Math.max(this.maximo, outro.maximo);
+  }
+
+  /**
+   * Calcula um percentil: o limite superior da faixa que contém o valor dessa posição, limitado ao
+   * maior valor registrado.
+   *
+   * @param percentil O percentil, de 0 a 100.
+   * @return O valor do percentil, ou 0 se nenhum valor foi registrado.
+   */
+  public long percentil(double percentil) {
+    if (this.total == 0) return 0;
+
+    long posicao = Math.max(1, (long) Math.ceil(percentil / 100 * this.total));
+    long acumulado = 0;
+    for (int i = 0; i < NUM_FAIXAS; i++) {
+      acumulado += this.contagem[i];
+      if (acumulado >= posicao) return Math.min(limiteSuperior(i), this.maximo);
+    }
+    return this.maximo;
+  }
+
+  /**
+   * Obtém a faixa de um valor não negativo.
+   */
+  private static int faixa(long valor) {
+    if (valor < LIMITE_EXATO) return (int) valor;
+    int expoente = 63 - Long.numberOfLeadingZeros(valor);  // Pelo menos BITS_SUBFAIXA + 1
+    int deslocamento = expoente - BITS_SUBFAIXA;
+    return LIMITE_EXATO + (expoente - BITS_SUBFAIXA - 1) * (1 << BITS_SUBFAIXA)
+           + (int) (valor >>> deslocamento) - (1 << BITS_SUBFAIXA);
+  }
+
+  /**
+   * Obtém o maior valor que cai em uma faixa.
+   */
+  private static long limiteSuperior(int faixa) {
+    if (faixa < LIMITE_EXATO) return faixa;
+    int expoente = (faixa - LIMITE_EXATO) / (1 << BITS_SUBFAIXA) + BITS_SUBFAIXA + 1;
+    int deslocamento = expoente - BITS_SUBFAIXA;
+    long inicio = ((long) ((faixa - LIMITE_EXATO) % (1 << BITS_SUBFAIXA) + (1 << BITS_SUBFAIXA))) << deslocamento;
+    return inicio + (1L << deslocamento) - 1;
+  }
+}
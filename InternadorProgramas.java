@@ -0,0 +1,85 @@
+import java.util.HashMap;
+
+/**
+ * A classe `InternadorProgramas` faz com que programas de conteúdo idêntico compartilhem um único
+ * objeto `Programa`. Como o programa é imutável e os registradores e o PC de cada processo ficam na
+ * tabela de processos, muitos processos podem executar o mesmo código sem interferir uns nos outros.
+ *
+ * Os programas são comparados pelo conteúdo das instruções (veja `Programa.hashCode`), então um
+ * programa só é comparado instrução a instrução com os que têm o mesmo hash.
+ */
+
+public class InternadorProgramas {
+  // Atributos
+
+  /**
+   * Programa único de cada conteúdo já visto.
+   */
+  private final HashMap<Programa, Programa> unicos = new HashMap<>();
+
+  /**
+   * Número de programas internados, repetidos ou não.
+   */
+  private int total;
+
+  /**
+   * Bytes de instruções que deixaram de ser guardados por causa dos programas repetidos.
+   */
+  private long bytes_economizados;
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o número de programas internados, repetidos ou não.
+   *
+   * @return O número de programas.
+   */
+  public int getTotal() {
+    return this.total;
+  }
+
+  /**
+   * Obtém o número de programas de conteúdo diferente.
+   *
+   * @return O número de programas únicos.
+   */
+  public int getUnicos() {
+    return this.unicos.size();
+  }
+
+  /**
+   * Obtém o número de bytes de instruções economizados com os programas repetidos.
+   *
+   * @return Os bytes economizados.
+   */
+  public long getBytesEconomizados() {
+    return this.bytes_economizados;
+  }
+
+  // Métodos
+
+  /**
+   * Obtém o programa único com o mesmo conteúdo de um programa.
+   *
+   * @param programa O programa.
+   * @return O programa já visto com o mesmo conteúdo, ou o próprio programa se for o primeiro.
+   */
+  public Programa interna(Programa programa) {
+    this.total++;
+    Programa existente = this.unicos.putIfAbsent(programa, programa);
+    if (existente == null) return programa;
+
+    this.bytes_economizados += 8L * programa.getTamanho();
+    return existente;
+  }
+
+  /**
+   * Resume o compartilhamento dos programas, no formato "100 programas, 12 únicos (35.2 KB economizados)".
+   *
+   * @return O resumo.
+   */
+  public String resumo() {
+    return String.format("%d programas, %d únicos (%.1f KB economizados)",
+                         this.total, this.getUnicos(), this.bytes_economizados / 1024.0);
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * A classe `Interpretador` executa as instruções compiladas de um processo diretamente sobre os
+ * vetores da `TabelaDeProcessos`. Ela não conhece filas nem log: executa no máximo o número de
+ * instruções pedido e informa quantas executou e por que parou, para que o escalonador (de uma ou
+ * de várias CPUs) decida o destino do processo.
+ *
+ * As sequências de "COM" são executadas em um único passo (veja `Programa.comandosSeguidos`), e o
+ * número de instruções informado é o mesmo da execução de uma instrução por vez.
+ * Cada salto ("JMP", "JZ", "JNZ", "LOOP") conta como uma instrução executada, então um laço também
+ * é interrompido no fim do quantum e continua no próximo despacho.
+ *
+ * O resultado é devolvido em um único `long`, com o motivo da parada nos 32 bits altos e o número
+ * de instruções executadas nos 32 bits baixos, para que o laço de despacho não aloque objetos.
+ */
+
+public class Interpretador {
+  // Motivos de parada
+
+  /**
+   * O processo executou todas as instruções permitidas pelo quantum.
+   */
+  public static final int FIM_QUANTUM = 0;
+
+  /**
+   * O processo executou uma instrução de E/S e deve ser bloqueado. O PC continua apontando para a
+   * instrução de E/S e só avança quando o processo é liberado.
+   */
+  public static final int ENTRADA_SAIDA = 1;
+
+  /**
+   * O processo executou a instrução SAIDA e terminou.
+   */
+  public static final int SAIDA = 2;
+
+  /**
+   * Classe utilitária, não deve ser instanciada.
+   */
+  private Interpretador() {
+  }
+
+  /**
+   * Executa até `maximo` instruções do processo especificado.
+   *
+   * @param tabela A tabela de processos onde estão os registradores do processo.
+   * @param id O identificador do processo.
+   * @param maximo O número máximo de instruções a executar (o quantum).
+   * @return O motivo da parada e o número de instruções executadas, codificados em um `long`.
+   */
+  public static long executa(TabelaDeProcessos tabela, int id, int maximo) {
+    Programa programa = tabela.programa[id];
+    int pc = tabela.pc[id];
+    int x = tabela.x[id], y = tabela.y[id];  // Os registradores ficam em variáveis locais durante os laços
+    int executadas = 0;
+    int motivo = FIM_QUANTUM;
+
+    while (executadas < maximo) {
+      long instrucao = programa.getInstrucao(pc);
+      int opcode = Programa.opcode(instrucao);
+
+      // Sequência de "COM": executa de uma vez todas as que cabem no que resta do quantum
+      if (opcode == Programa.OP_COM) {
+        int comandos = Math.min(Programa.comandosSeguidos(instrucao), maximo - executadas);
+        executadas += comandos;
+        pc += comandos;
+        continue;
+      }
+
+      executadas++;
+      if (opcode == Programa.OP_ES) {
+        motivo = ENTRADA_SAIDA;
+        break;
+      }
+      if (opcode == Programa.OP_SAIDA) {
+        motivo = SAIDA;
+        break;
+      }
+
+      switch (opcode) {
+        // Caso o comando seja "X="
+        case Programa.OP_X:
+          x = Programa.operando(instrucao);
+          break;
+
+        // Caso o comando seja "Y="
+        case Programa.OP_Y:
+          y = Programa.operando(instrucao);
+          break;
+
+        // Caso o comando seja "X+=" ou "X-="
+        case Programa.OP_SOMA_X:
+          x += Programa.operando(instrucao);
+          break;
+
+        // Caso o comando seja "Y+=" ou "Y-="
+        case Programa.OP_SOMA_Y:
+          y += Programa.operando(instrucao);
+          break;
+
+        // Saltos: o PC vai direto para o destino
+        case Programa.OP_JMP:
+          pc = Programa.operando(instrucao);
+          continue;
+
+        case Programa.OP_JZ_X:
+          if (x == 0) { pc = Programa.operando(instrucao); continue; }
+          break;
+
+        case Programa.OP_JZ_Y:
+          if (y == 0) { pc = Programa.operando(instrucao); continue; }
+          break;
+
+        case Programa.OP_JNZ_X:
+          if (x != 0) { pc = Programa.operando(instrucao); continue; }
+          break;
+
+        case Programa.OP_JNZ_Y:
+          if (y != 0) { pc = Programa.operando(instrucao); continue; }
+          break;
+
+        // Laço: conta no registrador e volta ao destino até ele chegar a zero
+        case Programa.OP_LOOP_X:
+          if (--x != 0) { pc = Programa.operando(instrucao); continue; }
+          break;
+
+        case Programa.OP_LOOP_Y:
+          if (--y != 0) { pc = Programa.operando(instrucao); continue; }
+          break;
+      }
+
+      pc++;  // Avança o Program Counter do processo
+    }
+
+    tabela.pc[id] = pc;
+    tabela.x[id] = x;
+    tabela.y[id] = y;
+    return resultado(motivo, executadas);
+  }
+
+  /**
+   * Codifica o resultado de uma execução.
+   *
+   * @param motivo O motivo da parada.
+   * @param executadas O número de instruções executadas.
+   * @return O resultado codificado.
+   */
+  public static long resultado(int motivo, int executadas) {
+    return ((long) motivo << 32) | (executadas & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Obtém o motivo da parada a partir do resultado de uma execução.
+   *
+   * @param resultado O resultado codificado.
+   * @return O motivo da parada.
+   */
+  public static int motivo(long resultado) {
+    return (int) (resultado >>> 32);
+  }
+
+  /**
+   * Obtém o número de instruções executadas a partir do resultado de uma execução.
+   *
+   * @param resultado O resultado codificado.
+   * @return O número de instruções executadas.
+   */
+  public static int executadas(long resultado) {
+    return (int) resultado;
+  }
+}
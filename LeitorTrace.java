@@ -0,0 +1,303 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A classe `LeitorTrace` lê um trace binário gravado por `TraceBinario`, um evento de cada vez, sem
+ * carregar o arquivo inteiro na memória. Só os nomes dos processos ficam guardados, para que os
+ * despachos possam ser exibidos com o nome.
+ *
+ * Como ferramenta de linha de comando, reconstrói o log em texto, idêntico ao `logNN.txt` da mesma
+ * execução, ou lista apenas os eventos que atendem a um filtro:
+ *
+ *     java LeitorTrace logs/log03.trc
+ *     java LeitorTrace logs/log03.trc --processo TESTE-3
+ *     java LeitorTrace logs/log03.trc --es 100 200
+ */
+
+public class LeitorTrace implements Closeable {
+  // Atributos
+
+  /**
+   * Arquivo de trace, lido em sequência.
+   */
+  private final InputStream entrada;
+
+  /**
+   * Nomes dos processos carregados, indexados pelo id.
+   */
+  private String[] nomes = new String[16];
+
+  // Evento atual
+
+  private int tipo;
+  private int cpu;
+  private int id;
+  private long instante;
+  private int instrucoes;
+  private int x;
+  private int y;
+  private String texto;
+
+  // Construtor
+
+  /**
+   * Abre um arquivo de trace.
+   *
+   * @param arquivo O arquivo de trace.
+   * @throws IOException Se não for possível ler o arquivo ou se ele não for um trace.
+   */
+  public LeitorTrace(Path arquivo) throws IOException {
+    this.entrada = new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16);
+
+    byte[] assinatura = this.entrada.readNBytes(TraceBinario.ASSINATURA.length);
+    if (!Arrays.equals(assinatura, TraceBinario.ASSINATURA)) {
+      this.entrada.close();
+      throw new IOException(arquivo + " não é um arquivo de trace");
+    }
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o tipo do evento atual (veja as constantes de `TraceBinario`).
+   *
+   * @return O tipo do evento.
+   */
+  public int getTipo() {
+    return this.tipo;
+  }
+
+  /**
+   * Indica se o evento atual é um despacho.
+   *
+   * @return true para os eventos `FIM_QUANTUM`, `ENTRADA_SAIDA` e `SAIDA`.
+   */
+  public boolean isDespacho() {
+    return this.tipo == TraceBinario.FIM_QUANTUM || this.tipo == TraceBinario.ENTRADA_SAIDA
+           || this.tipo == TraceBinario.SAIDA;
+  }
+
+  /**
+   * Obtém a CPU do evento atual.
+   *
+   * @return A CPU, ou `SaidaLog.SEM_CPU` na simulação com uma única CPU.
+   */
+  public int getCPU() {
+    return this.cpu;
+  }
+
+  /**
+   * Obtém o id do processo do evento atual.
+   *
+   * @return O id do processo.
+   */
+  public int getId() {
+    return this.id;
+  }
+
+  /**
+   * Obtém o nome do processo do evento atual.
+   *
+   * @return O nome do processo.
+   */
+  public String getNome() {
+    return this.nomes[this.id];
+  }
+
+  /**
+   * Obtém o instante do despacho atual no relógio de despachos.
+   *
+   * @return O instante.
+   */
+  public long getInstante() {
+    return this.instante;
+  }
+
+  /**
+   * Obtém o número de instruções executadas no despacho atual.
+   *
+   * @return O número de instruções.
+   */
+  public int getInstrucoes() {
+    return this.instrucoes;
+  }
+
+  /**
+   * Obtém o texto do evento `TEXTO` atual.
+   *
+   * @return O texto.
+   */
+  public String getTexto() {
+    return this.texto;
+  }
+
+  // Métodos
+
+  /**
+   * Lê o próximo evento.
+   *
+   * @return false se o arquivo tiver terminado.
+   * @throws IOException Se não for possível ler o arquivo ou se ele estiver corrompido.
+   */
+  public boolean proximo() throws IOException {
+    int primeiro = this.entrada.read();
+    if (primeiro < 0) return false;
+    this.tipo = primeiro;
+
+    switch (this.tipo) {
+      case TraceBinario.CARREGANDO:
+        this.cpu = (int) this.varint() - 1;
+        this.id = (int) this.varint();
+        if (this.id >= this.nomes.length) this.nomes = Arrays.copyOf(this.nomes, Math.max(2 * this.nomes.length, this.id + 1));
+        this.nomes[this.id] = this.string();
+        break;
+
+      case TraceBinario.FIM_QUANTUM:
+      case TraceBinario.ENTRADA_SAIDA:
+      case TraceBinario.SAIDA:
+        this.cpu = (int) this.varint() - 1;
+        this.id = (int) this.varint();
+        this.instante += dezigzag(this.varint());
+        this.instrucoes = (int) this.varint();
+        if (this.tipo == TraceBinario.SAIDA) {
+          this.x = (int) dezigzag(this.varint());
+          this.y = (int) dezigzag(this.varint());
+        }
+        break;
+
+      case TraceBinario.TEXTO:
+        this.texto = this.string();
+        break;
+
+      default:
+        throw new IOException("evento desconhecido no trace: " + this.tipo);
+    }
+    return true;
+  }
+
+  /**
+   * Formata o evento atual no formato do log em texto.
+   *
+   * @param sb O buffer onde as linhas são escritas.
+   */
+  public void formata(StringBuilder sb) {
+    if (this.tipo == TraceBinario.CARREGANDO) SaidaLog.formataCarregando(sb, this.cpu, this.getNome());
+    else if (this.tipo == TraceBinario.TEXTO) sb.append(this.texto).append(System.lineSeparator());
+    else SaidaLog.formataDespacho(sb, this.cpu, this.getNome(), this.instrucoes, this.tipo - 1, this.x, this.y);
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.entrada.close();
+  }
+
+  /**
+   * Lê um varint.
+   */
+  private long varint() throws IOException {
+    long valor = 0;
+    for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+      int b = this.entrada.read();
+      if (b < 0) throw new EOFException("trace truncado");
+      valor |= (long) (b & 0x7F) << deslocamento;
+      if ((b & 0x80) == 0) return valor;
+    }
+    throw new IOException("varint inválido no trace");
+  }
+
+  /**
+   * Lê um texto UTF-8 precedido pelo tamanho.
+   */
+  private String string() throws IOException {
+    int tamanho = (int) this.varint();
+    byte[] bytes = this.entrada.readNBytes(tamanho);
+    if (bytes.length < tamanho) throw new EOFException("trace truncado");
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decodifica um número codificado por `TraceBinario.zigzag`.
+   */
+  private static long dezigzag(long valor) {
+    return (valor >>> 1) ^ -(valor & 1);
+  }
+
+  /**
+   * Exibe um trace como log em texto, ou apenas os eventos de um processo ou as E/S em uma faixa de
+   * instantes. Nos filtros, cada linha traz o instante do despacho entre colchetes.
+   *
+   * Uso: `java LeitorTrace ARQUIVO [--processo NOME] [--es INICIO FIM]`.
+   *
+   * @param args Os argumentos da linha de comando.
+   */
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.out.println("Uso: java LeitorTrace ARQUIVO [--processo NOME] [--es INICIO FIM]");
+      return;
+    }
+
+    String processo = null;
+    long esInicio = -1, esFim = -1;
+    for (int i = 1; i < args.length; i++) {
+      if (args[i].equals("--processo") && i + 1 < args.length) {
+        processo = args[++i];
+      }
+      else if (args[i].equals("--es") && i + 2 < args.length) {
+        esInicio = Long.parseLong(args[++i]);
+        esFim = Long.parseLong(args[++i]);
+      }
+      else {
+        System.out.println("Opção desconhecida: " + args[i]);
+        return;
+      }
+    }
+    boolean filtro = processo != null || esInicio >= 0;
+
+    PrintStream saida = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                                        false, StandardCharsets.UTF_8);
+    StringBuilder sb = new StringBuilder();
+
+    try (LeitorTrace leitor = new LeitorTrace(Paths.get(args[0]))) {
+      while (leitor.proximo()) {
+        if (!filtro) {
+          leitor.formata(sb);
+        }
+        else if (leitor.isDespacho()
+                 && (processo == null || processo.equals(leitor.getNome()))
+                 && (esInicio < 0 || (leitor.getTipo() == TraceBinario.ENTRADA_SAIDA
+                                      && leitor.getInstante() >= esInicio && leitor.getInstante() <= esFim))) {
+          // Cada linha do despacho leva o instante como prefixo
+          int inicio = sb.length();
+          leitor.formata(sb);
+          String prefixo = "[" + leitor.getInstante() + "] ";
+          for (int i = inicio; i < sb.length(); i = sb.indexOf(System.lineSeparator(), i) + System.lineSeparator().length()) {
+            sb.insert(i, prefixo);
+          }
+        }
+
+        if (sb.length() >= 1 << 16) {
+          saida.append(sb);
+          sb.setLength(0);
+        }
+      }
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao ler o trace: " + e.getMessage());
+      e.printStackTrace();
+    }
+
+    saida.append(sb);
+    saida.flush();
+  }
+}
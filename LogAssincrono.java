@@ -0,0 +1,382 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A classe `LogAssincrono` tira a gravação do log do laço de despacho. Cada evento é publicado em um
+ * buffer circular pré-alocado, com campos de tamanho fixo em vetores paralelos, e uma thread dedicada
+ * formata os eventos direto em bytes e os grava em lotes grandes por um `FileChannel`. O conteúdo
+ * gravado é idêntico ao de um `PrintWriter` em UTF-8.
+ *
+ * Vários produtores (as CPUs) podem publicar ao mesmo tempo: cada um reserva uma posição com um
+ * contador atômico e marca a posição como publicada depois de preenchê-la. Se o buffer encher, o
+ * produtor espera a thread de gravação liberar espaço.
+ */
+
+public class LogAssincrono implements SaidaLog {
+  // Tipos de evento
+
+  private static final byte CARREGANDO = 0;
+  private static final byte DESPACHO = 1;
+  private static final byte TEXTO = 2;
+
+  // Trechos fixos das linhas do log, já codificados em UTF-8
+
+  private static final byte[] CARREGANDO_TXT = utf8("Carregando ");
+  private static final byte[] EXECUTANDO_TXT = utf8("Executando ");
+  private static final byte[] ES_TXT = utf8("E/S iniciada em ");
+  private static final byte[] INTERROMPENDO_TXT = utf8("Interrompendo ");
+  private static final byte[] APOS_TXT = utf8(" após ");
+  private static final byte[] INSTRUCAO_TXT = utf8(" instrução");
+  private static final byte[] INSTRUCOES_TXT = utf8(" instruções");
+  private static final byte[] TERMINADO_TXT = utf8(" terminado. X=");
+  private static final byte[] Y_TXT = utf8(". Y=");
+  private static final byte[] CPU_TXT = utf8("[CPU ");
+  private static final byte[] FECHA_CPU_TXT = utf8("] ");
+  private static final byte[] FIM_LINHA = utf8(System.lineSeparator());
+
+  // Atributos
+
+  /**
+   * Número de posições do buffer circular (potência de 2).
+   */
+  private static final int CAPACIDADE = 1 << 16;
+
+  /**
+   * Tamanho, em bytes, a partir do qual o texto formatado é gravado no arquivo.
+   */
+  private static final int LOTE = 1 << 16;
+
+  /**
+   * Máscara para obter a posição no buffer a partir do número de sequência do evento.
+   */
+  private static final int MASCARA = CAPACIDADE - 1;
+
+  // Campos dos eventos, um vetor por campo
+  private final byte[] tipo = new byte[CAPACIDADE];
+  private final int[] cpu = new int[CAPACIDADE];
+  private final int[] instrucoes = new int[CAPACIDADE];
+  private final int[] motivo = new int[CAPACIDADE];
+  private final int[] x = new int[CAPACIDADE];
+  private final int[] y = new int[CAPACIDADE];
+  private final String[] texto = new String[CAPACIDADE];  // Nome do processo ou linha de texto
+
+  /**
+   * Número de sequência do evento publicado em cada posição (-1 enquanto nenhum foi publicado).
+   */
+  private final AtomicLongArray publicado = new AtomicLongArray(CAPACIDADE);
+
+  /**
+   * Próximo número de sequência a ser reservado por um produtor.
+   */
+  private final AtomicLong cursor = new AtomicLong();
+
+  /**
+   * Número de eventos já consumidos pela thread de gravação.
+   */
+  private volatile long consumidos;
+
+  /**
+   * Número de eventos já gravados no arquivo (e não só formatados) pela thread de gravação.
+   */
+  private volatile long gravados;
+
+  /**
+   * Número de bytes gravados no arquivo até o último evento de `gravados`.
+   */
+  private volatile long posicao;
+
+  /**
+   * Indica que nenhum evento novo será publicado.
+   */
+  private volatile boolean fechado;
+
+  /**
+   * Arquivo de destino.
+   */
+  private final FileChannel canal;
+
+  /**
+   * Thread que formata e grava os eventos.
+   */
+  private final Thread gravador;
+
+  // Construtor
+
+  /**
+   * Cria o log, truncando o arquivo de destino, e inicia a thread de gravação.
+   *
+   * @param arquivo O arquivo de destino.
+   * @throws IOException Se não for possível abrir o arquivo.
+   */
+  public LogAssincrono(Path arquivo) throws IOException {
+    this(arquivo, 0);
+  }
+
+  /**
+   * Cria o log continuando um arquivo existente a partir da posição especificada (o que vier depois
+   * dela é descartado), e inicia a thread de gravação. Usado ao retomar uma simulação de um checkpoint.
+   *
+   * @param arquivo O arquivo de destino.
+   * @param posicao O número de bytes do arquivo que devem ser mantidos.
+   * @throws IOException Se não for possível abrir o arquivo.
+   */
+  public LogAssincrono(Path arquivo, long posicao) throws IOException {
+    this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    if (this.canal.size() < posicao) {
+      this.canal.close();
+      throw new IOException(arquivo + " tem menos de " + posicao + " bytes");
+    }
+    this.canal.truncate(posicao);
+    this.canal.position(posicao);
+    this.posicao = posicao;
+    for (int i = 0; i < CAPACIDADE; i++) this.publicado.set(i, -1);
+
+    this.gravador = new Thread(this::grava, "log-" + arquivo.getFileName());
+    this.gravador.setDaemon(true);
+    this.gravador.start();
+  }
+
+  // Métodos
+
+  /**
+   * Codifica um texto em UTF-8.
+   */
+  private static byte[] utf8(String texto) {
+    return texto.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void carregando(int cpu, BCP bcp) {
+    this.publica(CARREGANDO, cpu, bcp.getNome(), 0, 0, 0, 0);
+  }
+
+  @Override
+  public void despacho(int cpu, BCP bcp, long instante, int instrucoes, int motivo) {
+    this.publica(DESPACHO, cpu, bcp.getNome(), instrucoes, motivo, bcp.getX(), bcp.getY());
+  }
+
+  @Override
+  public void texto(String linha) {
+    this.publica(TEXTO, SEM_CPU, linha, 0, 0, 0, 0);
+  }
+
+  /**
+   * Espera a thread de gravação gravar no arquivo todos os eventos publicados até aqui.
+   */
+  @Override
+  public long sincroniza() {
+    long alvo = this.cursor.get();
+    while (this.gravados < alvo) {
+      LockSupport.unpark(this.gravador);
+      Thread.yield();
+    }
+    return this.gravados == Long.MAX_VALUE ? -1 : this.posicao;
+  }
+
+  /**
+   * Espera a thread de gravação terminar de gravar todos os eventos publicados e fecha o arquivo.
+   */
+  @Override
+  public void fecha() {
+    this.fechado = true;
+    LockSupport.unpark(this.gravador);
+    try {
+      this.gravador.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    try {
+      this.canal.close();
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao fechar o arquivo de log.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Publica um evento no buffer circular.
+   */
+  private void publica(byte tipo, int cpu, String texto, int instrucoes, int motivo, int x, int y) {
+    long sequencia = this.cursor.getAndIncrement();
+
+    // Espera a thread de gravação liberar a posição, se o buffer estiver cheio
+    while (sequencia - this.consumidos >= CAPACIDADE) {
+      LockSupport.unpark(this.gravador);
+      Thread.yield();
+    }
+
+    int i = (int) (sequencia & MASCARA);
+    this.tipo[i] = tipo;
+    this.cpu[i] = cpu;
+    this.texto[i] = texto;
+    this.instrucoes[i] = instrucoes;
+    this.motivo[i] = motivo;
+    this.x[i] = x;
+    this.y[i] = y;
+    this.publicado.set(i, sequencia);  // Escrita volátil: torna os campos visíveis à thread de gravação
+  }
+
+  /**
+   * Laço da thread de gravação: consome os eventos em ordem, formata o texto e grava em lotes.
+   */
+  private void grava() {
+    ByteBuffer bytes = ByteBuffer.allocateDirect(2 * LOTE);
+    long proximo = 0;
+
+    try {
+      while (true) {
+        int i = (int) (proximo & MASCARA);
+
+        // Nenhum evento novo: grava o que já foi formatado e espera
+        if (this.publicado.get(i) != proximo) {
+          if (bytes.position() > 0) this.descarrega(bytes);
+          if (this.gravados != proximo) {
+            this.posicao = this.canal.position();
+            this.gravados = proximo;  // Escrita volátil depois da posição: vista junto por `sincroniza`
+          }
+          if (this.fechado && this.cursor.get() == proximo) break;
+          LockSupport.parkNanos(50_000);
+          continue;
+        }
+
+        this.formata(bytes, i);
+        this.texto[i] = null;
+        this.consumidos = ++proximo;
+
+        if (bytes.position() >= LOTE) this.descarrega(bytes);
+      }
+    } catch (IOException | RuntimeException e) {
+      System.out.println("Ocorreu um erro ao gravar o arquivo de log.");
+      e.printStackTrace();
+      this.consumidos = Long.MAX_VALUE;  // Os produtores não esperam mais por espaço no buffer
+      this.gravados = Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Formata um evento direto em bytes UTF-8, com o mesmo texto de `SaidaLog.formataCarregando` e
+   * `SaidaLog.formataDespacho`, sem passar por um `StringBuilder` e um codificador.
+   *
+   * @param bytes O buffer de saída.
+   * @param i A posição do evento no buffer circular.
+   */
+  private void formata(ByteBuffer bytes, int i) throws IOException {
+    String nome = this.texto[i];
+
+    // Garante espaço para o maior evento possível (4 linhas com o nome e os números)
+    if (bytes.remaining() < 4 * (4 * nome.length() + 64)) this.descarrega(bytes);
+
+    switch (this.tipo[i]) {
+      case CARREGANDO:
+        this.prefixo(bytes, i).put(CARREGANDO_TXT);
+        this.texto(bytes, nome).put(FIM_LINHA);
+        break;
+
+      case DESPACHO:
+        this.prefixo(bytes, i).put(EXECUTANDO_TXT);
+        this.texto(bytes, nome).put(FIM_LINHA);
+
+        if (this.motivo[i] == Interpretador.ENTRADA_SAIDA) {
+          this.prefixo(bytes, i).put(ES_TXT);
+          this.texto(bytes, nome).put(FIM_LINHA);
+        }
+
+        this.prefixo(bytes, i).put(INTERROMPENDO_TXT);
+        this.texto(bytes, nome).put(APOS_TXT);
+        numero(bytes, this.instrucoes[i]).put(this.instrucoes[i] == 1 ? INSTRUCAO_TXT : INSTRUCOES_TXT).put(FIM_LINHA);
+
+        if (this.motivo[i] == Interpretador.SAIDA) {
+          this.texto(this.prefixo(bytes, i), nome).put(TERMINADO_TXT);
+          numero(bytes, this.x[i]).put(Y_TXT);
+          numero(bytes, this.y[i]).put(FIM_LINHA);
+        }
+        break;
+
+      default:
+        this.texto(bytes, nome).put(FIM_LINHA);
+    }
+  }
+
+  /**
+   * Escreve o prefixo "[CPU n] " do evento, se houver.
+   */
+  private ByteBuffer prefixo(ByteBuffer bytes, int i) {
+    if (this.cpu[i] != SEM_CPU) numero(bytes.put(CPU_TXT), this.cpu[i]).put(FECHA_CPU_TXT);
+    return bytes;
+  }
+
+  /**
+   * Escreve um texto em UTF-8. Textos ASCII, o caso comum, são copiados caractere a caractere.
+   */
+  private ByteBuffer texto(ByteBuffer bytes, String texto) throws IOException {
+    int n = texto.length();
+    for (int c = 0; c < n; c++) {
+      if (texto.charAt(c) >= 0x80) {
+        byte[] codificado = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.remaining() < codificado.length) this.descarrega(bytes);
+        if (bytes.remaining() < codificado.length) {
+          this.gravaDireto(codificado);  // Texto maior que o buffer
+          return bytes;
+        }
+        return bytes.put(codificado);
+      }
+    }
+    if (bytes.remaining() < n) this.descarrega(bytes);
+    if (bytes.remaining() < n) {
+      this.gravaDireto(texto.getBytes(StandardCharsets.US_ASCII));  // Texto maior que o buffer
+      return bytes;
+    }
+    for (int c = 0; c < n; c++) bytes.put((byte) texto.charAt(c));
+    return bytes;
+  }
+
+  /**
+   * Escreve um inteiro em decimal.
+   */
+  private static ByteBuffer numero(ByteBuffer bytes, int valor) {
+    if (valor < 0) {
+      if (valor == Integer.MIN_VALUE) return bytes.put(String.valueOf(valor).getBytes(StandardCharsets.US_ASCII));
+      bytes.put((byte) '-');
+      valor = -valor;
+    }
+    int inicio = bytes.position();
+    do {
+      bytes.put((byte) ('0' + valor % 10));
+      valor /= 10;
+    } while (valor > 0);
+
+    // Os dígitos foram escritos do menos para o mais significativo
+    for (int a = inicio, b = bytes.position() - 1; a < b; a++, b--) {
+      byte t = bytes.get(a);
+      bytes.put(a, bytes.get(b));
+      bytes.put(b, t);
+    }
+    return bytes;
+  }
+
+  /**
+   * Grava o buffer no arquivo e o esvazia.
+   */
+  private void descarrega(ByteBuffer bytes) throws IOException {
+    bytes.flip();
+    while (bytes.hasRemaining()) this.canal.write(bytes);
+    bytes.clear();
+  }
+
+  /**
+   * Grava bytes direto no arquivo, sem passar pelo buffer. O buffer deve ter sido descarregado antes,
+   * para manter a ordem do log.
+   */
+  private void gravaDireto(byte[] dados) throws IOException {
+    ByteBuffer bytes = ByteBuffer.wrap(dados);
+    while (bytes.hasRemaining()) this.canal.write(bytes);
+  }
+}
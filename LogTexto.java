@@ -0,0 +1,69 @@
+import java.io.PrintWriter;
+
+/**
+ * A classe `LogTexto` grava os eventos da simulação direto em um `PrintWriter`, na própria thread que
+ * os publica. É usada quando o log não vai para um arquivo (por exemplo, no benchmark).
+ */
+
+public class LogTexto implements SaidaLog {
+  // Atributos
+
+  /**
+   * Destino do log.
+   */
+  private final PrintWriter writer;
+
+  /**
+   * Buffer reaproveitado para formatar cada evento.
+   */
+  private final StringBuilder sb = new StringBuilder();
+
+  // Construtor
+
+  /**
+   * Cria um log que grava no writer especificado.
+   *
+   * @param writer O destino do log.
+   */
+  public LogTexto(PrintWriter writer) {
+    this.writer = writer;
+  }
+
+  // Métodos
+
+  @Override
+  public synchronized void carregando(int cpu, BCP bcp) {
+    SaidaLog.formataCarregando(this.sb, cpu, bcp.getNome());
+    this.escreve();
+  }
+
+  @Override
+  public synchronized void despacho(int cpu, BCP bcp, long instante, int instrucoes, int motivo) {
+    SaidaLog.formataDespacho(this.sb, cpu, bcp.getNome(), instrucoes, motivo, bcp.getX(), bcp.getY());
+    this.escreve();
+  }
+
+  @Override
+  public synchronized void texto(String linha) {
+    this.writer.println(linha);
+  }
+
+  @Override
+  public synchronized long sincroniza() {
+    this.writer.flush();
+    return -1;
+  }
+
+  @Override
+  public synchronized void fecha() {
+    this.writer.flush();
+  }
+
+  /**
+   * Escreve o buffer no writer e o esvazia.
+   */
+  private void escreve() {
+    this.writer.append(this.sb);
+    this.sb.setLength(0);
+  }
+}
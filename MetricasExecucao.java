@@ -0,0 +1,116 @@
+import java.util.Locale;
+
+/**
+ * A classe `MetricasExecucao` resume, no fim de uma simulação, as métricas de cada processo
+ * terminado em histogramas (veja `Histograma`), com média, percentis 50, 90 e 99 e máximo. Todos os
+ * tempos são medidos no relógio de despachos, a partir da chegada do processo (o instante 0, para os
+ * processos presentes desde o início):
+ *
+ * - turnaround: da chegada até o fim do último despacho do processo;
+ * - resposta: da chegada até o primeiro despacho;
+ * - bloqueado: tempo total na fila de bloqueados;
+ * - espera: tempo pronto, esperando a CPU (o turnaround menos as fatias e o tempo bloqueado);
+ * - fatias: número de despachos do processo.
+ */
+
+public class MetricasExecucao {
+  // Atributos
+
+  /**
+   * Nomes das métricas, na ordem do relatório.
+   */
+  private static final String[] NOMES = {"turnaround", "espera", "resposta", "bloqueado", "fatias"};
+
+  /**
+   * Histograma de cada métrica, na ordem de `NOMES`.
+   */
+  private final Histograma[] histogramas = new Histograma[NOMES.length];
+
+  // Construtor
+
+  /**
+   * Calcula as métricas dos processos terminados de uma tabela de processos.
+   *
+   * @param tabela A tabela de processos, no fim da simulação.
+   */
+  public MetricasExecucao(TabelaDeProcessos tabela) {
+    for (int i = 0; i < NOMES.length; i++) this.histogramas[i] = new Histograma();
+
+    for (int id = 0; id < tabela.getNumCriados(); id++) {
+      if (tabela.estado[id] != Estado.TERMINADO.getCodigo()) continue;
+
+      long chegada = Math.max(tabela.chegada[id], 0);
+      long turnaround = tabela.termino[id] - chegada;
+      this.histogramas[0].registra(turnaround);
+      this.histogramas[1].registra(turnaround - tabela.fatias[id] - tabela.tempo_bloqueado[id]);
+      this.histogramas[2].registra(tabela.primeiro_despacho[id] - chegada);
+      this.histogramas[3].registra(tabela.tempo_bloqueado[id]);
+      this.histogramas[4].registra(tabela.fatias[id]);
+    }
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o histograma de uma métrica.
+   *
+   * @param nome O nome da métrica: "turnaround", "espera", "resposta", "bloqueado" ou "fatias".
+   * @return O histograma da métrica.
+   * @throws IllegalArgumentException Se o nome não corresponder a nenhuma métrica.
+   */
+  public Histograma getHistograma(String nome) {
+    for (int i = 0; i < NOMES.length; i++) {
+      if (NOMES[i].equals(nome)) return this.histogramas[i];
+    }
+    throw new IllegalArgumentException("métrica desconhecida: " + nome);
+  }
+
+  // Métodos
+
+  /**
+   * Escreve uma linha por métrica no log, no formato
+   * "MÉTRICAS TURNAROUND: MÉDIA 12.50, P50 12, P90 20, P99 25, MÁX 25".
+   *
+   * @param log O log da simulação.
+   */
+  public void relatorio(SaidaLog log) {
+    for (int i = 0; i < NOMES.length; i++) {
+      Histograma h = this.histogramas[i];
+      log.texto(String.format(Locale.ROOT, "MÉTRICAS %s: MÉDIA %.2f, P50 %d, P90 %d, P99 %d, MÁX %d",
+                              NOMES[i].toUpperCase(Locale.ROOT), h.getMedia(), h.percentil(50), h.percentil(90),
+                              h.percentil(99), h.getMaximo()));
+    }
+  }
+
+  /**
+   * Escreve as métricas como um objeto JSON, com um objeto por métrica.
+   *
+   * @param sb O buffer onde o objeto é escrito.
+   */
+  public void formataJSON(StringBuilder sb) {
+    sb.append('{');
+    for (int i = 0; i < NOMES.length; i++) {
+      Histograma h = this.histogramas[i];
+      if (i > 0) sb.append(", ");
+      sb.append('"').append(NOMES[i]).append("\": ")
+        .append(String.format(Locale.ROOT, "{\"media\": %.4f, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"max\": %d}",
+                              h.getMedia(), h.percentil(50), h.percentil(90), h.percentil(99), h.getMaximo()));
+    }
+    sb.append('}');
+  }
+
+  /**
+   * Escreve as métricas em CSV, com um cabeçalho e uma linha por métrica.
+   *
+   * @param sb O buffer onde as linhas são escritas.
+   */
+  public void formataCSV(StringBuilder sb) {
+    sb.append("metrica,media,p50,p90,p99,max").append(System.lineSeparator());
+    for (int i = 0; i < NOMES.length; i++) {
+      Histograma h = this.histogramas[i];
+      sb.append(String.format(Locale.ROOT, "%s,%.4f,%d,%d,%d,%d", NOMES[i], h.getMedia(), h.percentil(50),
+                              h.percentil(90), h.percentil(99), h.getMaximo()))
+        .append(System.lineSeparator());
+    }
+  }
+}
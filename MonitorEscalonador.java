@@ -0,0 +1,114 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A classe `MonitorEscalonador` expõe por JMX os contadores de uma simulação em andamento: tamanho das
+ * filas, processos restantes, trocas, instruções, taxa de despachos e quantum, que também pode ser
+ * mudado durante a execução. As trocas e as instruções são contadas em `LongAdder`s, que não disputam
+ * a mesma posição de memória entre as CPUs; as filas são consultadas só quando o atributo é lido.
+ */
+
+public class MonitorEscalonador implements MonitorEscalonadorMBean {
+  // Atributos
+
+  /**
+   * Escalonador monitorado.
+   */
+  private final Escalonador escalonador;
+
+  /**
+   * Número de despachos.
+   */
+  private final LongAdder trocas = new LongAdder();
+
+  /**
+   * Número de instruções executadas.
+   */
+  private final LongAdder instrucoes = new LongAdder();
+
+  /**
+   * Instante, em nanossegundos, da leitura anterior da taxa de despachos (ou do início da simulação).
+   */
+  private long nanos_anterior = System.nanoTime();
+
+  /**
+   * Número de despachos na leitura anterior da taxa de despachos.
+   */
+  private long trocas_anterior;
+
+  // Construtor
+
+  /**
+   * Cria o monitor de um escalonador.
+   *
+   * @param escalonador O escalonador monitorado.
+   */
+  public MonitorEscalonador(Escalonador escalonador) {
+    this.escalonador = escalonador;
+  }
+
+  // Métodos
+
+  /**
+   * Registra um despacho. Chamado pelo laço de despacho de cada CPU.
+   *
+   * @param instrucoes O número de instruções executadas no despacho.
+   */
+  public void despacho(int instrucoes) {
+    this.trocas.increment();
+    this.instrucoes.add(instrucoes);
+  }
+
+  /**
+   * Marca o início de uma simulação: a primeira taxa de despachos é medida a partir daqui.
+   */
+  public synchronized void inicia() {
+    this.nanos_anterior = System.nanoTime();
+    this.trocas_anterior = this.trocas.sum();
+  }
+
+  @Override
+  public int getFilaProntos() {
+    return this.escalonador.getTamanhoFilaProntos();
+  }
+
+  @Override
+  public int getFilaBloqueados() {
+    return this.escalonador.getTamanhoFilaBloqueados();
+  }
+
+  @Override
+  public int getProcessosRestantes() {
+    return this.escalonador.getProcessosRestantes();
+  }
+
+  @Override
+  public long getTrocas() {
+    return this.trocas.sum();
+  }
+
+  @Override
+  public long getInstrucoes() {
+    return this.instrucoes.sum();
+  }
+
+  @Override
+  public synchronized double getDespachosPorSegundo() {
+    long agora = System.nanoTime();
+    long trocas = this.trocas.sum();
+    double taxa = agora > this.nanos_anterior ? (trocas - this.trocas_anterior) * 1e9 / (agora - this.nanos_anterior) : 0;
+    this.nanos_anterior = agora;
+    this.trocas_anterior = trocas;
+    return taxa;
+  }
+
+  @Override
+  public int getQuantum() {
+    return this.escalonador.getQuantum();
+  }
+
+  @Override
+  public void mudaQuantum(int quantum) {
+    if (quantum < 1) throw new IllegalArgumentException("quantum deve ser positivo: " + quantum);
+    this.escalonador.setQuantum(quantum);
+  }
+}
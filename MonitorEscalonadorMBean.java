@@ -0,0 +1,64 @@
+/**
+ * A interface `MonitorEscalonadorMBean` define os atributos e as operações que o escalonador expõe
+ * por JMX durante uma simulação (veja `MonitorEscalonador`), para acompanhar execuções longas com o
+ * jconsole ou outra ferramenta JMX.
+ */
+
+public interface MonitorEscalonadorMBean {
+  /**
+   * Obtém o número de processos na fila de prontos (somando as filas de todas as CPUs).
+   *
+   * @return O tamanho da fila de prontos.
+   */
+  int getFilaProntos();
+
+  /**
+   * Obtém o número de processos na fila de bloqueados.
+   *
+   * @return O tamanho da fila de bloqueados.
+   */
+  int getFilaBloqueados();
+
+  /**
+   * Obtém o número de processos que ainda não terminaram.
+   *
+   * @return O número de processos restantes.
+   */
+  int getProcessosRestantes();
+
+  /**
+   * Obtém o número de trocas de processo (despachos) até agora.
+   *
+   * @return O número de trocas.
+   */
+  long getTrocas();
+
+  /**
+   * Obtém o número de instruções executadas até agora.
+   *
+   * @return O número de instruções.
+   */
+  long getInstrucoes();
+
+  /**
+   * Obtém a taxa de despachos desde a leitura anterior deste atributo (ou desde o início da simulação,
+   * na primeira leitura).
+   *
+   * @return Os despachos por segundo.
+   */
+  double getDespachosPorSegundo();
+
+  /**
+   * Obtém o quantum atual.
+   *
+   * @return O quantum.
+   */
+  int getQuantum();
+
+  /**
+   * Muda o quantum da simulação em andamento; vale a partir do próximo despacho.
+   *
+   * @param quantum O novo quantum.
+   */
+  void mudaQuantum(int quantum);
+}
@@ -0,0 +1,120 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A interface `PoliticaEscalonamento` define a ordem em que os processos prontos são escalonados.
+ * A `FilaProntos` delega a ela a escolha do próximo processo, e o escalonador a informa de cada
+ * execução para que políticas adaptativas (fila multinível, escalonador justo) atualizem seu estado.
+ *
+ * Toda implementação deve inserir e remover processos em O(log n) ou melhor, para que comparações
+ * entre políticas com muitos processos não sejam dominadas pelo custo da fila. As implementações não
+ * precisam ser sincronizadas: a `FilaProntos` já controla o acesso concorrente.
+ */
+
+public interface PoliticaEscalonamento {
+
+  /**
+   * Insere um processo pronto na política.
+   *
+   * @param processo O processo a ser inserido.
+   */
+  void insere(BCP processo);
+
+  /**
+   * Remove o próximo processo a ser executado.
+   *
+   * @return O próximo processo, ou null se não houver processos prontos.
+   */
+  BCP remove();
+
+  /**
+   * Remove um processo para ser executado por outra CPU. Por padrão é o mesmo processo que seria
+   * executado a seguir.
+   *
+   * @return O processo roubado, ou null se não houver processos prontos.
+   */
+  default BCP rouba() {
+    return this.remove();
+  }
+
+  /**
+   * Grava o estado da política (os processos prontos, na ordem interna, e qualquer outro estado que
+   * influencie as próximas escolhas) em um checkpoint da simulação.
+   *
+   * @param saida O destino do checkpoint.
+   * @throws IOException Se não for possível gravar.
+   */
+  void salva(DataOutputStream saida) throws IOException;
+
+  /**
+   * Restaura, em uma política vazia, o estado gravado por `salva`, de modo que as próximas escolhas
+   * sejam exatamente as mesmas da simulação original.
+   *
+   * @param entrada A origem do checkpoint.
+   * @param tabela A tabela de processos já restaurada.
+   * @throws IOException Se não for possível ler.
+   */
+  void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException;
+
+  /**
+   * Obtém o número de processos prontos na política.
+   *
+   * @return O número de processos.
+   */
+  int getTamanho();
+
+  /**
+   * Informa que um processo acabou de ser executado, antes de ele voltar à fila, ser bloqueado ou
+   * terminar.
+   *
+   * @param processo O processo executado.
+   * @param instrucoes O número de instruções executadas.
+   * @param motivo O motivo da parada, como em `Interpretador`.
+   */
+  default void executou(BCP processo, int instrucoes, int motivo) {
+  }
+
+  /**
+   * Obtém o quantum a ser usado na próxima execução do processo.
+   *
+   * @param processo O processo que será executado.
+   * @param quantum O quantum configurado no escalonador.
+   * @return O quantum do processo.
+   */
+  default int getQuantum(BCP processo, int quantum) {
+    return quantum;
+  }
+
+  /**
+   * Converte a prioridade estática de um processo (de -20 a 19, como o "nice" do Unix) em um peso:
+   * 1024 para a prioridade 0, e cada nível a menos vale 25% a mais.
+   *
+   * @param prioridade A prioridade do processo.
+   * @return O peso do processo.
+   */
+  static long peso(int prioridade) {
+    prioridade = Math.max(-20, Math.min(19, prioridade));
+    return Math.max(1, Math.round(1024 / Math.pow(1.25, prioridade)));
+  }
+
+  /**
+   * Cria a política com o nome especificado.
+   *
+   * @param nome O nome da política: "rr", "srt", "prioridade", "mlfq", "loteria" ou "cfs".
+   * @return A política criada.
+   * @throws IllegalArgumentException Se o nome não corresponder a nenhuma política.
+   */
+  static PoliticaEscalonamento cria(String nome) {
+    switch (nome) {
+      case "rr":         return new PoliticaRoundRobin();
+      case "srt":        return new PoliticaMenorRestante();
+      case "prioridade": return new PoliticaPrioridade();
+      case "mlfq":       return new PoliticaMultinivel();
+      case "loteria":    return new PoliticaLoteria();
+      case "cfs":        return new PoliticaJusta();
+      default:
+        throw new IllegalArgumentException("política de escalonamento desconhecida '" + nome + "'");
+    }
+  }
+}
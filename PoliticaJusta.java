@@ -0,0 +1,70 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A classe `PoliticaJusta` implementa um escalonador justo no estilo do CFS do Linux: cada processo
+ * acumula um tempo virtual, que cresce com as instruções executadas divididas pelo peso da sua
+ * prioridade, e o próximo processo é sempre o de menor tempo virtual. Um processo que volta de uma E/S
+ * recebe no mínimo o menor tempo virtual em jogo, para não monopolizar a CPU ao voltar. Inserir e
+ * remover custam O(log n).
+ */
+
+public class PoliticaJusta implements PoliticaEscalonamento {
+  // Atributos
+
+  /**
+   * Escala do tempo virtual: uma instrução de um processo de peso 1 vale 2^20, o que mantém a
+   * precisão mesmo para processos de peso alto executando poucas instruções.
+   */
+  private static final int ESCALA = 20;
+
+  /**
+   * Heap de processos prontos, ordenado pelo tempo virtual.
+   */
+  private final HeapProcessos heap = new HeapProcessos();
+
+  /**
+   * Menor tempo virtual já escalonado; só cresce.
+   */
+  private long tempo_virtual_minimo;
+
+  // Métodos
+
+  @Override
+  public void insere(BCP processo) {
+    long tempo_virtual = Math.max(processo.getDadoPolitica(), this.tempo_virtual_minimo);
+    processo.setDadoPolitica(tempo_virtual);
+    this.heap.insere(processo, tempo_virtual);
+  }
+
+  @Override
+  public BCP remove() {
+    BCP processo = this.heap.remove();
+    if (processo != null) this.tempo_virtual_minimo = Math.max(this.tempo_virtual_minimo, processo.getDadoPolitica());
+    return processo;
+  }
+
+  @Override
+  public int getTamanho() {
+    return this.heap.getTamanho();
+  }
+
+  @Override
+  public void executou(BCP processo, int instrucoes, int motivo) {
+    long peso = PoliticaEscalonamento.peso(processo.getPrioridade());
+    processo.setDadoPolitica(processo.getDadoPolitica() + Math.max(1, ((long) instrucoes << ESCALA) / peso));
+  }
+
+  @Override
+  public void salva(DataOutputStream saida) throws IOException {
+    saida.writeLong(this.tempo_virtual_minimo);
+    this.heap.salva(saida);
+  }
+
+  @Override
+  public void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    this.tempo_virtual_minimo = entrada.readLong();
+    this.heap.restaura(entrada, tabela);
+  }
+}
@@ -0,0 +1,199 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A classe `PoliticaLoteria` implementa o escalonamento por loteria: cada processo recebe um número de
+ * bilhetes proporcional ao peso da sua prioridade, e a cada escalonamento é sorteado um bilhete. Os
+ * bilhetes ficam em uma árvore de Fenwick, para que sortear, inserir e remover custem O(log n). O
+ * sorteio usa uma semente fixa, então a simulação é reproduzível.
+ */
+
+public class PoliticaLoteria implements PoliticaEscalonamento {
+  // Atributos
+
+  /**
+   * Semente padrão do sorteio.
+   */
+  public static final long SEMENTE_PADRAO = 42;
+
+  /**
+   * Gerador de números aleatórios do sorteio.
+   */
+  private Random sorteio;
+
+  /**
+   * Processos participantes, um por posição (de 1 a `tamanho`).
+   */
+  private BCP[] processos = new BCP[17];
+
+  /**
+   * Número de bilhetes de cada posição.
+   */
+  private long[] bilhetes = new long[17];
+
+  /**
+   * Árvore de Fenwick com as somas parciais de bilhetes.
+   */
+  private long[] arvore = new long[17];
+
+  /**
+   * Número de processos participantes.
+   */
+  private int tamanho;
+
+  /**
+   * Total de bilhetes em jogo.
+   */
+  private long total;
+
+  // Construtores
+
+  /**
+   * Cria uma loteria com a semente padrão.
+   */
+  public PoliticaLoteria() {
+    this(SEMENTE_PADRAO);
+  }
+
+  /**
+   * Cria uma loteria com a semente especificada.
+   *
+   * @param semente A semente do sorteio.
+   */
+  public PoliticaLoteria(long semente) {
+    this.sorteio = new Random(semente);
+  }
+
+  // Métodos
+
+  @Override
+  public void insere(BCP processo) {
+    if (this.tamanho + 1 == this.processos.length) this.aumentaCapacidade();
+
+    int posicao = ++this.tamanho;
+    long n = PoliticaEscalonamento.peso(processo.getPrioridade());
+    this.processos[posicao] = processo;
+    this.bilhetes[posicao] = n;
+    this.atualiza(posicao, n);
+  }
+
+  @Override
+  public BCP remove() {
+    if (this.tamanho == 0) return null;
+
+    // Sorteia um bilhete e encontra a posição que o contém
+    long bilhete = (long) (this.sorteio.nextDouble() * this.total);
+    int posicao = this.busca(bilhete);
+    BCP vencedor = this.processos[posicao];
+
+    // Move o último participante para a posição do vencedor
+    int ultimo = this.tamanho--;
+    long n = this.bilhetes[posicao];
+    if (posicao != ultimo) {
+      long n_ultimo = this.bilhetes[ultimo];
+      this.processos[posicao] = this.processos[ultimo];
+      this.bilhetes[posicao] = n_ultimo;
+      this.atualiza(posicao, n_ultimo - n);
+      this.atualiza(ultimo, -n_ultimo);
+    }
+    else {
+      this.atualiza(posicao, -n);
+    }
+    this.processos[ultimo] = null;
+    this.bilhetes[ultimo] = 0;
+    return vencedor;
+  }
+
+  @Override
+  public int getTamanho() {
+    return this.tamanho;
+  }
+
+  /**
+   * Soma `delta` bilhetes à posição especificada na árvore de Fenwick.
+   */
+  private void atualiza(int posicao, long delta) {
+    this.total += delta;
+    for (int i = posicao; i < this.arvore.length; i += i & -i) this.arvore[i] += delta;
+  }
+
+  /**
+   * Encontra a menor posição cuja soma acumulada de bilhetes é maior que o bilhete sorteado.
+   */
+  private int busca(long bilhete) {
+    int posicao = 0;
+    for (int passo = Integer.highestOneBit(this.arvore.length - 1); passo > 0; passo >>= 1) {
+      int proxima = posicao + passo;
+      if (proxima < this.arvore.length && this.arvore[proxima] <= bilhete) {
+        posicao = proxima;
+        bilhete -= this.arvore[proxima];
+      }
+    }
+    return Math.min(posicao + 1, this.tamanho);
+  }
+
+  /**
+   * Dobra a capacidade da loteria, reconstruindo a árvore de Fenwick.
+   */
+  private void aumentaCapacidade() {
+    int capacidade = (this.processos.length - 1) * 2 + 1;
+    this.processos = Arrays.copyOf(this.processos, capacidade);
+    this.bilhetes = Arrays.copyOf(this.bilhetes, capacidade);
+    this.arvore = new long[capacidade];
+    this.total = 0;
+    for (int i = 1; i <= this.tamanho; i++) this.atualiza(i, this.bilhetes[i]);
+  }
+
+  /**
+   * Grava os participantes, os bilhetes e o estado do gerador de números aleatórios (pela serialização
+   * do próprio `Random`), para que os próximos sorteios sejam os mesmos.
+   */
+  @Override
+  public void salva(DataOutputStream saida) throws IOException {
+    saida.writeInt(this.processos.length);
+    saida.writeInt(this.tamanho);
+    for (int i = 1; i <= this.tamanho; i++) {
+      saida.writeInt(this.processos[i].getId());
+      saida.writeLong(this.bilhetes[i]);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream objeto = new ObjectOutputStream(bytes)) {
+      objeto.writeObject(this.sorteio);
+    }
+    saida.writeInt(bytes.size());
+    bytes.writeTo(saida);
+  }
+
+  @Override
+  public void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    int capacidade = entrada.readInt();
+    this.processos = new BCP[capacidade];
+    this.bilhetes = new long[capacidade];
+    this.tamanho = entrada.readInt();
+    for (int i = 1; i <= this.tamanho; i++) {
+      this.processos[i] = tabela.getBCP(entrada.readInt());
+      this.bilhetes[i] = entrada.readLong();
+    }
+
+    // A árvore depende só dos bilhetes e da capacidade, então é reconstruída
+    this.arvore = new long[capacidade];
+    this.total = 0;
+    for (int i = 1; i <= this.tamanho; i++) this.atualiza(i, this.bilhetes[i]);
+
+    byte[] bytes = new byte[entrada.readInt()];
+    entrada.readFully(bytes);
+    try (ObjectInputStream objeto = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      this.sorteio = (Random) objeto.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("estado do sorteio inválido no checkpoint", e);
+    }
+  }
+}
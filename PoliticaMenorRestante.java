@@ -0,0 +1,47 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A classe `PoliticaMenorRestante` implementa o escalonamento pelo menor número de instruções
+ * restantes (SJF/SRTF): o próximo processo é o que tem menos instruções entre o PC e o fim do
+ * programa. A preempção acontece no fim de cada quantum, quando o processo volta ao heap com o novo
+ * número de instruções restantes. Em programas com saltos o número é uma estimativa, pois os laços
+ * não são contados. Inserir e remover custam O(log n).
+ */
+
+public class PoliticaMenorRestante implements PoliticaEscalonamento {
+  // Atributos
+
+  /**
+   * Heap de processos prontos, ordenado pelo número de instruções restantes.
+   */
+  private final HeapProcessos heap = new HeapProcessos();
+
+  // Métodos
+
+  @Override
+  public void insere(BCP processo) {
+    this.heap.insere(processo, processo.getNumComandos() - processo.getPC());
+  }
+
+  @Override
+  public BCP remove() {
+    return this.heap.remove();
+  }
+
+  @Override
+  public int getTamanho() {
+    return this.heap.getTamanho();
+  }
+
+  @Override
+  public void salva(DataOutputStream saida) throws IOException {
+    this.heap.salva(saida);
+  }
+
+  @Override
+  public void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    this.heap.restaura(entrada, tabela);
+  }
+}
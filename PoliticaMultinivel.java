@@ -0,0 +1,143 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * A classe `PoliticaMultinivel` implementa a fila multinível com realimentação (MLFQ). Há `NIVEIS`
+ * filas em rodízio; o próximo processo sai sempre da fila de nível mais alto que não estiver vazia.
+ * O quantum dobra a cada nível, e um processo que usa todo o seu quantum desce um nível, enquanto um
+ * processo que para por E/S permanece onde está. Periodicamente todos os processos prontos voltam ao
+ * nível 0, para que processos longos não fiquem esperando para sempre.
+ *
+ * O nível de cada processo fica no dado da política (veja `BCP.getDadoPolitica`), sem depender do
+ * estado desta instância. Assim, com várias CPUs, um processo roubado por outra CPU ou liberado da E/S
+ * na fila de outra CPU mantém o seu nível.
+ *
+ * Inserir e remover custam O(1). A promoção de todos os processos custa O(n), mas só acontece depois
+ * de pelo menos n execuções, então o custo amortizado por execução continua O(1).
+ */
+
+public class PoliticaMultinivel implements PoliticaEscalonamento {
+  // Atributos
+
+  /**
+   * Número de níveis da fila.
+   */
+  public static final int NIVEIS = 3;
+
+  /**
+   * Número mínimo de execuções entre duas promoções de todos os processos ao nível 0.
+   */
+  public static final int PERIODO_PROMOCAO = 50;
+
+  /**
+   * Fila de processos prontos de cada nível (o nível 0 é o mais prioritário).
+   */
+  private final ArrayDeque<BCP>[] filas;
+
+  /**
+   * Número de execuções desde a última promoção.
+   */
+  private int execucoes;
+
+  /**
+   * Número de processos prontos em todas as filas.
+   */
+  private int tamanho;
+
+  // Construtor
+
+  /**
+   * Cria uma fila multinível vazia.
+   */
+  @SuppressWarnings("unchecked")
+  public PoliticaMultinivel() {
+    this.filas = (ArrayDeque<BCP>[]) new ArrayDeque<?>[NIVEIS];
+    for (int i = 0; i < NIVEIS; i++) this.filas[i] = new ArrayDeque<>();
+  }
+
+  // Métodos
+
+  /**
+   * Obtém o nível atual do processo.
+   *
+   * @param processo O processo.
+   * @return O nível do processo.
+   */
+  private static int nivel(BCP processo) {
+    return (int) Math.min(Math.max(processo.getDadoPolitica(), 0), NIVEIS - 1);
+  }
+
+  /**
+   * Define o nível do processo.
+   *
+   * @param processo O processo.
+   * @param nivel O novo nível.
+   */
+  private static void setNivel(BCP processo, int nivel) {
+    processo.setDadoPolitica(nivel);
+  }
+
+  @Override
+  public void insere(BCP processo) {
+    this.filas[nivel(processo)].add(processo);
+    this.tamanho++;
+  }
+
+  @Override
+  public BCP remove() {
+    for (ArrayDeque<BCP> fila : this.filas) {
+      if (!fila.isEmpty()) {
+        this.tamanho--;
+        return fila.poll();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int getTamanho() {
+    return this.tamanho;
+  }
+
+  @Override
+  public int getQuantum(BCP processo, int quantum) {
+    return (int) Math.min((long) quantum << nivel(processo), Integer.MAX_VALUE);  // Sem estourar com quantuns grandes
+  }
+
+  @Override
+  public void executou(BCP processo, int instrucoes, int motivo) {
+    // Quem usou todo o quantum desce um nível
+    int nivel = nivel(processo);
+    if (motivo == Interpretador.FIM_QUANTUM && nivel < NIVEIS - 1) setNivel(processo, nivel + 1);
+
+    // Promoção periódica de todos os processos prontos ao nível 0 (o processo em execução também volta)
+    if (++this.execucoes >= Math.max(PERIODO_PROMOCAO, this.tamanho)) {
+      this.execucoes = 0;
+      setNivel(processo, 0);
+      for (int i = 1; i < NIVEIS; i++) {
+        for (BCP x : this.filas[i]) setNivel(x, 0);
+        this.filas[0].addAll(this.filas[i]);
+        this.filas[i].clear();
+      }
+    }
+  }
+
+  @Override
+  public void salva(DataOutputStream saida) throws IOException {
+    saida.writeInt(this.execucoes);
+    for (ArrayDeque<BCP> fila : this.filas) {
+      saida.writeInt(fila.size());
+      for (BCP processo : fila) saida.writeInt(processo.getId());
+    }
+  }
+
+  @Override
+  public void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    this.execucoes = entrada.readInt();
+    for (ArrayDeque<BCP> fila : this.filas) {
+      for (int n = entrada.readInt(); n > 0; n--, this.tamanho++) fila.add(tabela.getBCP(entrada.readInt()));
+    }
+  }
+}
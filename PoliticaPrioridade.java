@@ -0,0 +1,45 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A classe `PoliticaPrioridade` implementa o escalonamento por prioridade estática: o próximo processo
+ * é o de menor valor de prioridade (definido pela linha opcional `PRIORIDADE=n` do arquivo do programa),
+ * e processos de mesma prioridade se revezam em rodízio. Inserir e remover custam O(log n).
+ */
+
+public class PoliticaPrioridade implements PoliticaEscalonamento {
+  // Atributos
+
+  /**
+   * Heap de processos prontos, ordenado pela prioridade.
+   */
+  private final HeapProcessos heap = new HeapProcessos();
+
+  // Métodos
+
+  @Override
+  public void insere(BCP processo) {
+    this.heap.insere(processo, processo.getPrioridade());
+  }
+
+  @Override
+  public BCP remove() {
+    return this.heap.remove();
+  }
+
+  @Override
+  public int getTamanho() {
+    return this.heap.getTamanho();
+  }
+
+  @Override
+  public void salva(DataOutputStream saida) throws IOException {
+    this.heap.salva(saida);
+  }
+
+  @Override
+  public void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    this.heap.restaura(entrada, tabela);
+  }
+}
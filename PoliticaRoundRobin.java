@@ -0,0 +1,58 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * A classe `PoliticaRoundRobin` implementa o rodízio (round-robin): os processos são executados na
+ * ordem em que ficaram prontos, e quem termina o quantum volta para o fim da fila. É a política padrão
+ * do escalonador. Inserir e remover custam O(1).
+ */
+
+public class PoliticaRoundRobin implements PoliticaEscalonamento {
+  // Atributos
+
+  /**
+   * Fila de processos prontos, na ordem de execução.
+   */
+  private final ArrayDeque<BCP> fila = new ArrayDeque<>();
+
+  // Métodos
+
+  @Override
+  public void insere(BCP processo) {
+    this.fila.add(processo);
+  }
+
+  @Override
+  public BCP remove() {
+    return this.fila.poll();
+  }
+
+  /**
+   * Rouba o último processo da fila, para não disputar com a CPU dona da fila, que retira processos
+   * do início.
+   *
+   * @return O processo roubado, ou null se a fila estiver vazia.
+   */
+  @Override
+  public BCP rouba() {
+    return this.fila.pollLast();
+  }
+
+  @Override
+  public int getTamanho() {
+    return this.fila.size();
+  }
+
+  @Override
+  public void salva(DataOutputStream saida) throws IOException {
+    saida.writeInt(this.fila.size());
+    for (BCP processo : this.fila) saida.writeInt(processo.getId());
+  }
+
+  @Override
+  public void restaura(DataInputStream entrada, TabelaDeProcessos tabela) throws IOException {
+    for (int n = entrada.readInt(); n > 0; n--) this.fila.add(tabela.getBCP(entrada.readInt()));
+  }
+}
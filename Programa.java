@@ -0,0 +1,691 @@
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A classe `Programa` representa o código já compilado de um processo. Cada linha do arquivo
+ * de programa é traduzida uma única vez, no carregamento, para uma instrução codificada em um
+ * `long`: o opcode ocupa os 32 bits mais altos e o operando os 32 bits mais baixos. Assim o
+ * escalonador interpreta o programa sem precisar analisar strings a cada instrução executada.
+ *
+ * Além de "X=n", "Y=n", "COM", "E/S" e "SAIDA", os programas podem somar e subtrair dos registradores
+ * ("X+=n", "Y-=n"), saltar ("JMP destino"), saltar conforme um registrador ("JZ X destino", "JNZ Y destino")
+ * e repetir um trecho contando em um registrador ("LOOP X destino"). O destino é um rótulo, definido
+ * em uma linha própria ("LACO:") que não gera instrução, ou o número de uma instrução, a partir de 0.
+ * Os rótulos são resolvidos na compilação, então um laço de um milhão de instruções ocupa poucas
+ * linhas e a mesma memória que qualquer outro programa:
+ *
+ *     X=1000000
+ *     LACO:
+ *     COM
+ *     LOOP X LACO
+ *     SAIDA
+ *
+ * As instruções ficam em um `LongBuffer`, que pode envolver um vetor (programas compilados de texto)
+ * ou apontar direto para um trecho de um arquivo mapeado em memória (veja `ArquivoProgramas`), sem cópia.
+ */
+
+public class Programa {
+  // Opcodes
+
+  /**
+   * Instrução "X=n": atribui o operando ao registrador X.
+   */
+  public static final int OP_X = 0;
+
+  /**
+   * Instrução "Y=n": atribui o operando ao registrador Y.
+   */
+  public static final int OP_Y = 1;
+
+  /**
+   * Instrução "COM": comando sem efeito além de avançar o PC. O operando guarda quantas instruções
+   * "COM" seguidas começam nesta posição, para que o interpretador execute a sequência de uma vez.
+   */
+  public static final int OP_COM = 2;
+
+  /**
+   * Instrução "E/S": bloqueia o processo aguardando uma operação de entrada e saída. Na forma "E/S=n",
+   * o operando indica o dispositivo de E/S usado (veja `GerenciadorES`); "E/S" usa o dispositivo 0.
+   */
+  public static final int OP_ES = 3;
+
+  /**
+   * Instrução "SAIDA": encerra o processo.
+   */
+  public static final int OP_SAIDA = 4;
+
+  /**
+   * Instrução "X+=n" (ou "X-=n"): soma o operando ao registrador X ("X-=n" é compilada com -n).
+   */
+  public static final int OP_SOMA_X = 5;
+
+  /**
+   * Instrução "Y+=n" (ou "Y-=n"): soma o operando ao registrador Y.
+   */
+  public static final int OP_SOMA_Y = 6;
+
+  /**
+   * Instrução "JMP destino": salta para a instrução do operando.
+   */
+  public static final int OP_JMP = 7;
+
+  /**
+   * Instrução "JZ X destino": salta se X for zero.
+   */
+  public static final int OP_JZ_X = 8;
+
+  /**
+   * Instrução "JZ Y destino": salta se Y for zero.
+   */
+  public static final int OP_JZ_Y = 9;
+
+  /**
+   * Instrução "JNZ X destino": salta se X for diferente de zero.
+   */
+  public static final int OP_JNZ_X = 10;
+
+  /**
+   * Instrução "JNZ Y destino": salta se Y for diferente de zero.
+   */
+  public static final int OP_JNZ_Y = 11;
+
+  /**
+   * Instrução "LOOP X destino": subtrai 1 de X e salta se o resultado for diferente de zero, como o
+   * LOOP do x86. Um laço de N voltas começa com "X=N".
+   */
+  public static final int OP_LOOP_X = 12;
+
+  /**
+   * Instrução "LOOP Y destino": subtrai 1 de Y e salta se o resultado for diferente de zero.
+   */
+  public static final int OP_LOOP_Y = 13;
+
+  /**
+   * Valor devolvido pela compilação de uma linha que não gera instrução: uma linha que só define um
+   * rótulo ou uma linha em branco.
+   */
+  private static final long ROTULO = -1L;
+
+  // Atributos
+
+  /**
+   * Instruções codificadas (opcode nos 32 bits altos, operando nos 32 bits baixos).
+   */
+  private final LongBuffer instrucoes;
+
+  /**
+   * Hash do conteúdo das instruções, calculado na primeira vez em que é pedido (0 enquanto não calculado).
+   */
+  private int hash;
+
+  // Construtor
+
+  /**
+   * Cria um programa a partir de instruções já codificadas. As sequências de "COM" são fundidas no
+   * próprio vetor (veja `fundeComandos`).
+   *
+   * @param instrucoes As instruções codificadas do programa.
+   */
+  public Programa(long[] instrucoes) {
+    this.instrucoes = LongBuffer.wrap(fundeComandos(instrucoes));
+  }
+
+  /**
+   * Cria um programa que usa as instruções de um buffer, sem copiá-las. As instruções vão da posição
+   * 0 até o limite do buffer. As sequências de "COM" devem vir já fundidas; um "COM" com operando 0
+   * é executado sozinho.
+   *
+   * @param instrucoes O buffer com as instruções codificadas.
+   */
+  public Programa(LongBuffer instrucoes) {
+    this.instrucoes = instrucoes;
+  }
+
+  // Métodos
+
+  /**
+   * Codifica um opcode e seu operando em uma única instrução.
+   *
+   * @param opcode O opcode da instrução.
+   * @param operando O operando da instrução (0 quando não houver).
+   * @return A instrução codificada.
+   */
+  public static long codifica(int opcode, int operando) {
+    return ((long) opcode << 32) | (operando & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Obtém o opcode de uma instrução codificada.
+   *
+   * @param instrucao A instrução codificada.
+   * @return O opcode.
+   */
+  public static int opcode(long instrucao) {
+    return (int) (instrucao >>> 32);
+  }
+
+  /**
+   * Obtém o operando de uma instrução codificada.
+   *
+   * @param instrucao A instrução codificada.
+   * @return O operando.
+   */
+  public static int operando(long instrucao) {
+    return (int) instrucao;
+  }
+
+  /**
+   * Obtém quantas instruções "COM" seguidas começam na posição de uma instrução "COM".
+   *
+   * @param instrucao Uma instrução "COM" codificada.
+   * @return O número de instruções da sequência (pelo menos 1).
+   */
+  public static int comandosSeguidos(long instrucao) {
+    return Math.max(operando(instrucao), 1);
+  }
+
+  /**
+   * Funde as sequências de "COM": o operando de cada "COM" passa a ser o número de instruções "COM"
+   * seguidas a partir dela, até o fim da sequência. Como cada posição guarda o restante da sequência,
+   * o PC continua indexando as instruções originais e um processo pode parar no meio de uma sequência.
+   *
+   * @param instrucoes As instruções codificadas, alteradas no próprio vetor.
+   * @return O mesmo vetor.
+   */
+  public static long[] fundeComandos(long[] instrucoes) {
+    int seguidos = 0;
+    for (int i = instrucoes.length - 1; i >= 0; i--) {
+      if (opcode(instrucoes[i]) != OP_COM) {
+        seguidos = 0;
+        continue;
+      }
+      if (seguidos < Integer.MAX_VALUE) seguidos++;
+      instrucoes[i] = codifica(OP_COM, seguidos);
+    }
+    return instrucoes;
+  }
+
+  /**
+   * Compila as linhas de um arquivo de programa (sem a linha do nome). Linhas inválidas são
+   * rejeitadas já no carregamento, indicando o arquivo e a linha onde está o erro.
+   *
+   * @param arquivo O nome do arquivo de origem, usado nas mensagens de erro.
+   * @param linhas As linhas de instruções do programa.
+   * @return O programa compilado.
+   * @throws IllegalArgumentException Se alguma linha não for uma instrução válida ou se o programa puder passar da última instrução.
+   */
+  public static Programa compila(String arquivo, List<String> linhas) {
+    // A linha 1 do arquivo é o nome do programa, então as instruções começam na linha 2
+    return compila(arquivo, linhas, 2);
+  }
+
+  /**
+   * Compila as linhas de instruções de um arquivo de programa que começam na linha especificada.
+   *
+   * @param arquivo O nome do arquivo de origem, usado nas mensagens de erro.
+   * @param linhas As linhas de instruções do programa.
+   * @param primeiraLinha O número, no arquivo, da linha da primeira instrução.
+   * @return O programa compilado.
+   * @throws IllegalArgumentException Se alguma linha não for uma instrução válida ou se o programa puder passar da última instrução.
+   */
+  public static Programa compila(String arquivo, List<String> linhas, int primeiraLinha) {
+    long[] instrucoes = new long[linhas.size()];
+    Rotulos rotulos = new Rotulos();
+    int n = 0, ultimaLinha = primeiraLinha;
+
+    for (int i = 0; i < linhas.size(); i++) {
+      long instrucao = compilaLinha(arquivo, primeiraLinha + i, linhas.get(i), rotulos, n);
+      if (instrucao == ROTULO) continue;
+
+      instrucoes[n++] = instrucao;
+      ultimaLinha = primeiraLinha + i;
+    }
+    rotulos.resolve(arquivo, instrucoes, n);
+    verificaFim(arquivo, instrucoes, n, ultimaLinha);
+
+    return new Programa(n == instrucoes.length ? instrucoes : Arrays.copyOf(instrucoes, n));
+  }
+
+  /**
+   * Compila as instruções de um arquivo de programa já lido em bytes (UTF-8), a partir da posição
+   * especificada até o fim do conteúdo. As linhas são analisadas direto nos bytes, sem criar uma
+   * `String` por linha; as regras e as mensagens de erro são as mesmas da compilação de texto.
+   *
+   * @param arquivo O nome do arquivo de origem, usado nas mensagens de erro.
+   * @param conteudo O conteúdo do arquivo (lido de forma absoluta, a posição do buffer não é alterada).
+   * @param inicio A posição da primeira instrução no conteúdo.
+   * @param primeiraLinha O número, no arquivo, da linha da primeira instrução.
+   * @return O programa compilado.
+   * @throws IllegalArgumentException Se alguma linha não for uma instrução válida ou se o programa puder passar da última instrução.
+   */
+  public static Programa compila(String arquivo, ByteBuffer conteudo, int inicio, int primeiraLinha) {
+    long[] instrucoes = new long[16];
+    Rotulos rotulos = new Rotulos();
+    int n = 0, ultimaLinha = primeiraLinha;
+
+    for (int pos = inicio, numLinha = primeiraLinha; pos < conteudo.limit(); numLinha++) {
+      int fim = fimLinha(conteudo, pos);
+      long instrucao = compilaLinha(arquivo, numLinha, conteudo, pos, fim, rotulos, n);
+      pos = proximaLinha(conteudo, fim);
+      if (instrucao == ROTULO) continue;
+
+      if (n == instrucoes.length) instrucoes = Arrays.copyOf(instrucoes, 2 * n);
+      instrucoes[n++] = instrucao;
+      ultimaLinha = numLinha;
+    }
+    rotulos.resolve(arquivo, instrucoes, n);
+    verificaFim(arquivo, instrucoes, n, ultimaLinha);
+
+    return new Programa(n == instrucoes.length ? instrucoes : Arrays.copyOf(instrucoes, n));
+  }
+
+  /**
+   * Verifica se a execução nunca passa da última instrução: o programa precisa terminar em "SAIDA" ou
+   * em um "JMP", já que os saltos condicionais e os laços continuam na instrução seguinte.
+   *
+   * @param arquivo O nome do arquivo de origem.
+   * @param instrucoes As instruções compiladas.
+   * @param n O número de instruções.
+   * @param numLinha O número da linha da última instrução no arquivo.
+   * @throws IllegalArgumentException Se o programa estiver vazio ou puder passar da última instrução.
+   */
+  private static void verificaFim(String arquivo, long[] instrucoes, int n, int numLinha) {
+    if (n == 0) throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": programa sem instruções");
+
+    int ultima = opcode(instrucoes[n - 1]);
+    if (ultima != OP_SAIDA && ultima != OP_JMP)
+      throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": o programa deve terminar em SAIDA ou JMP");
+  }
+
+  /**
+   * Confere instruções já codificadas que não passaram pelo compilador (por exemplo, as de um
+   * `ArquivoProgramas`), com as mesmas regras da compilação: o programa não é vazio, todos os opcodes
+   * são conhecidos, os destinos dos saltos estão no programa, cada "COM" fundido não passa do fim da
+   * sua sequência e a última instrução é "SAIDA" ou "JMP".
+   *
+   * @param origem A origem das instruções, usada nas mensagens de erro.
+   * @param instrucoes As instruções, da posição 0 até o limite do buffer.
+   * @throws IllegalArgumentException Se as instruções não formarem um programa válido.
+   */
+  public static void verificaCodificadas(String origem, LongBuffer instrucoes) {
+    int n = instrucoes.limit();
+    if (n == 0) throw new IllegalArgumentException(origem + ": programa sem instruções");
+
+    int seguidos = 0;  // Instruções "COM" seguidas a partir da posição atual
+    for (int i = n - 1; i >= 0; i--) {
+      long instrucao = instrucoes.get(i);
+      int opcode = opcode(instrucao), operando = operando(instrucao);
+      seguidos = opcode == OP_COM ? seguidos + 1 : 0;
+
+      switch (opcode) {
+        case OP_X: case OP_Y: case OP_SAIDA: case OP_SOMA_X: case OP_SOMA_Y:
+          break;
+        case OP_COM:
+          if (operando < 0 || operando > seguidos)
+            throw new IllegalArgumentException(origem + ", instrução " + i + ": sequência de COM inválida");
+          break;
+        case OP_ES:
+          if (operando < 0) throw new IllegalArgumentException(origem + ", instrução " + i + ": dispositivo inválido");
+          break;
+        case OP_JMP: case OP_JZ_X: case OP_JZ_Y: case OP_JNZ_X: case OP_JNZ_Y: case OP_LOOP_X: case OP_LOOP_Y:
+          if (operando < 0 || operando >= n)
+            throw new IllegalArgumentException(origem + ", instrução " + i + ": destino fora do programa");
+          break;
+        default:
+          throw new IllegalArgumentException(origem + ", instrução " + i + ": opcode desconhecido " + opcode);
+      }
+    }
+
+    int ultima = opcode(instrucoes.get(n - 1));
+    if (ultima != OP_SAIDA && ultima != OP_JMP)
+      throw new IllegalArgumentException(origem + ": o programa deve terminar em SAIDA ou JMP");
+  }
+
+  /**
+   * Encontra o fim da linha que começa na posição especificada (o "\n" ou "\r" que a termina, ou o
+   * fim do conteúdo).
+   *
+   * @param conteudo O conteúdo do arquivo.
+   * @param pos O início da linha.
+   * @return A posição logo após o último caractere da linha.
+   */
+  static int fimLinha(ByteBuffer conteudo, int pos) {
+    int limite = conteudo.limit();
+    while (pos < limite) {
+      byte c = conteudo.get(pos);
+      if (c == '\n' || c == '\r') break;
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * Obtém o início da linha seguinte, pulando o fim de linha ("\n", "\r" ou "\r\n"), como o
+   * `BufferedReader.readLine`.
+   *
+   * @param conteudo O conteúdo do arquivo.
+   * @param fim O fim da linha atual, obtido por `fimLinha`.
+   * @return O início da linha seguinte.
+   */
+  static int proximaLinha(ByteBuffer conteudo, int fim) {
+    if (fim >= conteudo.limit()) return fim;
+    if (conteudo.get(fim) == '\r' && fim + 1 < conteudo.limit() && conteudo.get(fim + 1) == '\n') return fim + 2;
+    return fim + 1;
+  }
+
+  /**
+   * Decodifica uma linha do conteúdo como texto.
+   *
+   * @param conteudo O conteúdo do arquivo.
+   * @param inicio O início da linha.
+   * @param fim O fim da linha.
+   * @return O texto da linha.
+   */
+  static String linha(ByteBuffer conteudo, int inicio, int fim) {
+    byte[] bytes = new byte[fim - inicio];
+    conteudo.get(inicio, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Compila uma única linha de programa direto nos bytes. Os casos comuns são reconhecidos sem criar
+   * objetos; qualquer outro caso, inclusive os erros, segue a compilação de texto.
+   *
+   * @param arquivo O nome do arquivo de origem.
+   * @param numLinha O número da linha no arquivo.
+   * @param b O conteúdo do arquivo.
+   * @param inicio O início da linha.
+   * @param fim O fim da linha.
+   * @param rotulos Os rótulos do programa em compilação.
+   * @param posicao A posição da instrução no programa.
+   * @return A instrução codificada, ou `ROTULO` se a linha só definir um rótulo ou estiver em branco.
+   * @throws IllegalArgumentException Se a linha não for uma instrução válida.
+   */
+  private static long compilaLinha(String arquivo, int numLinha, ByteBuffer b, int inicio, int fim, Rotulos rotulos, int posicao) {
+    // Remove os espaços das pontas, como o String.trim
+    int a = inicio, z = fim;
+    while (a < z && (b.get(a) & 0xFF) <= ' ') a++;
+    while (z > a && (b.get(z - 1) & 0xFF) <= ' ') z--;
+    int n = z - a;
+
+    if (n == 0) return ROTULO;  // Linha em branco
+    if (n == 3 && b.get(a) == 'C' && b.get(a + 1) == 'O' && b.get(a + 2) == 'M') return codifica(OP_COM, 0);
+    if (n == 3 && b.get(a) == 'E' && b.get(a + 1) == '/' && b.get(a + 2) == 'S') return codifica(OP_ES, 0);
+    if (n == 5 && b.get(a) == 'S' && b.get(a + 1) == 'A' && b.get(a + 2) == 'I' && b.get(a + 3) == 'D'
+        && b.get(a + 4) == 'A') return codifica(OP_SAIDA, 0);
+
+    if (n > 2 && (b.get(a) == 'X' || b.get(a) == 'Y') && b.get(a + 1) == '=') {
+      int p = a + 2;
+      while (p < z && (b.get(p) & 0xFF) <= ' ') p++;
+      boolean negativo = p < z && b.get(p) == '-';
+      if (p < z && (b.get(p) == '-' || b.get(p) == '+')) p++;
+
+      // Até 9 dígitos sempre cabem em um int
+      if (z - p > 0 && z - p <= 9) {
+        int valor = 0;
+        for (; p < z && b.get(p) >= '0' && b.get(p) <= '9'; p++) valor = 10 * valor + (b.get(p) - '0');
+        if (p == z) return codifica(b.get(a) == 'X' ? OP_X : OP_Y, negativo ? -valor : valor);
+      }
+    }
+
+    return compilaLinha(arquivo, numLinha, linha(b, inicio, fim), rotulos, posicao);
+  }
+
+  /**
+   * Compila uma única linha de programa.
+   *
+   * @param arquivo O nome do arquivo de origem.
+   * @param numLinha O número da linha no arquivo.
+   * @param linha O texto da linha.
+   * @param rotulos Os rótulos do programa em compilação.
+   * @param posicao A posição da instrução no programa.
+   * @return A instrução codificada, ou `ROTULO` se a linha só definir um rótulo ou estiver em branco.
+   * @throws IllegalArgumentException Se a linha não for uma instrução válida.
+   */
+  private static long compilaLinha(String arquivo, int numLinha, String linha, Rotulos rotulos, int posicao) {
+    String comando = linha.trim();
+
+    if (comando.isEmpty()) return ROTULO;  // Linha em branco
+    if (comando.equals("COM")) return codifica(OP_COM, 0);
+    if (comando.equals("E/S")) return codifica(OP_ES, 0);
+    if (comando.equals("SAIDA")) return codifica(OP_SAIDA, 0);
+
+    if (comando.startsWith("E/S=")) {
+      int dispositivo;
+      try {
+        dispositivo = Integer.parseInt(comando.substring(4).trim());
+      }
+      catch (NumberFormatException e) {
+        dispositivo = -1;
+      }
+      if (dispositivo < 0) throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": dispositivo inválido em '" + linha + "'");
+      return codifica(OP_ES, dispositivo);
+    }
+
+    if (comando.startsWith("X=") || comando.startsWith("Y=")) {
+      int opcode = comando.charAt(0) == 'X' ? OP_X : OP_Y;
+      try {
+        return codifica(opcode, Integer.parseInt(comando.substring(2).trim()));
+      }
+      catch (NumberFormatException e) {
+        throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": valor inválido em '" + linha + "'");
+      }
+    }
+
+    // Soma e subtração: "X+=n", "X-=n", "Y+=n", "Y-=n"
+    if (comando.length() > 3 && (comando.charAt(0) == 'X' || comando.charAt(0) == 'Y')
+        && (comando.charAt(1) == '+' || comando.charAt(1) == '-') && comando.charAt(2) == '=') {
+      int opcode = comando.charAt(0) == 'X' ? OP_SOMA_X : OP_SOMA_Y;
+      try {
+        int valor = Integer.parseInt(comando.substring(3).trim());
+        return codifica(opcode, comando.charAt(1) == '-' ? -valor : valor);
+      }
+      catch (NumberFormatException e) {
+        throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": valor inválido em '" + linha + "'");
+      }
+    }
+
+    // Rótulo: "NOME:", marca a posição da próxima instrução
+    if (comando.endsWith(":") && nomeRotulo(comando.substring(0, comando.length() - 1))) {
+      if (rotulos.posicoes.putIfAbsent(comando.substring(0, comando.length() - 1), posicao) != null)
+        throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": rótulo repetido '" + linha + "'");
+      return ROTULO;
+    }
+
+    // Saltos: "JMP destino", "JZ X destino", "JNZ Y destino", "LOOP X destino"
+    String[] partes = comando.split("\\s+");
+    int opcode = -1;
+    if (partes.length == 2 && partes[0].equals("JMP")) opcode = OP_JMP;
+    else if (partes.length == 3 && (partes[1].equals("X") || partes[1].equals("Y"))) {
+      int registrador = partes[1].equals("X") ? 0 : 1;
+      if (partes[0].equals("JZ")) opcode = OP_JZ_X + registrador;
+      else if (partes[0].equals("JNZ")) opcode = OP_JNZ_X + registrador;
+      else if (partes[0].equals("LOOP")) opcode = OP_LOOP_X + registrador;
+    }
+    if (opcode >= 0) {
+      String destino = partes[partes.length - 1];
+      if (nomeRotulo(destino)) {
+        rotulos.salto(posicao, destino, numLinha, linha);
+        return codifica(opcode, 0);  // O destino é preenchido em `Rotulos.resolve`
+      }
+      try {
+        rotulos.salto(posicao, null, numLinha, linha);
+        return codifica(opcode, Integer.parseInt(destino));
+      }
+      catch (NumberFormatException e) {
+        throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": destino inválido em '" + linha + "'");
+      }
+    }
+
+    throw new IllegalArgumentException(arquivo + ", linha " + numLinha + ": instrução desconhecida '" + linha + "'");
+  }
+
+  /**
+   * Verifica se um texto é um nome de rótulo válido: começa com uma letra ou "_" e tem apenas letras,
+   * dígitos, "_" e "-".
+   *
+   * @param nome O texto.
+   * @return true se o texto puder ser um rótulo.
+   */
+  private static boolean nomeRotulo(String nome) {
+    if (nome.isEmpty() || !(Character.isLetter(nome.charAt(0)) || nome.charAt(0) == '_')) return false;
+    for (int i = 1; i < nome.length(); i++) {
+      char c = nome.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') return false;
+    }
+    return true;
+  }
+
+
+  /**
+   * Obtém o número de instruções do programa.
+   *
+   * @return O número de instruções.
+   */
+  public int getTamanho() {
+    return this.instrucoes.limit();
+  }
+
+  /**
+   * Obtém a instrução codificada na posição indicada.
+   *
+   * @param pc A posição da instrução.
+   * @return A instrução codificada.
+   */
+  public long getInstrucao(int pc) {
+    return this.instrucoes.get(pc);
+  }
+
+  /**
+   * Reconstrói o texto de uma instrução, no mesmo formato dos arquivos de programa. O destino dos
+   * saltos é escrito como o número da instrução, já que os rótulos não são guardados.
+   *
+   * @param pc A posição da instrução.
+   * @return O texto da instrução.
+   */
+  public String getTexto(int pc) {
+    long instrucao = this.instrucoes.get(pc);
+    switch (opcode(instrucao)) {
+      case OP_X:      return "X=" + operando(instrucao);
+      case OP_Y:      return "Y=" + operando(instrucao);
+      case OP_COM:    return "COM";
+      case OP_ES:     return operando(instrucao) == 0 ? "E/S" : "E/S=" + operando(instrucao);
+      case OP_SOMA_X: return textoSoma("X", operando(instrucao));
+      case OP_SOMA_Y: return textoSoma("Y", operando(instrucao));
+      case OP_JMP:    return "JMP " + operando(instrucao);
+      case OP_JZ_X:   return "JZ X " + operando(instrucao);
+      case OP_JZ_Y:   return "JZ Y " + operando(instrucao);
+      case OP_JNZ_X:  return "JNZ X " + operando(instrucao);
+      case OP_JNZ_Y:  return "JNZ Y " + operando(instrucao);
+      case OP_LOOP_X: return "LOOP X " + operando(instrucao);
+      case OP_LOOP_Y: return "LOOP Y " + operando(instrucao);
+      default:        return "SAIDA";
+    }
+  }
+
+  /**
+   * Reconstrói o texto de uma soma: "X+=n" ou, para valores negativos, "X-=n".
+   */
+  private static String textoSoma(String registrador, int valor) {
+    return valor < 0 && valor != Integer.MIN_VALUE ? registrador + "-=" + -valor : registrador + "+=" + valor;
+  }
+
+  /**
+   * Reconstrói o texto de todas as instruções do programa.
+   *
+   * @return Uma lista com o texto de cada instrução.
+   */
+  public List<String> getLinhas() {
+    List<String> linhas = new ArrayList<>(this.getTamanho());
+    for (int i = 0; i < this.getTamanho(); i++) linhas.add(this.getTexto(i));
+    return linhas;
+  }
+
+  /**
+   * Compara o conteúdo das instruções com o de outro programa. Dois programas com as mesmas
+   * instruções são iguais, mesmo que estejam em buffers diferentes (veja `InternadorProgramas`).
+   *
+   * @param outro O outro objeto.
+   * @return true se o outro objeto for um programa com as mesmas instruções.
+   */
+  @Override
+  public boolean equals(Object outro) {
+    if (this == outro) return true;
+    if (!(outro instanceof Programa)) return false;
+    Programa programa = (Programa) outro;
+    return this.hashCode() == programa.hashCode() && this.instrucoes.equals(programa.instrucoes);
+  }
+
+  /**
+   * Calcula o hash do conteúdo das instruções. O hash é guardado, então cada programa é percorrido uma única vez.
+   *
+   * @return O hash das instruções.
+   */
+  @Override
+  public int hashCode() {
+    int h = this.hash;
+    if (h == 0) {
+      h = this.instrucoes.hashCode();
+      this.hash = h;
+    }
+    return h;
+  }
+
+  /**
+   * Os rótulos de um programa em compilação e os saltos encontrados, resolvidos no fim da compilação,
+   * quando todos os rótulos (inclusive os definidos depois do salto) já são conhecidos.
+   */
+  private static final class Rotulos {
+    final HashMap<String, Integer> posicoes = new HashMap<>();
+    final List<Salto> saltos = new ArrayList<>();
+
+    /**
+     * Registra um salto, com o rótulo de destino ou null se o destino for um número.
+     */
+    void salto(int posicao, String rotulo, int numLinha, String linha) {
+      this.saltos.add(new Salto(posicao, rotulo, numLinha, linha));
+    }
+
+    /**
+     * Preenche o destino dos saltos para rótulos e verifica se todos os destinos estão no programa.
+     *
+     * @throws IllegalArgumentException Se um rótulo não for definido ou um destino estiver fora do programa.
+     */
+    void resolve(String arquivo, long[] instrucoes, int n) {
+      for (Salto salto : this.saltos) {
+        int destino = operando(instrucoes[salto.posicao]);
+        if (salto.rotulo != null) {
+          Integer posicao = this.posicoes.get(salto.rotulo);
+          if (posicao == null)
+            throw new IllegalArgumentException(arquivo + ", linha " + salto.numLinha + ": rótulo desconhecido em '" + salto.linha + "'");
+          destino = posicao;
+          instrucoes[salto.posicao] = codifica(opcode(instrucoes[salto.posicao]), destino);
+        }
+        if (destino < 0 || destino >= n)
+          throw new IllegalArgumentException(arquivo + ", linha " + salto.numLinha + ": destino fora do programa em '" + salto.linha + "'");
+      }
+    }
+  }
+
+  /**
+   * Um salto encontrado na compilação.
+   */
+  private static final class Salto {
+    final int posicao;
+    final String rotulo;
+    final int numLinha;
+    final String linha;
+
+    Salto(int posicao, String rotulo, int numLinha, String linha) {
+      this.posicao = posicao;
+      this.rotulo = rotulo;
+      this.numLinha = numLinha;
+      this.linha = linha;
+    }
+  }
+}
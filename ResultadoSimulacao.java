@@ -0,0 +1,210 @@
+import java.util.Locale;
+
+/**
+ * A classe `ResultadoSimulacao` guarda as estatísticas finais de uma simulação já executada: as
+ * configurações usadas, os totais de trocas e de instruções, as médias e as métricas por processo.
+ * O resultado não depende mais do escalonador que o gerou e pode ser lido por qualquer thread.
+ */
+
+public class ResultadoSimulacao {
+  // Atributos
+
+  /**
+   * Quantum da simulação.
+   */
+  private final int quantum;
+
+  /**
+   * Nome da política de escalonamento.
+   */
+  private final String politica;
+
+  /**
+   * Número de CPUs simuladas.
+   */
+  private final int numCPUs;
+
+  /**
+   * Número de processos, incluindo os que chegaram durante a simulação.
+   */
+  private final int processos;
+
+  /**
+   * Número de trocas de processos (despachos).
+   */
+  private final long trocas;
+
+  /**
+   * Número de instruções executadas.
+   */
+  private final long instrucoes;
+
+  /**
+   * Média de trocas por processo.
+   */
+  private final double media_trocas;
+
+  /**
+   * Média de instruções por troca.
+   */
+  private final double media_instrucoes;
+
+  /**
+   * Tempo em que a CPU ficou ociosa, no relógio de despachos.
+   */
+  private final long tempo_ocioso;
+
+  /**
+   * Métricas por processo (turnaround, espera, resposta, tempo bloqueado e fatias).
+   */
+  private final MetricasExecucao metricas;
+
+  // Construtor
+
+  /**
+   * Cria o resultado de uma simulação.
+   *
+   * @param quantum O quantum.
+   * @param politica O nome da política de escalonamento.
+   * @param numCPUs O número de CPUs simuladas.
+   * @param processos O número de processos, incluindo os que chegaram durante a simulação.
+   * @param trocas O número de trocas de processos.
+   * @param instrucoes O número de instruções executadas.
+   * @param media_trocas A média de trocas por processo.
+   * @param media_instrucoes A média de instruções por troca.
+   * @param tempo_ocioso O tempo de CPU ociosa, no relógio de despachos.
+   * @param metricas As métricas por processo.
+   */
+  public ResultadoSimulacao(int quantum, String politica, int numCPUs, int processos, long trocas, long instrucoes,
+                            double media_trocas, double media_instrucoes, long tempo_ocioso, MetricasExecucao metricas) {
+    this.quantum = quantum;
+    this.politica = politica;
+    this.numCPUs = numCPUs;
+    this.processos = processos;
+    this.trocas = trocas;
+    this.instrucoes = instrucoes;
+    this.media_trocas = media_trocas;
+    this.media_instrucoes = media_instrucoes;
+    this.tempo_ocioso = tempo_ocioso;
+    this.metricas = metricas;
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém o quantum da simulação.
+   *
+   * @return O quantum.
+   */
+  public int getQuantum() {
+    return this.quantum;
+  }
+
+  /**
+   * Obtém o nome da política de escalonamento.
+   *
+   * @return A política.
+   */
+  public String getPolitica() {
+    return this.politica;
+  }
+
+  /**
+   * Obtém o número de CPUs simuladas.
+   *
+   * @return O número de CPUs.
+   */
+  public int getNumCPUs() {
+    return this.numCPUs;
+  }
+
+  /**
+   * Obtém o número de processos simulados.
+   *
+   * @return O número de processos.
+   */
+  public int getProcessos() {
+    return this.processos;
+  }
+
+  /**
+   * Obtém o número de trocas de processos.
+   *
+   * @return O número de trocas.
+   */
+  public long getTrocas() {
+    return this.trocas;
+  }
+
+  /**
+   * Obtém o número de instruções executadas.
+   *
+   * @return O número de instruções.
+   */
+  public long getInstrucoes() {
+    return this.instrucoes;
+  }
+
+  /**
+   * Obtém a média de trocas por processo.
+   *
+   * @return A média de trocas.
+   */
+  public double getMediaTrocas() {
+    return this.media_trocas;
+  }
+
+  /**
+   * Obtém a média de instruções por troca.
+   *
+   * @return A média de instruções.
+   */
+  public double getMediaInstrucoes() {
+    return this.media_instrucoes;
+  }
+
+  /**
+   * Obtém o tempo em que a CPU ficou ociosa, no relógio de despachos.
+   *
+   * @return O tempo ocioso.
+   */
+  public long getTempoOcioso() {
+    return this.tempo_ocioso;
+  }
+
+  /**
+   * Obtém as métricas por processo.
+   *
+   * @return As métricas.
+   */
+  public MetricasExecucao getMetricas() {
+    return this.metricas;
+  }
+
+  // Métodos
+
+  /**
+   * Escreve o resultado em JSON, em um objeto de uma linha com as configurações, os totais, as médias
+   * e as métricas por processo.
+   *
+   * @param sb O buffer onde o resultado é escrito.
+   */
+  public void formataJSON(StringBuilder sb) {
+    sb.append(String.format(Locale.ROOT,
+                            "{\"quantum\": %d, \"politica\": \"%s\", \"cpus\": %d, \"processos\": %d, \"trocas\": %d, "
+                            + "\"instrucoes\": %d, \"media_trocas\": %.4f, \"media_instrucoes\": %.4f, \"tempo_ocioso\": %d, \"metricas\": ",
+                            this.quantum, this.politica, this.numCPUs, this.processos, this.trocas,
+                            this.instrucoes, this.media_trocas, this.media_instrucoes, this.tempo_ocioso));
+    this.metricas.formataJSON(sb);
+    sb.append('}').append(System.lineSeparator());
+  }
+
+  /**
+   * Escreve as métricas por processo em CSV (veja `MetricasExecucao.formataCSV`).
+   *
+   * @param sb O buffer onde as métricas são escritas.
+   */
+  public void formataCSV(StringBuilder sb) {
+    this.metricas.formataCSV(sb);
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * A interface `SaidaLog` recebe os eventos da simulação que vão para o log de execução: o
+ * carregamento de cada processo, cada despacho na CPU e as linhas do relatório final. Cada despacho
+ * é um único evento, com tudo o que é preciso para escrever as suas linhas, para que as linhas de
+ * uma execução nunca se misturem com as de outra CPU.
+ *
+ * O formato das linhas é definido aqui, para que todas as implementações gerem exatamente o mesmo log.
+ */
+
+public interface SaidaLog {
+  /**
+   * Valor de CPU usado na simulação com uma única CPU, em que as linhas não levam o prefixo "[CPU n] ".
+   */
+  int SEM_CPU = -1;
+
+  /**
+   * Log que descarta todos os eventos, para simulações em que só o resultado interessa.
+   */
+  SaidaLog NENHUMA = combina();
+
+  /**
+   * Registra o carregamento de um processo.
+   *
+   * @param cpu A CPU que recebeu o processo, ou `SEM_CPU`.
+   * @param bcp O processo carregado.
+   */
+  void carregando(int cpu, BCP bcp);
+
+  /**
+   * Registra a execução de um processo na CPU. Os registradores são lidos no momento da chamada.
+   *
+   * @param cpu A CPU que executou o processo, ou `SEM_CPU`.
+   * @param bcp O processo executado.
+   * @param instante O instante do despacho no relógio de despachos.
+   * @param instrucoes O número de instruções executadas.
+   * @param motivo O motivo da parada (veja `Interpretador`).
+   */
+  void despacho(int cpu, BCP bcp, long instante, int instrucoes, int motivo);
+
+  /**
+   * Registra uma linha de texto livre, usada no relatório do fim do log.
+   *
+   * @param linha A linha, sem o fim de linha.
+   */
+  void texto(String linha);
+
+  /**
+   * Grava no arquivo tudo o que já foi publicado, sem fechar o log. Usado antes de um checkpoint, para
+   * que o arquivo tenha exatamente os eventos anteriores a ele.
+   *
+   * @return O número de bytes gravados no arquivo até aqui, ou -1 se o log não for gravado em um arquivo.
+   */
+  long sincroniza();
+
+  /**
+   * Grava tudo o que ainda estiver pendente e fecha o log.
+   */
+  void fecha();
+
+  /**
+   * Combina vários logs em um só: cada evento é repassado a todos, na ordem especificada.
+   *
+   * @param saidas Os logs de destino.
+   * @return O log combinado.
+   */
+  static SaidaLog combina(SaidaLog... saidas) {
+    return new SaidaLog() {
+      @Override
+      public void carregando(int cpu, BCP bcp) {
+        for (SaidaLog saida : saidas) saida.carregando(cpu, bcp);
+      }
+
+      @Override
+      public void despacho(int cpu, BCP bcp, long instante, int instrucoes, int motivo) {
+        for (SaidaLog saida : saidas) saida.despacho(cpu, bcp, instante, instrucoes, motivo);
+      }
+
+      @Override
+      public void texto(String linha) {
+        for (SaidaLog saida : saidas) saida.texto(linha);
+      }
+
+      @Override
+      public long sincroniza() {
+        long posicao = -1;
+        for (int i = 0; i < saidas.length; i++) {
+          long p = saidas[i].sincroniza();
+          if (i == 0) posicao = p;  // A posição informada é a do primeiro log
+        }
+        return posicao;
+      }
+
+      @Override
+      public void fecha() {
+        for (SaidaLog saida : saidas) saida.fecha();
+      }
+    };
+  }
+
+  /**
+   * Formata a linha de carregamento de um processo.
+   *
+   * @param sb O buffer onde a linha é escrita.
+   * @param cpu A CPU que recebeu o processo, ou `SEM_CPU`.
+   * @param nome O nome do processo.
+   */
+  static void formataCarregando(StringBuilder sb, int cpu, String nome) {
+    prefixo(sb, cpu).append("Carregando ").append(nome).append(System.lineSeparator());
+  }
+
+  /**
+   * Formata as linhas de um despacho.
+   *
+   * @param sb O buffer onde as linhas são escritas.
+   * @param cpu A CPU que executou o processo, ou `SEM_CPU`.
+   * @param nome O nome do processo.
+   * @param instrucoes O número de instruções executadas.
+   * @param motivo O motivo da parada.
+   * @param x O valor do registrador X após a execução.
+   * @param y O valor do registrador Y após a execução.
+   */
+  static void formataDespacho(StringBuilder sb, int cpu, String nome, int instrucoes, int motivo, int x, int y) {
+    prefixo(sb, cpu).append("Executando ").append(nome).append(System.lineSeparator());
+
+    if (motivo == Interpretador.ENTRADA_SAIDA)
+      prefixo(sb, cpu).append("E/S iniciada em ").append(nome).append(System.lineSeparator());
+
+    prefixo(sb, cpu).append("Interrompendo ").append(nome).append(" após ").append(instrucoes)
+                    .append(instrucoes == 1 ? " instrução" : " instruções").append(System.lineSeparator());
+
+    if (motivo == Interpretador.SAIDA) {
+      prefixo(sb, cpu).append(nome).append(" terminado. X=").append(x).append(". Y=").append(y)
+                      .append(System.lineSeparator());
+    }
+  }
+
+  /**
+   * Escreve o prefixo da CPU, se houver.
+   *
+   * @param sb O buffer.
+   * @param cpu A CPU, ou `SEM_CPU`.
+   * @return O próprio buffer.
+   */
+  private static StringBuilder prefixo(StringBuilder sb, int cpu) {
+    if (cpu != SEM_CPU) sb.append("[CPU ").append(cpu).append("] ");
+    return sb;
+  }
+}
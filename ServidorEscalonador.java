@@ -0,0 +1,347 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A classe `ServidorEscalonador` mantém o escalonador carregado em uma JVM já aquecida e executa
+ * simulações pedidas por um socket local, sem pagar a partida da JVM a cada simulação. Cada conexão
+ * envia um lote e recebe de volta o log da simulação, à medida que é gerado; várias conexões são
+ * atendidas ao mesmo tempo, cada uma em uma thread do pool.
+ *
+ * O pedido é texto UTF-8 até o fim da conexão (o cliente fecha a escrita), em blocos separados por
+ * linhas em branco. O primeiro bloco tem os parâmetros, um por linha: `QUANTUM=n` (obrigatório),
+ * `POLITICA=p`, `LATENCIA-ES=n`, `CPUS=n`, `LIMITE=n` (número máximo de despachos,
+ * padrão `LIMITE_PADRAO`), `LIMITE-INSTRUCOES=n` (número máximo de instruções, somando todas as CPUs,
+ * padrão `LIMITE_INSTRUCOES_PADRAO`) e `DISPOSITIVO=NOME:CAPACIDADE:DISTRIBUICAO:PARAMETROS` (pode ser repetido). Cada bloco seguinte é um programa, no formato dos arquivos de programa:
+ *
+ *     QUANTUM=3
+ *     POLITICA=rr
+ *
+ *     TESTE-1
+ *     COM
+ *     SAIDA
+ *
+ * A resposta é o log da simulação, idêntico ao `logNN.txt`, seguido de uma linha "ESTATÍSTICAS" com as
+ * médias e as métricas em JSON (veja `ResultadoSimulacao.formataJSON`). Um pedido inválido recebe uma única
+ * linha "ERRO: ..."; uma simulação que falha ou passa do limite de despachos ou de instruções termina
+ * com essa linha depois do log gerado até ali. Como cada simulação ocupa uma thread do pool, os parâmetros
+ * que definem o seu custo são limitados: `QUANTUM` até `QUANTUM_MAXIMO`, `CPUS` até o número de núcleos
+ * da máquina e os limites até `LIMITE_MAXIMO` e `LIMITE_INSTRUCOES_MAXIMO`; valores fora da faixa
+ * recebem "ERRO: ...". Cada pedido é executado por uma `Simulacao` independente. Por exemplo, com o netcat:
+ * `nc -N localhost 7070 < lote.txt`.
+ */
+
+public class ServidorEscalonador {
+  // Atributos
+
+  /**
+   * Porta padrão do servidor.
+   */
+  public static final int PORTA_PADRAO = 7070;
+
+  /**
+   * Tamanho máximo de um pedido, em bytes.
+   */
+  private static final int LIMITE_PEDIDO = 64 << 20;
+
+  /**
+   * Número máximo de despachos de uma simulação, quando o pedido não define `LIMITE`. Programas com
+   * saltos podem nunca terminar, e cada simulação ocupa uma thread do pool até acabar.
+   */
+  public static final long LIMITE_PADRAO = 1_000_000;
+
+  /**
+   * Maior valor aceito para `LIMITE`.
+   */
+  public static final long LIMITE_MAXIMO = 100_000_000;
+
+  /**
+   * Número máximo de instruções de uma simulação, somando todas as CPUs, quando o pedido não define
+   * `LIMITE-INSTRUCOES`. O limite de despachos sozinho não basta: cada despacho executa até um quantum.
+   */
+  public static final long LIMITE_INSTRUCOES_PADRAO = 100_000_000;
+
+  /**
+   * Maior valor aceito para `LIMITE-INSTRUCOES`.
+   */
+  public static final long LIMITE_INSTRUCOES_MAXIMO = 1_000_000_000;
+
+  /**
+   * Maior valor aceito para `QUANTUM`.
+   */
+  public static final int QUANTUM_MAXIMO = 1_000_000;
+
+  /**
+   * Canal que aceita as conexões, ligado apenas ao endereço local.
+   */
+  private final ServerSocketChannel canal;
+
+  /**
+   * Threads que atendem os pedidos, uma simulação por vez em cada uma.
+   */
+  private final ExecutorService simulacoes;
+
+  /**
+   * Número de pedidos atendidos.
+   */
+  private final AtomicInteger atendidos = new AtomicInteger();
+
+  // Construtor
+
+  /**
+   * Cria o servidor e começa a aceitar conexões na porta especificada do endereço local.
+   *
+   * @param porta A porta (0 para uma porta livre qualquer).
+   * @param simultaneas O número máximo de simulações executadas ao mesmo tempo.
+   * @throws IOException Se não for possível abrir a porta.
+   */
+  public ServidorEscalonador(int porta, int simultaneas) throws IOException {
+    this.canal = ServerSocketChannel.open();
+    this.canal.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+    this.simulacoes = Executors.newFixedThreadPool(Math.max(simultaneas, 1));
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Obtém a porta em que o servidor aceita conexões.
+   *
+   * @return A porta.
+   */
+  public int getPorta() {
+    try {
+      return ((InetSocketAddress) this.canal.getLocalAddress()).getPort();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Obtém o número de pedidos atendidos.
+   *
+   * @return O número de pedidos.
+   */
+  public int getAtendidos() {
+    return this.atendidos.get();
+  }
+
+  // Métodos
+
+  /**
+   * Aceita conexões até o servidor ser fechado, entregando cada uma ao pool de simulações.
+   */
+  public void executar() {
+    try {
+      while (true) {
+        SocketChannel cliente = this.canal.accept();
+        this.simulacoes.execute(() -> this.atende(cliente));
+      }
+    } catch (ClosedChannelException e) {
+      // O servidor foi fechado
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao aceitar uma conexão.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Fecha o servidor. As simulações em andamento terminam normalmente.
+   */
+  public void fecha() {
+    try {
+      this.canal.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    this.simulacoes.shutdown();
+  }
+
+  /**
+   * Lê o pedido de uma conexão, executa a simulação e envia a resposta.
+   *
+   * @param cliente A conexão.
+   */
+  private void atende(SocketChannel cliente) {
+    try (cliente) {
+      PrintWriter writer = new PrintWriter(new BufferedWriter(Channels.newWriter(cliente, StandardCharsets.UTF_8)));
+      ByteBuffer pedido = leitura(cliente);
+      if (pedido == null) writer.println("ERRO: pedido maior que " + (LIMITE_PEDIDO >> 20) + " MB");
+      else simula(pedido, writer);
+      writer.flush();
+      this.atendidos.incrementAndGet();
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao atender uma conexão.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Lê tudo o que o cliente enviar, até ele fechar a escrita.
+   *
+   * @return O pedido, ou null se passar do limite.
+   */
+  private static ByteBuffer leitura(SocketChannel cliente) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    while (cliente.read(buffer) >= 0) {
+      if (buffer.hasRemaining()) continue;
+      if (buffer.capacity() >= LIMITE_PEDIDO) return null;
+      buffer = ByteBuffer.allocate(Math.min(2 * buffer.capacity(), LIMITE_PEDIDO)).put(buffer.flip());
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Executa a simulação de um pedido e escreve o log e as estatísticas.
+   *
+   * @param pedido O conteúdo do pedido: os parâmetros e os programas, em blocos separados por linhas em branco.
+   * @param writer O destino da resposta.
+   */
+  public static void simula(ByteBuffer pedido, PrintWriter writer) {
+    Simulacao simulacao;
+    try {
+      // Separando os blocos: o primeiro tem os parâmetros e cada um dos demais é um programa
+      String[] blocos = StandardCharsets.UTF_8.decode(pedido).toString().split("\\R(?:[ \\t]*\\R)+");
+
+      simulacao = leParametros(blocos[0]);
+      for (int i = 1; i < blocos.length; i++) {
+        if (!blocos[i].isBlank()) simulacao.adicionaPrograma(blocos[i]);
+      }
+      if (simulacao.getNumProgramas() == 0) throw new IllegalArgumentException("nenhum programa no pedido");
+    } catch (IllegalArgumentException e) {
+      writer.println("ERRO: " + e.getMessage());
+      return;
+    }
+
+    LogTexto log = new LogTexto(writer);
+    ResultadoSimulacao resultado;
+    try {
+      resultado = simulacao.executa(log);
+    } catch (IllegalStateException e) {
+      // Limite de despachos
+      log.fecha();
+      writer.println("ERRO: " + e.getMessage());
+      return;
+    } catch (RuntimeException e) {
+      System.out.println("Ocorreu um erro ao executar uma simulação.");
+      e.printStackTrace();
+      log.fecha();
+      writer.println("ERRO: " + e);
+      return;
+    }
+    log.fecha();
+
+    StringBuilder sb = new StringBuilder("ESTATÍSTICAS ");
+    resultado.formataJSON(sb);
+    writer.append(sb);
+  }
+
+  /**
+   * Cria a simulação com os parâmetros do primeiro bloco do pedido.
+   *
+   * @throws IllegalArgumentException Se algum parâmetro for inválido ou estiver fora da faixa aceita, ou se
+   *                                  o quantum não for definido.
+   */
+  private static Simulacao leParametros(String bloco) {
+    int quantum = 0, latencia = FilaBloq.LATENCIA_PADRAO, cpus = 1;
+    long limite = LIMITE_PADRAO, limite_instrucoes = LIMITE_INSTRUCOES_PADRAO;
+    String politica = "rr";
+    List<String> dispositivos = new ArrayList<>();
+    for (String linha : bloco.split("\\R")) {
+      linha = linha.trim();
+      if (linha.isEmpty()) continue;
+
+      int igual = linha.indexOf('=');
+      if (igual < 0) throw new IllegalArgumentException("parâmetro inválido: " + linha);
+      String chave = linha.substring(0, igual).trim(), valor = linha.substring(igual + 1).trim();
+      try {
+        switch (chave) {
+          case "QUANTUM":     quantum = Integer.parseInt(valor); break;
+          case "POLITICA":    politica = valor; break;
+          case "LATENCIA-ES": latencia = Integer.parseInt(valor); break;
+          case "CPUS":        cpus = Integer.parseInt(valor); break;
+          case "LIMITE":      limite = Long.parseLong(valor); break;
+          case "LIMITE-INSTRUCOES": limite_instrucoes = Long.parseLong(valor); break;
+          case "DISPOSITIVO": dispositivos.add(valor); break;
+          default:            throw new IllegalArgumentException("parâmetro desconhecido: " + chave);
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("valor inválido: " + linha);
+      }
+    }
+
+    if (quantum == 0) throw new IllegalArgumentException("QUANTUM não definido");
+    verificaFaixa("QUANTUM", quantum, 1, QUANTUM_MAXIMO);
+    verificaFaixa("CPUS", cpus, 1, Runtime.getRuntime().availableProcessors());
+    verificaFaixa("LATENCIA-ES", latencia, 0, Integer.MAX_VALUE);
+    verificaFaixa("LIMITE", limite, 1, LIMITE_MAXIMO);
+    verificaFaixa("LIMITE-INSTRUCOES", limite_instrucoes, 1, LIMITE_INSTRUCOES_MAXIMO);
+    Simulacao simulacao = new Simulacao(quantum);
+    simulacao.setPolitica(politica);
+    simulacao.setLatenciaES(latencia);
+    simulacao.setNumCPUs(cpus);
+    simulacao.setLimiteDespachos(limite);
+    simulacao.setLimiteInstrucoes(limite_instrucoes);
+    for (String dispositivo : dispositivos) simulacao.adicionaDispositivo(dispositivo);
+    return simulacao;
+  }
+
+  /**
+   * Verifica se o valor de um parâmetro está dentro da faixa aceita.
+   *
+   * @throws IllegalArgumentException Se o valor estiver fora da faixa.
+   */
+  private static void verificaFaixa(String chave, long valor, long minimo, long maximo) {
+    if (valor < minimo || valor > maximo) {
+      throw new IllegalArgumentException(chave + " deve estar entre " + minimo + " e " + maximo + ": " + valor);
+    }
+  }
+
+  /**
+   * Inicia o servidor e atende pedidos até o processo ser encerrado.
+   *
+   * Uso: `java ServidorEscalonador [--porta N] [--simulacoes N]`.
+   *
+   * @param args Os argumentos da linha de comando.
+   */
+  public static void main(String[] args) {
+    int porta = PORTA_PADRAO;
+    int simultaneas = Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--porta") && i + 1 < args.length) {
+        porta = Integer.parseInt(args[++i]);
+      }
+      else if (args[i].equals("--simulacoes") && i + 1 < args.length) {
+        simultaneas = Integer.parseInt(args[++i]);
+      }
+      else {
+        System.out.println("Uso: java ServidorEscalonador [--porta N] [--simulacoes N]");
+        return;
+      }
+    }
+
+    ServidorEscalonador servidor;
+    try {
+      servidor = new ServidorEscalonador(porta, simultaneas);
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao abrir a porta " + porta + ".");
+      e.printStackTrace();
+      return;
+    }
+    System.out.println("Servidor escutando em " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + servidor.getPorta()
+                       + " (" + simultaneas + " simulações simultâneas)");
+    servidor.executar();
+  }
+}
@@ -0,0 +1,265 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A classe `Simulacao` permite usar o escalonador como biblioteca: a simulação é montada em memória
+ * (configurações, programas e dispositivos de E/S), executada e devolve um `ResultadoSimulacao`, e os
+ * eventos da execução são publicados em um `SaidaLog` escolhido por quem chama, sem ler as pastas
+ * "programas" e "logs" nem gravar arquivos.
+ *
+ * A simulação só guarda a descrição do que deve ser executado: cada chamada de `executa` cria o seu
+ * próprio escalonador, com a sua tabela de processos, filas e dispositivos, e os programas compilados
+ * são compartilhados por serem imutáveis. O único estado estático mutável é a tabela de compilações do
+ * `CompiladorBytecode`, usada apenas com `setBytecode(true)`: ela é da JVM inteira, indexada pelo conteúdo
+ * do programa, e guarda a contagem de despachos que decide quando cada programa é compilado e o código
+ * gerado, para até 65.536 programas distintos, sem nunca remover entradas. Ela é segura entre threads e
+ * não muda o log nem o resultado, mas os despachos de uma simulação contam para as outras com os mesmos
+ * programas. Fora isso, muitas simulações (ou a mesma simulação várias vezes) podem ser executadas ao
+ * mesmo tempo em um pool de threads:
+ *
+ *     Simulacao simulacao = new Simulacao(3);
+ *     simulacao.adicionaPrograma("TESTE-1\nX=2\nCOM\nE/S\nSAIDA\n");
+ *     ResultadoSimulacao resultado = simulacao.executa();
+ *
+ * Os programas e as configurações não devem ser mudados enquanto a simulação executa.
+ */
+
+public class Simulacao {
+  // Atributos
+
+  /**
+   * Quantum da simulação.
+   */
+  private int quantum;
+
+  /**
+   * Nome da política de escalonamento (veja `PoliticaEscalonamento.cria`).
+   */
+  private String politica = "rr";
+
+  /**
+   * Latência das operações de E/S, em despachos, quando não há dispositivos.
+   */
+  private int latencia_es = FilaBloq.LATENCIA_PADRAO;
+
+  /**
+   * Número de CPUs simuladas.
+   */
+  private int numCPUs = 1;
+
+  /**
+   * Indica se os programas são executados pelo código compilado para bytecode.
+   */
+  private boolean bytecode;
+
+  /**
+   * Número máximo de despachos de uma execução (0 para não limitar).
+   */
+  private long limite_despachos;
+
+  /**
+   * Número máximo de instruções de uma execução, somando todas as CPUs (0 para não limitar).
+   */
+  private long limite_instrucoes;
+
+  /**
+   * Especificações dos dispositivos de E/S. Cada execução cria os seus dispositivos, que guardam o
+   * estado das filas e por isso não podem ser compartilhados.
+   */
+  private final List<String> dispositivos = new ArrayList<>();
+
+  /**
+   * Programas dos processos, na ordem em que foram adicionados.
+   */
+  private final List<Escalonador.ProgramaLido> programas = new ArrayList<>();
+
+  // Construtor
+
+  /**
+   * Cria uma simulação vazia com o quantum especificado.
+   *
+   * @param quantum O quantum.
+   * @throws IllegalArgumentException Se o quantum não for positivo.
+   */
+  public Simulacao(int quantum) {
+    this.setQuantum(quantum);
+  }
+
+  // Métodos de Acesso
+
+  /**
+   * Define o quantum da simulação.
+   *
+   * @param quantum O quantum.
+   * @throws IllegalArgumentException Se o quantum não for positivo.
+   */
+  public void setQuantum(int quantum) {
+    if (quantum <= 0) throw new IllegalArgumentException("o quantum deve ser positivo: " + quantum);
+    this.quantum = quantum;
+  }
+
+  /**
+   * Obtém o quantum da simulação.
+   *
+   * @return O quantum.
+   */
+  public int getQuantum() {
+    return this.quantum;
+  }
+
+  /**
+   * Define a política de escalonamento.
+   *
+   * @param politica O nome da política: "rr", "srt", "prioridade", "mlfq", "loteria" ou "cfs".
+   * @throws IllegalArgumentException Se o nome não corresponder a nenhuma política.
+   */
+  public void setPolitica(String politica) {
+    PoliticaEscalonamento.cria(politica);  // Valida o nome
+    this.politica = politica;
+  }
+
+  /**
+   * Define a latência das operações de E/S, usada quando não há dispositivos.
+   *
+   * @param latencia A latência de E/S, em despachos.
+   */
+  public void setLatenciaES(int latencia) {
+    this.latencia_es = latencia;
+  }
+
+  /**
+   * Define o número de CPUs simuladas.
+   *
+   * @param numCPUs O número de CPUs.
+   */
+  public void setNumCPUs(int numCPUs) {
+    this.numCPUs = Math.max(numCPUs, 1);
+  }
+
+  /**
+   * Define se os programas são compilados para bytecode da JVM (veja `CompiladorBytecode`) em vez de
+   * interpretados. O resultado é o mesmo. Os programas continuam imutáveis: o código gerado fica em uma
+   * tabela à parte, compartilhada pelas simulações da JVM que executam o mesmo programa.
+   *
+   * @param bytecode true para usar o código compilado, false para o interpretador.
+   */
+  public void setBytecode(boolean bytecode) {
+    this.bytecode = bytecode;
+  }
+
+  /**
+   * Define o número máximo de despachos de cada execução, no relógio de despachos. Com os saltos, um
+   * programa pode nunca terminar; a execução que chegar ao limite com processos ainda não terminados
+   * é interrompida com uma `IllegalStateException`.
+   *
+   * @param limite O número máximo de despachos (0 para não limitar).
+   */
+  public void setLimiteDespachos(long limite) {
+    this.limite_despachos = limite;
+  }
+
+  /**
+   * Define o número máximo de instruções de cada execução, somando todas as CPUs. A execução que chegar
+   * ao limite com processos ainda não terminados é interrompida com uma `IllegalStateException`.
+   *
+   * @param limite O número máximo de instruções (0 para não limitar).
+   */
+  public void setLimiteInstrucoes(long limite) {
+    this.limite_instrucoes = limite;
+  }
+
+  /**
+   * Obtém o número de programas adicionados.
+   *
+   * @return O número de programas.
+   */
+  public int getNumProgramas() {
+    return this.programas.size();
+  }
+
+  // Métodos
+
+  /**
+   * Adiciona um dispositivo de E/S, no lugar da latência fixa (veja `DispositivoES.cria`).
+   *
+   * @param especificacao A especificação "NOME:CAPACIDADE:DISTRIBUICAO:PARAMETROS".
+   * @throws IllegalArgumentException Se a especificação for inválida.
+   */
+  public void adicionaDispositivo(String especificacao) {
+    DispositivoES.cria(especificacao);  // Valida a especificação
+    this.dispositivos.add(especificacao);
+  }
+
+  /**
+   * Adiciona um programa no formato dos arquivos de programa: o nome na primeira linha, as linhas
+   * opcionais "PRIORIDADE=n" e "CHEGADA=n" e as instruções nas demais.
+   *
+   * @param conteudo O texto do programa.
+   * @throws IllegalArgumentException Se o programa contiver uma linha inválida.
+   */
+  public void adicionaPrograma(String conteudo) {
+    int numero = this.programas.size() + 1;
+    ByteBuffer bytes = ByteBuffer.wrap(conteudo.getBytes(StandardCharsets.UTF_8));
+    this.programas.add(Escalonador.lePrograma("programa " + numero, numero, bytes));
+  }
+
+  /**
+   * Adiciona um programa já compilado.
+   *
+   * @param nome O nome do processo.
+   * @param programa O programa.
+   * @param prioridade A prioridade do processo (usada pela política "prioridade").
+   * @param chegada O instante de chegada do processo, no relógio de despachos.
+   */
+  public void adicionaPrograma(String nome, Programa programa, int prioridade, long chegada) {
+    Escalonador.ProgramaLido lido = new Escalonador.ProgramaLido();
+    lido.nome = nome;
+    lido.nome_arquivo = this.programas.size() + 1;
+    lido.programa = programa;
+    lido.prioridade = prioridade;
+    lido.chegada = chegada;
+    this.programas.add(lido);
+  }
+
+  /**
+   * Executa a simulação descartando os eventos.
+   *
+   * @return O resultado da simulação.
+   */
+  public ResultadoSimulacao executa() {
+    return this.executa(SaidaLog.NENHUMA);
+  }
+
+  /**
+   * Executa a simulação, publicando os eventos no log especificado. O log não é fechado, para que
+   * quem chama possa continuar usando o destino.
+   *
+   * @param eventos O destino dos eventos da simulação (por exemplo, um `LogTexto`).
+   * @return O resultado da simulação.
+   * @throws IllegalStateException Se nenhum programa foi adicionado ou se a execução passar do limite de despachos
+   *                               ou de instruções.
+   */
+  public ResultadoSimulacao executa(SaidaLog eventos) {
+    if (this.programas.isEmpty()) throw new IllegalStateException("nenhum programa na simulação");
+
+    Escalonador escalonador = new Escalonador();
+    escalonador.setQuantum(this.quantum);
+    escalonador.setPolitica(this.politica);
+    escalonador.setLatenciaES(this.latencia_es);
+    escalonador.setNumCPUs(this.numCPUs);
+    escalonador.setBytecode(this.bytecode);
+    escalonador.setLimiteDespachos(this.limite_despachos);
+    escalonador.setLimiteInstrucoes(this.limite_instrucoes);
+
+    List<DispositivoES> dispositivos = new ArrayList<>();
+    for (String especificacao : this.dispositivos) dispositivos.add(DispositivoES.cria(especificacao));
+    escalonador.setDispositivos(dispositivos);
+
+    escalonador.carregar(this.programas.toArray(new Escalonador.ProgramaLido[0]));
+    escalonador.novaFila();
+    escalonador.simular(eventos);
+    return escalonador.getResultado();
+  }
+}
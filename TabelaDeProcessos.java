@@ -1,27 +1,120 @@
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 
 /**
  * A classe `TabelaDeProcessos` representa uma tabela que mantém o controle e informações sobre
- * processos em um ambiente de escalonamento. Ela armazena uma lista de BCPs (Blocos de Controle de Processo)
+ * processos em um ambiente de escalonamento. Ela armazena os dados dos BCPs (Blocos de Controle de Processo)
  * que contêm detalhes sobre cada processo, como seu estado, número de instruções executadas e outros
  * atributos relacionados.
+ *
+ * Os dados ficam em vetores paralelos de tipos primitivos, indexados pelo identificador do processo,
+ * para que tabelas com milhões de processos ocupem pouca memória. Um `BCP` é apenas uma visão sobre
+ * uma posição desses vetores.
  */
 
 public class TabelaDeProcessos{
-  protected int n_trocas;  // Número de troca de processos
-  protected int n_instrucoes;  // Número de instruções executadas
+  protected long n_trocas;  // Número de troca de processos
+  protected long n_instrucoes;  // Número de instruções executadas
+  protected long tempo_ocioso;  // Despachos em que a CPU ficou ociosa com todos os processos bloqueados
 
   /**
-   * Lista de BCPs que representam os processos mantidos na tabela.
+   * Capacidade inicial dos vetores da tabela.
    */
-  public List<BCP> processos;
+  private static final int CAPACIDADE_INICIAL = 16;
+
+  // Vetores paralelos indexados pelo identificador do processo
+
+  /**
+   * Program Counter de cada processo.
+   */
+  int[] pc;
+
+  /**
+   * Registrador X de cada processo.
+   */
+  int[] x;
+
+  /**
+   * Registrador Y de cada processo.
+   */
+  int[] y;
+
+  /**
+   * Estado de cada processo, armazenado como o código de `Estado`.
+   */
+  byte[] estado;
+
+  /**
+   * Instante, no relógio de despachos, em que cada processo bloqueado termina sua E/S.
+   */
+  long[] despertar;
+
+  /**
+   * Prioridade estática de cada processo, no estilo do "nice" do Unix: valores menores indicam
+   * processos mais importantes (padrão 0).
+   */
+  int[] prioridade;
+
+  /**
+   * Valor mantido pela política de escalonamento para cada processo (por exemplo, o nível na fila
+   * multinível ou o tempo virtual no escalonador justo).
+   */
+  long[] dado_politica;
+
+  /**
+   * Programa compilado de cada processo.
+   */
+  Programa[] programa;
+
+  /**
+   * Nome de cada processo.
+   */
+  String[] nome;
+
+  /**
+   * Identificador do arquivo de origem de cada processo.
+   */
+  int[] nome_arquivo;
+
+  /**
+   * Instante, no relógio de despachos, em que cada processo chega ao sistema (0 para os processos
+   * presentes desde o início).
+   */
+  long[] chegada;
+
+  // Métricas de cada processo, em instantes do relógio de despachos (veja `MetricasExecucao`)
+
+  /**
+   * Instante do primeiro despacho de cada processo (-1 enquanto ele não foi executado).
+   */
+  long[] primeiro_despacho;
+
+  /**
+   * Instante seguinte ao último despacho de cada processo terminado.
+   */
+  long[] termino;
+
+  /**
+   * Tempo que cada processo passou na fila de bloqueados.
+   */
+  long[] tempo_bloqueado;
+
+  /**
+   * Número de despachos (fatias de CPU) de cada processo.
+   */
+  int[] fatias;
+
+  /**
+   * Número de processos já criados na tabela (é também o próximo identificador livre).
+   */
+  private int n_criados;
+
+  /**
+   * Número de processos que ainda não terminaram.
+   */
+  private int n_ativos;
 
   // Construtores
 
@@ -29,58 +122,256 @@ public class TabelaDeProcessos{
    * Construtor padrão para criar uma tabela de processos vazia.
    */
   public TabelaDeProcessos() {
-    this.processos = new ArrayList<>();
+    this(CAPACIDADE_INICIAL);
   }
 
   /**
-   * Construtor que permite inicializar a tabela com uma lista de processos existentes.
+   * Cria uma tabela de processos vazia com capacidade inicial para o número de processos especificado.
    *
-   * @param processos Uma lista de BCPs para inicializar a tabela.
+   * @param capacidade O número de processos esperado.
    */
-  public TabelaDeProcessos(List<BCP> processos) {
-    this.processos = processos;
+  public TabelaDeProcessos(int capacidade) {
+    capacidade = Math.max(capacidade, 1);
+    this.pc = new int[capacidade];
+    this.x = new int[capacidade];
+    this.y = new int[capacidade];
+    this.estado = new byte[capacidade];
+    this.despertar = new long[capacidade];
+    this.prioridade = new int[capacidade];
+    this.dado_politica = new long[capacidade];
+    this.programa = new Programa[capacidade];
+    this.nome = new String[capacidade];
+    this.nome_arquivo = new int[capacidade];
+    this.chegada = new long[capacidade];
+    this.primeiro_despacho = new long[capacidade];
+    this.termino = new long[capacidade];
+    this.tempo_bloqueado = new long[capacidade];
+    this.fatias = new int[capacidade];
   }
 
   // Métodos de Acesso
 
   /**
-   * Obtém o tamanho da lista de processos na tabela.
+   * Obtém o número de processos da tabela que ainda não terminaram.
    *
-   * @return O tamanho da lista de processos.
+   * @return O número de processos ativos.
    */
   public int getTamanhoLista(){
-    return this.processos.size();
-  } 
+    return this.n_ativos;
+  }
 
   /**
-   * Adiciona um novo BCP à lista de processos na tabela.
+   * Obtém o número de processos já criados na tabela, incluindo os terminados. Os identificadores
+   * válidos vão de 0 até esse valor menos 1.
    *
-   * @param bcp O BCP a ser adicionado.
+   * @return O número de processos criados.
    */
-  public void addBCP(BCP bcp) {
-    this.processos.add(bcp);
+  public int getNumCriados(){
+    return this.n_criados;
   }
 
   /**
-   * Exclui um processo da lista de processos que já foi executado por completo.
+   * Cria um novo processo na tabela, no estado "Pronto" e com PC e registradores zerados.
+   *
+   * @param nome O nome do processo.
+   * @param nome_arquivo O identificador de arquivo associado ao processo.
+   * @param programa O código compilado do programa.
+   * @return O BCP do processo criado.
+   */
+  public BCP novoProcesso(String nome, int nome_arquivo, Programa programa) {
+    if (this.n_criados == this.pc.length) this.aumentaCapacidade();
+
+    int id = this.n_criados++;
+    this.estado[id] = Estado.PRONTO.getCodigo();
+    this.programa[id] = programa;
+    this.nome[id] = nome;
+    this.nome_arquivo[id] = nome_arquivo;
+    this.primeiro_despacho[id] = -1;
+    this.n_ativos++;
+
+    return new BCP(this, id);
+  }
+
+  /**
+   * Obtém o BCP do processo com o identificador especificado.
+   *
+   * @param id O identificador do processo.
+   * @return O BCP do processo.
+   */
+  public BCP getBCP(int id) {
+    return new BCP(this, id);
+  }
+
+  /**
+   * Registra um despacho de um processo nas suas métricas.
+   *
+   * @param id O identificador do processo.
+   * @param instante O instante do despacho no relógio de despachos.
+   * @param motivo O motivo da parada (veja `Interpretador`).
+   */
+  public void registraDespacho(int id, long instante, int motivo) {
+    if (this.primeiro_despacho[id] < 0) this.primeiro_despacho[id] = instante;
+    if (motivo == Interpretador.SAIDA) this.termino[id] = instante + 1;
+    this.fatias[id]++;
+  }
+
+  /**
+   * Exclui um processo que já foi executado por completo, marcando-o como terminado. A operação
+   * tem custo constante; os dados do processo continuam disponíveis para consulta.
    *
    * @param bcp O BCP a ser excluído.
    */
-  public void excluiBCP(BCP bcp){ 
-    this.processos.remove(bcp);
+  public void excluiBCP(BCP bcp){
+    if (this.estado[bcp.getId()] == Estado.TERMINADO.getCodigo()) return;
+    this.estado[bcp.getId()] = Estado.TERMINADO.getCodigo();
+    this.n_ativos--;
+  }
+
+  /**
+   * Cria uma cópia independente da tabela, com os seus próprios registradores, estados e contadores.
+   * Os programas compilados são imutáveis e ficam compartilhados entre a tabela e a cópia.
+   *
+   * @return A cópia da tabela.
+   */
+  public TabelaDeProcessos copia() {
+    TabelaDeProcessos copia = new TabelaDeProcessos(0);
+    copia.pc = this.pc.clone();
+    copia.x = this.x.clone();
+    copia.y = this.y.clone();
+    copia.estado = this.estado.clone();
+    copia.despertar = this.despertar.clone();
+    copia.prioridade = this.prioridade.clone();
+    copia.dado_politica = this.dado_politica.clone();
+    copia.programa = this.programa.clone();
+    copia.nome = this.nome.clone();
+    copia.nome_arquivo = this.nome_arquivo.clone();
+    copia.chegada = this.chegada.clone();
+    copia.primeiro_despacho = this.primeiro_despacho.clone();
+    copia.termino = this.termino.clone();
+    copia.tempo_bloqueado = this.tempo_bloqueado.clone();
+    copia.fatias = this.fatias.clone();
+    copia.n_criados = this.n_criados;
+    copia.n_ativos = this.n_ativos;
+    copia.n_trocas = this.n_trocas;
+    copia.n_instrucoes = this.n_instrucoes;
+    copia.tempo_ocioso = this.tempo_ocioso;
+    return copia;
+  }
+
+  /**
+   * Grava em um checkpoint o estado de execução de todos os processos: PC, registradores, estado,
+   * instante de despertar, prioridade, dado da política, chegada e métricas, além dos contadores da tabela. Os programas
+   * não são gravados; no lugar deles vai uma assinatura (nomes e tamanhos), conferida na restauração.
+   *
+   * @param saida O destino do checkpoint.
+   * @throws IOException Se não for possível gravar.
+   */
+  public void salva(DataOutputStream saida) throws IOException {
+    saida.writeInt(this.n_criados);
+    saida.writeInt(this.n_ativos);
+    saida.writeLong(this.n_trocas);
+    saida.writeLong(this.n_instrucoes);
+    saida.writeLong(this.tempo_ocioso);
+    saida.writeLong(this.assinatura());
+
+    for (int i = 0; i < this.n_criados; i++) {
+      saida.writeInt(this.pc[i]);
+      saida.writeInt(this.x[i]);
+      saida.writeInt(this.y[i]);
+      saida.writeByte(this.estado[i]);
+      saida.writeLong(this.despertar[i]);
+      saida.writeInt(this.prioridade[i]);
+      saida.writeLong(this.dado_politica[i]);
+      saida.writeLong(this.chegada[i]);
+      saida.writeLong(this.primeiro_despacho[i]);
+      saida.writeLong(this.termino[i]);
+      saida.writeLong(this.tempo_bloqueado[i]);
+      saida.writeInt(this.fatias[i]);
+    }
+  }
+
+  /**
+   * Restaura o estado gravado por `salva` sobre os mesmos programas, já carregados nesta tabela.
+   *
+   * @param entrada A origem do checkpoint.
+   * @throws IOException Se não for possível ler.
+   * @throws IllegalArgumentException Se o checkpoint for de outros programas.
+   */
+  public void restaura(DataInputStream entrada) throws IOException {
+    int n_criados = entrada.readInt();
+    int n_ativos = entrada.readInt();
+    long n_trocas = entrada.readLong();
+    long n_instrucoes = entrada.readLong();
+    long tempo_ocioso = entrada.readLong();
+    long assinatura = entrada.readLong();
+    if (n_criados != this.n_criados || assinatura != this.assinatura())
+      throw new IllegalArgumentException("checkpoint não corresponde aos programas carregados");
+
+    this.n_ativos = n_ativos;
+    this.n_trocas = n_trocas;
+    this.n_instrucoes = n_instrucoes;
+    this.tempo_ocioso = tempo_ocioso;
+    for (int i = 0; i < this.n_criados; i++) {
+      this.pc[i] = entrada.readInt();
+      this.x[i] = entrada.readInt();
+      this.y[i] = entrada.readInt();
+      this.estado[i] = entrada.readByte();
+      this.despertar[i] = entrada.readLong();
+      this.prioridade[i] = entrada.readInt();
+      this.dado_politica[i] = entrada.readLong();
+      this.chegada[i] = entrada.readLong();
+      this.primeiro_despacho[i] = entrada.readLong();
+      this.termino[i] = entrada.readLong();
+      this.tempo_bloqueado[i] = entrada.readLong();
+      this.fatias[i] = entrada.readInt();
+    }
+  }
+
+  /**
+   * Calcula uma assinatura dos programas da tabela, a partir do nome e do tamanho de cada um.
+   */
+  private long assinatura() {
+    long h = 1125899906842597L;
+    for (int i = 0; i < this.n_criados; i++) {
+      h = 31 * h + (this.nome[i] != null ? this.nome[i].hashCode() : 0);
+      h = 31 * h + this.programa[i].getTamanho();
+    }
+    return h;
+  }
+
+  /**
+   * Dobra a capacidade de todos os vetores da tabela.
+   */
+  private void aumentaCapacidade() {
+    int capacidade = this.pc.length * 2;
+    this.pc = Arrays.copyOf(this.pc, capacidade);
+    this.x = Arrays.copyOf(this.x, capacidade);
+    this.y = Arrays.copyOf(this.y, capacidade);
+    this.estado = Arrays.copyOf(this.estado, capacidade);
+    this.despertar = Arrays.copyOf(this.despertar, capacidade);
+    this.prioridade = Arrays.copyOf(this.prioridade, capacidade);
+    this.dado_politica = Arrays.copyOf(this.dado_politica, capacidade);
+    this.programa = Arrays.copyOf(this.programa, capacidade);
+    this.nome = Arrays.copyOf(this.nome, capacidade);
+    this.nome_arquivo = Arrays.copyOf(this.nome_arquivo, capacidade);
+    this.chegada = Arrays.copyOf(this.chegada, capacidade);
+    this.primeiro_despacho = Arrays.copyOf(this.primeiro_despacho, capacidade);
+    this.termino = Arrays.copyOf(this.termino, capacidade);
+    this.tempo_bloqueado = Arrays.copyOf(this.tempo_bloqueado, capacidade);
+    this.fatias = Arrays.copyOf(this.fatias, capacidade);
   }
 
   // Outros Métodos
 
   /**
-   * Exibe informações detalhadas sobre todos os BCPs na tabela, incluindo seus estados,
+   * Exibe informações detalhadas sobre todos os BCPs ativos na tabela, incluindo seus estados,
    * Program Counters (PCs), valores de X e Y e programas associados.
    */
   public void printTabela(){
     System.out.println("***TABELA***");
     System.out.println("BCPs:");
-    for (int i = 0; i < this.processos.size(); i++) {
-      this.processos.get(i).printBCP();
+    for (int i = 0; i < this.n_criados; i++) {
+      if (this.estado[i] != Estado.TERMINADO.getCodigo()) this.getBCP(i).printBCP();
     }
   }
 }
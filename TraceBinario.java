@@ -0,0 +1,203 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A classe `TraceBinario` grava os eventos da simulação em um formato binário compacto, bem menor
+ * que o log em texto e que pode ser lido em sequência sem carregar o arquivo inteiro (veja
+ * `LeitorTrace`).
+ *
+ * Formato: os bytes "TRC1" e, em seguida, os eventos. Cada evento começa pelo seu tipo e todos os
+ * números são varints (7 bits por byte, o bit mais alto indica que há mais bytes):
+ *
+ * - `CARREGANDO`: CPU + 1, id do processo, tamanho e bytes UTF-8 do nome;
+ * - `FIM_QUANTUM`, `ENTRADA_SAIDA` e `SAIDA` (um despacho, o tipo é 1 + o motivo da parada): CPU + 1,
+ *   id do processo, diferença para o instante do despacho anterior (zigzag) e instruções executadas;
+ *   `SAIDA` traz ainda os registradores X e Y (zigzag);
+ * - `TEXTO`: tamanho e bytes UTF-8 de uma linha do relatório.
+ */
+
+public class TraceBinario implements SaidaLog {
+  // Tipos de evento
+
+  public static final int CARREGANDO = 0;
+  public static final int FIM_QUANTUM = 1 + Interpretador.FIM_QUANTUM;
+  public static final int ENTRADA_SAIDA = 1 + Interpretador.ENTRADA_SAIDA;
+  public static final int SAIDA = 1 + Interpretador.SAIDA;
+  public static final int TEXTO = 4;
+
+  /**
+   * Bytes iniciais de um arquivo de trace.
+   */
+  public static final byte[] ASSINATURA = {'T', 'R', 'C', '1'};
+
+  // Atributos
+
+  /**
+   * Arquivo de destino.
+   */
+  private final FileChannel canal;
+
+  /**
+   * Buffer dos eventos ainda não gravados.
+   */
+  private final ByteBuffer bytes = ByteBuffer.allocate(1 << 16);
+
+  /**
+   * Instante do último despacho gravado, base para o próximo.
+   */
+  private long ultimo_instante;
+
+  /**
+   * Indica que houve um erro de gravação; os eventos seguintes são descartados.
+   */
+  private boolean erro;
+
+  // Construtor
+
+  /**
+   * Cria o trace, truncando o arquivo de destino.
+   *
+   * @param arquivo O arquivo de destino.
+   * @throws IOException Se não for possível abrir o arquivo.
+   */
+  public TraceBinario(Path arquivo) throws IOException {
+    this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                  StandardOpenOption.TRUNCATE_EXISTING);
+    this.bytes.put(ASSINATURA);
+  }
+
+  // Métodos
+
+  @Override
+  public synchronized void carregando(int cpu, BCP bcp) {
+    byte[] nome = bcp.getNome().getBytes(StandardCharsets.UTF_8);
+    ByteBuffer destino = this.reserva(4 * 5 + nome.length);
+    varint(destino, CARREGANDO);
+    varint(destino, cpu + 1);
+    varint(destino, bcp.getId());
+    varint(destino, nome.length);
+    destino.put(nome);
+    this.conclui(destino);
+  }
+
+  @Override
+  public synchronized void despacho(int cpu, BCP bcp, long instante, int instrucoes, int motivo) {
+    this.reserva(5 * 10);
+    varint(this.bytes, 1 + motivo);
+    varint(this.bytes, cpu + 1);
+    varint(this.bytes, bcp.getId());
+    varint(this.bytes, zigzag(instante - this.ultimo_instante));
+    varint(this.bytes, instrucoes);
+    if (motivo == Interpretador.SAIDA) {
+      varint(this.bytes, zigzag(bcp.getX()));
+      varint(this.bytes, zigzag(bcp.getY()));
+    }
+    this.ultimo_instante = instante;
+  }
+
+  @Override
+  public synchronized void texto(String linha) {
+    byte[] texto = linha.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer destino = this.reserva(2 * 5 + texto.length);
+    varint(destino, TEXTO);
+    varint(destino, texto.length);
+    destino.put(texto);
+    this.conclui(destino);
+  }
+
+  @Override
+  public synchronized long sincroniza() {
+    this.descarrega();
+    try {
+      return this.canal.position();
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao gravar o arquivo de trace.");
+      e.printStackTrace();
+      return -1;
+    }
+  }
+
+  @Override
+  public synchronized void fecha() {
+    this.descarrega();
+    try {
+      this.canal.close();
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao fechar o arquivo de trace.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Garante espaço no buffer para um evento, gravando o buffer no arquivo se preciso. Um evento maior
+   * que o buffer inteiro (um nome muito longo) é gravado em um buffer próprio.
+   *
+   * @param tamanho O tamanho máximo do evento, em bytes.
+   * @return O buffer onde o evento deve ser escrito.
+   */
+  private ByteBuffer reserva(int tamanho) {
+    if (this.bytes.remaining() < tamanho) this.descarrega();
+    return tamanho <= this.bytes.capacity() ? this.bytes : ByteBuffer.allocate(tamanho);
+  }
+
+  /**
+   * Conclui um evento escrito no buffer obtido por `reserva`, gravando-o se for um buffer próprio.
+   *
+   * @param destino O buffer onde o evento foi escrito.
+   */
+  private void conclui(ByteBuffer destino) {
+    if (destino != this.bytes) this.grava(destino);
+  }
+
+  /**
+   * Grava o buffer no arquivo e o esvazia.
+   */
+  private void descarrega() {
+    this.grava(this.bytes);
+  }
+
+  /**
+   * Grava o conteúdo de um buffer no arquivo e o esvazia.
+   *
+   * @param buffer O buffer, em modo de escrita.
+   */
+  private void grava(ByteBuffer buffer) {
+    buffer.flip();
+    try {
+      while (!this.erro && buffer.hasRemaining()) this.canal.write(buffer);
+    } catch (IOException e) {
+      System.out.println("Ocorreu um erro ao gravar o arquivo de trace.");
+      e.printStackTrace();
+      this.erro = true;
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Escreve um número não negativo como varint.
+   *
+   * @param bytes O buffer de saída.
+   * @param valor O número.
+   */
+  static void varint(ByteBuffer bytes, long valor) {
+    while ((valor & ~0x7FL) != 0) {
+      bytes.put((byte) ((valor & 0x7F) | 0x80));
+      valor >>>= 7;
+    }
+    bytes.put((byte) valor);
+  }
+
+  /**
+   * Codifica um número com sinal para que valores pequenos, positivos ou negativos, virem varints curtos.
+   *
+   * @param valor O número.
+   * @return O número codificado.
+   */
+  static long zigzag(long valor) {
+    return (valor << 1) ^ (valor >> 63);
+  }
+}
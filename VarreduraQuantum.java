@@ -0,0 +1,100 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A classe `VarreduraQuantum` executa a mesma simulação para uma faixa de valores de quantum, dentro da
+ * mesma JVM. Os programas são lidos e compilados uma única vez; cada quantum roda em paralelo, em um
+ * pool fork-join, sobre a sua própria cópia do estado dos processos. Além do log de cada quantum
+ * (`logs/logNN.txt`), é gerada uma tabela comparativa em `logs/comparacao.txt`.
+ */
+
+public class VarreduraQuantum {
+  // Atributos
+
+  /**
+   * Escalonador com os programas já lidos, usado como modelo para cada simulação.
+   */
+  private final Escalonador base;
+
+  /**
+   * Primeiro quantum da varredura.
+   */
+  private final int inicio;
+
+  /**
+   * Último quantum da varredura.
+   */
+  private final int fim;
+
+  // Construtor
+
+  /**
+   * Cria uma varredura de quantum.
+   *
+   * @param base O escalonador com os programas já lidos.
+   * @param inicio O primeiro quantum.
+   * @param fim O último quantum.
+   */
+  public VarreduraQuantum(Escalonador base, int inicio, int fim) {
+    this.base = base;
+    this.inicio = inicio;
+    this.fim = fim;
+  }
+
+  // Métodos
+
+  /**
+   * Executa as simulações de todos os valores de quantum em paralelo e grava a tabela comparativa.
+   */
+  public void executar() {
+    List<Escalonador> simulacoes = new ArrayList<>();
+    List<ForkJoinTask<?>> tarefas = new ArrayList<>();
+
+    for (int quantum = this.inicio; quantum <= this.fim; quantum++) {
+      Escalonador simulacao = this.base.copia(quantum);
+      simulacoes.add(simulacao);
+      tarefas.add(ForkJoinTask.adapt(simulacao::gerar_log));
+    }
+
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      for (ForkJoinTask<?> tarefa : tarefas) pool.execute(tarefa);
+      for (ForkJoinTask<?> tarefa : tarefas) tarefa.join();
+    } finally {
+      pool.shutdown();
+    }
+
+    this.gravaComparacao(simulacoes);
+  }
+
+  /**
+   * Grava a tabela comparativa com a média de trocas e de instruções de cada quantum.
+   *
+   * @param simulacoes As simulações executadas, em ordem de quantum.
+   */
+  private void gravaComparacao(List<Escalonador> simulacoes) {
+    new File("logs").mkdirs();
+
+    try (PrintWriter writer = new PrintWriter("logs/comparacao.txt", "UTF-8")) {
+      writer.println(String.format("%7s | %15s | %19s", "QUANTUM", "MÉDIA DE TROCAS", "MÉDIA DE INSTRUCOES"));
+      for (Escalonador simulacao : simulacoes) {
+        writer.println(String.format("%7d | %15.2f | %19.2f", simulacao.getQuantum(),
+                                     simulacao.getMediaTrocas(), simulacao.getMediaInstrucoes()));
+      }
+    }
+    // Tratamento de exceções do writer
+    catch (FileNotFoundException e) {
+      System.out.println("Ocorreu um erro ao abrir o arquivo.");
+      e.printStackTrace();
+    } catch (UnsupportedEncodingException e) {
+      System.out.println("Ocorreu um erro com a codificação do arquivo.");
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,420 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * A classe `BenchmarkEscalonador` mede o desempenho dos pontos críticos do escalonador: a vazão de
+ * despachos de `Escalonador.executar` (execuções e instruções por segundo), as operações das filas
+ * `FilaProntos` e `FilaBloq`, a leitura de programas em `lerArquivos` e a vazão de simulações
+ * independentes executadas ao mesmo tempo em um pool de threads e o interpretador comparado ao
+ * código compilado para bytecode.
+ *
+ * Segue a metodologia do JMH sem depender dele: cada caso passa por iterações de aquecimento antes das
+ * iterações medidas, cada iteração roda por um tempo fixo, o resultado é a média com o desvio padrão,
+ * e a alocação de memória por operação é medida pelo `ThreadMXBean` da JVM (como o perfilador `gc`
+ * do JMH). Os casos são parametrizados pelo número de processos, tamanho dos programas, densidade de
+ * E/S e quantum.
+ *
+ * Compilação e execução, a partir da raiz do projeto:
+ *
+ *     javac -encoding UTF-8 -d out *.java benchmark/*.java
+ *     java -cp out BenchmarkEscalonador [--rapido] [filtro]
+ */
+
+public class BenchmarkEscalonador {
+  // Parâmetros
+
+  /**
+   * Números de processos avaliados.
+   */
+  private static final int[] PROCESSOS = {100, 10_000};
+
+  /**
+   * Tamanhos de programa (número de instruções) avaliados.
+   */
+  private static final int[] TAMANHOS = {20, 200};
+
+  /**
+   * Probabilidades de cada instrução ser uma E/S avaliadas.
+   */
+  private static final double[] DENSIDADES_ES = {0.0, 0.05};
+
+  /**
+   * Valores de quantum avaliados.
+   */
+  private static final int[] QUANTUNS = {1, 10, 100};
+
+  /**
+   * Semente do gerador dos programas sintéticos, para que todas as execuções usem as mesmas cargas.
+   */
+  private static final long SEMENTE = 42;
+
+  // Configuração das iterações
+
+  /**
+   * Número de iterações de aquecimento.
+   */
+  private int aquecimento = 3;
+
+  /**
+   * Número de iterações medidas.
+   */
+  private int medicoes = 5;
+
+  /**
+   * Duração de cada iteração, em nanossegundos.
+   */
+  private long nanos_iteracao = 500_000_000L;
+
+  /**
+   * Apenas os casos cujo nome contém este texto são executados.
+   */
+  private String filtro = "";
+
+  /**
+   * Writer que descarta tudo, para medir o escalonador sem o custo de gravar o log em disco.
+   */
+  private static final PrintWriter DESCARTE = new PrintWriter(OutputStream.nullOutputStream());
+
+  /**
+   * Uma operação medida. Devolve quantas unidades de trabalho (execuções, instruções, programas)
+   * foram feitas na chamada, para que o resultado seja expresso nessas unidades por segundo.
+   */
+  private interface Operacao {
+    long executa();
+  }
+
+  /**
+   * Executa os casos de benchmark.
+   *
+   * @param args `--rapido` reduz o número e a duração das iterações; um texto qualquer filtra os casos pelo nome.
+   * @throws IOException Se não for possível criar os programas sintéticos.
+   */
+  public static void main(String[] args) throws IOException {
+    BenchmarkEscalonador benchmark = new BenchmarkEscalonador();
+    for (String arg : args) {
+      if (arg.equals("--rapido")) {
+        benchmark.aquecimento = 1;
+        benchmark.medicoes = 3;
+        benchmark.nanos_iteracao = 100_000_000L;
+      }
+      else benchmark.filtro = arg;
+    }
+
+    System.out.println(String.format("%-12s %10s %8s %10s %8s %7s %14s %12s  %s",
+        "Benchmark", "processos", "tamanho", "densidade", "quantum", "Cnt", "Score", "Erro", "Unidade"));
+
+    benchmark.despacho();
+    benchmark.filaProntos();
+    benchmark.filaBloq();
+    benchmark.carga();
+    benchmark.simulacoes();
+    benchmark.bytecode();
+  }
+
+  // Casos de benchmark
+
+  /**
+   * Vazão de despachos do escalonador: a simulação completa de todos os processos, medida em
+   * execuções (fatias de quantum) e instruções por segundo.
+   */
+  private void despacho() throws IOException {
+    if (!"despacho".contains(this.filtro)) return;
+
+    for (int processos : PROCESSOS) {
+      for (int tamanho : TAMANHOS) {
+        for (double densidade : DENSIDADES_ES) {
+          File pasta = geraProgramas(processos, tamanho, densidade);
+          Escalonador base = new Escalonador();
+          base.lerArquivos(pasta.getPath());
+
+          for (int quantum : QUANTUNS) {
+            long[] instrucoes = new long[1];
+            double[][] resultado = this.mede(() -> {
+              Escalonador simulacao = base.copia(quantum);
+              simulacao.simular(DESCARTE);
+              instrucoes[0] += simulacao.getNumInstrucoes();
+              return simulacao.getNumTrocas();
+            }, instrucoes);
+
+            this.imprime("despacho", processos, tamanho, densidade, quantum, resultado[0], "fatias/s");
+            this.imprime("  :instr", processos, tamanho, densidade, quantum, resultado[1], "instr/s");
+            this.imprime("  :alloc", processos, tamanho, densidade, quantum, resultado[2], "B/fatia");
+          }
+          apaga(pasta);
+        }
+      }
+    }
+  }
+
+  /**
+   * Operações da fila de prontos: obter o próximo processo e devolvê-lo ao fim da fila.
+   */
+  private void filaProntos() {
+    if (!"filaProntos".contains(this.filtro)) return;
+
+    for (int processos : PROCESSOS) {
+      TabelaDeProcessos tabela = tabelaSintetica(processos, 20, 0.0);
+      FilaProntos fila = new FilaProntos();
+      fila.novaFila(tabela);
+
+      double[][] resultado = this.mede(() -> {
+        for (int i = 0; i < 1000; i++) {
+          fila.pegaPronto();
+          fila.jogaFimDaFila();
+        }
+        return 1000;
+      }, null);
+
+      this.imprime("filaProntos", processos, 0, 0, 0, resultado[0], "ops/s");
+      this.imprime("  :alloc", processos, 0, 0, 0, resultado[2], "B/op");
+    }
+  }
+
+  /**
+   * Operações da fila de bloqueados: a cada instante um processo é bloqueado e os processos cuja E/S
+   * terminou são liberados. A latência é metade do número de processos, então o heap fica com cerca
+   * de metade dos processos.
+   */
+  private void filaBloq() {
+    if (!"filaBloq".contains(this.filtro)) return;
+
+    for (int processos : PROCESSOS) {
+      TabelaDeProcessos tabela = tabelaSintetica(processos, 20, 0.0);
+      FilaProntos prontos = new FilaProntos();
+      prontos.novaFila(tabela);
+      FilaBloq bloqueados = new FilaBloq(processos / 2);
+      long[] relogio = new long[1];
+
+      double[][] resultado = this.mede(() -> {
+        for (int i = 0; i < 1000; i++) {
+          long agora = relogio[0]++;
+          bloqueados.insereBloq(prontos.retiraPronto(), agora);
+          bloqueados.liberaExpirados(agora, prontos);
+        }
+        return 1000;
+      }, null);
+
+      this.imprime("filaBloq", processos, 0, 0, 0, resultado[0], "ops/s");
+      this.imprime("  :alloc", processos, 0, 0, 0, resultado[2], "B/op");
+    }
+  }
+
+  /**
+   * Leitura e compilação dos programas de uma pasta por `lerArquivos`.
+   */
+  private void carga() throws IOException {
+    if (!"carga".contains(this.filtro)) return;
+
+    for (int processos : PROCESSOS) {
+      for (int tamanho : TAMANHOS) {
+        File pasta = geraProgramas(processos, tamanho, 0.05);
+
+        double[][] resultado = this.mede(() -> {
+          new Escalonador().lerArquivos(pasta.getPath());
+          return processos;
+        }, null);
+
+        this.imprime("carga", processos, tamanho, 0.05, 0, resultado[0], "programas/s");
+        this.imprime("  :alloc", processos, tamanho, 0.05, 0, resultado[2], "B/programa");
+        apaga(pasta);
+      }
+    }
+  }
+
+  /**
+   * Vazão de simulações independentes (`Simulacao`) executadas ao mesmo tempo em um pool de threads,
+   * com uma thread e com uma thread por núcleo: cada operação é um lote de simulações pequenas.
+   */
+  private void simulacoes() {
+    if (!"simulacoes".contains(this.filtro)) return;
+
+    int processos = 100, tamanho = 20, lote = 64;
+    List<Simulacao> simulacoes = new ArrayList<>();
+    Random aleatorio = new Random(SEMENTE);
+    for (int i = 0; i < lote; i++) {
+      Simulacao simulacao = new Simulacao(1 + i % 10);
+      for (int p = 1; p <= processos; p++) {
+        simulacao.adicionaPrograma("TESTE-" + p, Programa.compila("sintetico", programaSintetico(aleatorio, tamanho, 0.05)), 0, 0);
+      }
+      simulacoes.add(simulacao);
+    }
+
+    int nucleos = Runtime.getRuntime().availableProcessors();
+    for (int threads : nucleos > 1 ? new int[] {1, nucleos} : new int[] {1}) {
+      ExecutorService pool = Executors.newFixedThreadPool(threads);
+      List<Callable<ResultadoSimulacao>> tarefas = new ArrayList<>();
+      for (Simulacao simulacao : simulacoes) tarefas.add(simulacao::executa);
+
+      double[][] resultado = this.mede(() -> {
+        try {
+          for (Future<ResultadoSimulacao> futuro : pool.invokeAll(tarefas)) futuro.get();
+        } catch (InterruptedException | ExecutionException e) {
+          throw new IllegalStateException(e);
+        }
+        return lote;
+      }, null);
+      pool.shutdown();
+
+      this.imprime("simulacoes", processos, tamanho, 0.05, 0, resultado[0], "simul/s (" + threads + (threads == 1 ? " thread)" : " threads)"));
+    }
+  }
+
+  /**
+   * Interpretador contra o código compilado para bytecode (`CompiladorBytecode`) em programas de
+   * computação intensa: laços de "COM" e aritmética, com uma E/S a cada volta externa. Medido em
+   * instruções simuladas por segundo, para cada quantum.
+   */
+  private void bytecode() {
+    if (!"bytecode".contains(this.filtro)) return;
+
+    int processos = 100;
+    Programa programa = Programa.compila("laco", List.of(
+        "X=50", "EXTERNO:", "Y=200", "INTERNO:", "X+=1", "COM", "X-=1", "COM", "LOOP Y INTERNO", "E/S", "LOOP X EXTERNO", "SAIDA"));
+    Simulacao interpretada = new Simulacao(1), compilada = new Simulacao(1);
+    compilada.setBytecode(true);
+    for (int p = 1; p <= processos; p++) {
+      interpretada.adicionaPrograma("LACO-" + p, programa, 0, 0);
+      compilada.adicionaPrograma("LACO-" + p, programa, 0, 0);
+    }
+
+    for (int quantum : QUANTUNS) {
+      for (Simulacao simulacao : new Simulacao[] {interpretada, compilada}) {
+        simulacao.setQuantum(quantum);
+        double[][] resultado = this.mede(() -> simulacao.executa().getInstrucoes(), null);
+        this.imprime(simulacao == compilada ? "bytecode" : "  :interp", processos, programa.getTamanho(), 0, quantum, resultado[0], "instr/s");
+      }
+    }
+  }
+
+  // Medição
+
+  /**
+   * Mede uma operação: roda as iterações de aquecimento e as medidas, cada uma repetindo a operação
+   * até completar a duração da iteração.
+   *
+   * @param operacao A operação medida.
+   * @param secundario Contador opcional de uma segunda unidade de trabalho, acumulado pela operação.
+   * @return Para a unidade principal, a secundária e os bytes alocados por unidade principal: a média e o desvio padrão.
+   */
+  private double[][] mede(Operacao operacao, long[] secundario) {
+    com.sun.management.ThreadMXBean mxbean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    double[][] amostras = new double[3][this.medicoes];
+
+    for (int iteracao = 0; iteracao < this.aquecimento + this.medicoes; iteracao++) {
+      if (secundario != null) secundario[0] = 0;
+      long unidades = 0;
+      long bytes = mxbean.getThreadAllocatedBytes(thread);
+      long inicio = System.nanoTime(), decorrido;
+      do {
+        unidades += operacao.executa();
+        decorrido = System.nanoTime() - inicio;
+      } while (decorrido < this.nanos_iteracao);
+      bytes = mxbean.getThreadAllocatedBytes(thread) - bytes;
+
+      int medicao = iteracao - this.aquecimento;
+      if (medicao >= 0) {
+        amostras[0][medicao] = unidades * 1e9 / decorrido;
+        amostras[1][medicao] = secundario != null ? secundario[0] * 1e9 / decorrido : 0;
+        amostras[2][medicao] = (double) bytes / Math.max(unidades, 1);
+      }
+    }
+
+    double[][] resultado = new double[3][];
+    for (int i = 0; i < 3; i++) resultado[i] = mediaEDesvio(amostras[i]);
+    return resultado;
+  }
+
+  /**
+   * Calcula a média e o desvio padrão amostral.
+   */
+  private static double[] mediaEDesvio(double[] amostras) {
+    double soma = 0;
+    for (double a : amostras) soma += a;
+    double media = soma / amostras.length;
+    double quadrados = 0;
+    for (double a : amostras) quadrados += (a - media) * (a - media);
+    double desvio = amostras.length > 1 ? Math.sqrt(quadrados / (amostras.length - 1)) : 0;
+    return new double[] {media, desvio};
+  }
+
+  /**
+   * Imprime uma linha de resultado.
+   */
+  private void imprime(String nome, int processos, int tamanho, double densidade, int quantum,
+                       double[] resultado, String unidade) {
+    System.out.println(String.format("%-12s %10s %8s %10s %8s %7d %14.1f ± %10.1f  %s", nome,
+        processos > 0 ? processos : "-", tamanho > 0 ? tamanho : "-",
+        tamanho > 0 ? String.format("%.2f", densidade) : "-", quantum > 0 ? quantum : "-",
+        this.medicoes, resultado[0], resultado[1], unidade));
+  }
+
+  // Cargas sintéticas
+
+  /**
+   * Gera as linhas de um programa sintético: atribuições, comandos e E/S, terminando com SAIDA.
+   */
+  private static List<String> programaSintetico(Random aleatorio, int tamanho, double densidade) {
+    List<String> linhas = new ArrayList<>(tamanho);
+    for (int i = 0; i < tamanho - 1; i++) {
+      double sorteio = aleatorio.nextDouble();
+      if (sorteio < densidade) linhas.add("E/S");
+      else if (sorteio < densidade + 0.1) linhas.add("X=" + aleatorio.nextInt(100));
+      else if (sorteio < densidade + 0.2) linhas.add("Y=" + aleatorio.nextInt(100));
+      else linhas.add("COM");
+    }
+    linhas.add("SAIDA");
+    return linhas;
+  }
+
+  /**
+   * Cria uma tabela de processos sintéticos em memória.
+   */
+  private static TabelaDeProcessos tabelaSintetica(int processos, int tamanho, double densidade) {
+    Random aleatorio = new Random(SEMENTE);
+    TabelaDeProcessos tabela = new TabelaDeProcessos(processos);
+    for (int i = 0; i < processos; i++) {
+      tabela.novoProcesso("TESTE-" + (i + 1), i + 1, Programa.compila("sintetico", programaSintetico(aleatorio, tamanho, densidade)));
+    }
+    return tabela;
+  }
+
+  /**
+   * Grava programas sintéticos em uma pasta temporária, no formato da pasta "programas".
+   */
+  private static File geraProgramas(int processos, int tamanho, double densidade) throws IOException {
+    Random aleatorio = new Random(SEMENTE);
+    File pasta = Files.createTempDirectory("benchmark-programas").toFile();
+    Files.write(new File(pasta, "quantum.txt").toPath(), List.of("1"));
+    for (int i = 1; i <= processos; i++) {
+      List<String> linhas = new ArrayList<>();
+      linhas.add("TESTE-" + i);
+      linhas.addAll(programaSintetico(aleatorio, tamanho, densidade));
+      Files.write(new File(pasta, String.format("%02d.txt", i)).toPath(), linhas);
+    }
+    return pasta;
+  }
+
+  /**
+   * Apaga uma pasta temporária e o seu conteúdo.
+   */
+  private static void apaga(File pasta) throws IOException {
+    try (Stream<java.nio.file.Path> caminhos = Files.walk(pasta.toPath())) {
+      caminhos.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+    }
+  }
+}